@@ -0,0 +1,72 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.AuctionResult;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.orderexecution.SessionState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening auction on a book collected during the call, with both sides spread over the same
+ * 100 ticks so roughly half the orders cross. indicativeUncross only finds the equilibrium price;
+ * uncross also executes it against a freshly built book each time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Thread)
+public class AuctionUncrossBenchmark {
+    private static final String RIC = "BENCH.A";
+    private static final int PRICE_TICKS = 100;
+
+    @Param({"100000", "1000000"})
+    public int bookSize;
+
+    private OrderProcessorImpl orderProcessor;
+
+    @Setup(Level.Invocation)
+    public void setupBook() {
+        orderProcessor = BenchmarkSupport.newProcessor(RIC);
+        orderProcessor.setSessionState(SessionState.PRE_OPEN);
+        SplittableRandom random = new SplittableRandom(17);
+        long tick = Price.toScaled(OrderFlowGenerator.TICK_SIZE);
+        long lowPrice = Price.toScaled(100.0) - PRICE_TICKS / 2 * tick;
+        for (int i = 0; i < bookSize; i++) {
+            int lots = 1 + random.nextInt(10);
+            long price = lowPrice + random.nextInt(PRICE_TICKS) * tick;
+            if (random.nextBoolean()) {
+                orderProcessor.submitOrder(new BuyOrder(RIC, lots, price, OrderFlowGenerator.LOT_SIZE));
+            } else {
+                orderProcessor.submitOrder(new SellOrder(RIC, lots, price, OrderFlowGenerator.LOT_SIZE));
+            }
+        }
+    }
+
+    @Benchmark
+    public AuctionResult indicativeUncross() {
+        return orderProcessor.getIndicativeUncross();
+    }
+
+    @Benchmark
+    public AuctionResult uncross() {
+        return orderProcessor.setSessionState(SessionState.CONTINUOUS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.order.BaseOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine ingest of the same order flow submitted one order at a time and as batches of
+ * BATCH_SIZE, in orders per second. One in four orders crosses the spread so the book stays bounded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchSubmitThroughputBenchmark {
+    private static final String RIC = "BENCH.T";
+    private static final int BATCH_SIZE = 32;
+
+    @Param({"INLINE", "SEQUENCED"})
+    public MatchingMode matchingMode;
+
+    private TradeBookingEngineImpl engine;
+    private OrderFlowGenerator orderFlow;
+    private final List<BaseOrder> batch = new ArrayList<>(BATCH_SIZE);
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(1);
+        config.setMatchingMode(matchingMode);
+        config.setConsoleReports(false);
+        engine = new TradeBookingEngineImpl(config);
+        engine.start();
+        engine.register(RIC, OrderFlowGenerator.TICK_SIZE);
+        orderFlow = new OrderFlowGenerator(RIC, 100.0, 42);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submitOneByOne() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            engine.submitOrder(RIC, nextOrder());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submitBatch() {
+        batch.clear();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(nextOrder());
+        }
+        engine.submitOrders(RIC, batch);
+    }
+
+    private BaseOrder nextOrder() {
+        return (++next & 3) == 0 ? orderFlow.nextAggressiveOrder() : orderFlow.nextPassiveOrder();
+    }
+}
@@ -0,0 +1,28 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.log.LogLevel;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.order.Price;
+import com.trade.engine.report.ExecutionReportListener;
+
+final class BenchmarkSupport {
+    static final ExecutionReportListener NO_OP_LISTENER = report -> { };
+
+    private BenchmarkSupport() {
+    }
+
+    static void quietLogging() {
+        LogManager.setLevel(LogLevel.WARN);
+    }
+
+    static OrderProcessorImpl newProcessor(String RIC) {
+        quietLogging();
+        OrderProcessorImpl orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(),
+                Price.toScaled(OrderFlowGenerator.TICK_SIZE));
+        orderProcessor.setExecutionReportListener(NO_OP_LISTENER);
+        orderProcessor.setActive(true);
+        return orderProcessor;
+    }
+}
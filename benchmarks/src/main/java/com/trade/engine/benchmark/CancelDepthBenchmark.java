@@ -0,0 +1,60 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of cancelling a random resting order as the book grows. The cancelled order is
+ * resubmitted so the depth stays constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CancelDepthBenchmark {
+    private static final String RIC = "BENCH.C";
+
+    @Param({"1000", "10000", "100000"})
+    public int bookDepth;
+
+    private OrderProcessorImpl orderProcessor;
+    private BaseOrder[] restingOrders;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setupBook() {
+        orderProcessor = BenchmarkSupport.newProcessor(RIC);
+        OrderFlowGenerator orderFlow = new OrderFlowGenerator(RIC, 100.0, 11);
+        restingOrders = new BaseOrder[bookDepth];
+        for (int i = 0; i < bookDepth; i++) {
+            restingOrders[i] = orderFlow.nextPassiveOrder();
+            orderProcessor.submitOrder(restingOrders[i]);
+        }
+        random = new SplittableRandom(13);
+    }
+
+    @Benchmark
+    public boolean cancelAndResubmit() {
+        BaseOrder order = restingOrders[random.nextInt(bookDepth)];
+        boolean cancelled = orderProcessor.cancelOrder(order);
+        orderProcessor.submitOrder(order);
+        return cancelled;
+    }
+}
@@ -0,0 +1,85 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.ExecutionReportListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submit-to-report latency through the whole TradeBookingEngineImpl: a resting sell is hit by a
+ * crossing buy and the benchmark waits until the listener sees the buy's fill. JMH reports the
+ * latency percentiles.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EndToEndLatencyBenchmark implements ExecutionReportListener {
+    private static final String RIC = "BENCH.E";
+
+    @Param({"INLINE", "SIGNAL", "SEQUENCED"})
+    public MatchingMode matchingMode;
+
+    private TradeBookingEngineImpl engine;
+    private OrderFlowGenerator orderFlow;
+    private volatile long lastFilledOrderId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        BenchmarkSupport.quietLogging();
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(2);
+        config.setMatchingMode(matchingMode);
+        config.setConsoleReports(false);
+        engine = new TradeBookingEngineImpl(config);
+        engine.addExecutionReportListener(this);
+        engine.start();
+        engine.register(RIC, OrderFlowGenerator.TICK_SIZE);
+        orderFlow = new OrderFlowGenerator(RIC, 100.0, 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        engine.shutdown();
+    }
+
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        if (report.getExecutedQuantity() > 0) {
+            lastFilledOrderId = report.getOrderId();
+        }
+    }
+
+    @Benchmark
+    public long submitCrossingPairAndAwaitFill() {
+        SellOrder sellOrder = orderFlow.nextPassiveSellOrder();
+        BuyOrder buyOrder = new BuyOrder(RIC, sellOrder.getQuantity() / OrderFlowGenerator.LOT_SIZE,
+                sellOrder.getScaledPrice() + 1_000_000L, OrderFlowGenerator.LOT_SIZE);
+        engine.submitOrder(RIC, sellOrder);
+        engine.submitOrder(RIC, buyOrder);
+        long buyOrderId = buyOrder.getId();
+        while (lastFilledOrderId != buyOrderId) {
+            Thread.yield();
+        }
+        return buyOrderId;
+    }
+}
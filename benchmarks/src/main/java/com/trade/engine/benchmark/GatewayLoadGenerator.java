@@ -0,0 +1,137 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.gateway.GatewayClient;
+import com.trade.engine.gateway.OrderGateway;
+import com.trade.engine.metrics.LatencyHistogram;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.report.RejectReason;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load generator for the order-entry gateway over loopback. Starts an engine and an OrderGateway
+ * in process, then drives it from several client connections, each trading its own RIC. A client
+ * sends a window of alternating sells and buys at one price, so every pair fills, and waits for
+ * all of them to be executed before the next window. Each order is timed from its send to its
+ * final fill report.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.trade.engine.benchmark.GatewayLoadGenerator
+ *      [clients] [ordersPerClient] [window] [matchingMode]
+ */
+public class GatewayLoadGenerator {
+    private static final long PRICE = Price.toScaled(100.0);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int ordersPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        MatchingMode matchingMode = args.length > 3 ? MatchingMode.valueOf(args[3]) : MatchingMode.SIGNAL;
+
+        BenchmarkSupport.quietLogging();
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(clients);
+        config.setMatchingMode(matchingMode);
+        config.setConsoleReports(false);
+        config.setJmxMetrics(false);
+        TradeBookingEngineImpl engine = new TradeBookingEngineImpl(config);
+        engine.start();
+        OrderGateway gateway = new OrderGateway(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        gateway.start();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), gateway.getPort());
+
+        LatencyHistogram latency = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            String RIC = "GW." + i;
+            engine.register(RIC, OrderFlowGenerator.TICK_SIZE);
+            Load load = new Load("LOAD" + i, engine.getInstrumentId(RIC), ordersPerClient, window, latency);
+            threads.add(new Thread(() -> load.run(address), "GatewayLoad-" + i));
+        }
+        long startTime = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        long orders = (long) clients * ordersPerClient;
+        System.out.printf("%d clients, %d orders, window %d, %s: %.0f orders/s%n", clients, orders, window,
+                matchingMode, orders * 1e9 / elapsed);
+        System.out.println("send to fill report (ns): " + latency.getSummary());
+        System.out.println("dropped execution reports: " + engine.getDroppedExecutionReports());
+        gateway.stop();
+        engine.shutdown();
+    }
+
+    /**
+     * One client connection and the orders it keeps in flight.
+     */
+    private static class Load implements GatewayClient.Handler {
+        private final String name;
+        private final int instrumentId;
+        private final int orders;
+        private final int window;
+        private final LatencyHistogram latency;
+        private final long[] sendTimes;
+        private int filled;
+
+        Load(String name, int instrumentId, int orders, int window, LatencyHistogram latency) {
+            this.name = name;
+            this.instrumentId = instrumentId;
+            this.orders = orders - orders % 2;
+            this.window = window + window % 2;
+            this.latency = latency;
+            this.sendTimes = new long[this.window];
+        }
+
+        void run(InetSocketAddress address) {
+            try (GatewayClient client = new GatewayClient(address)) {
+                client.logon(name);
+                long clientOrderId = 0;
+                while (clientOrderId < orders) {
+                    int batch = (int) Math.min(window, orders - clientOrderId);
+                    for (int i = 0; i < batch; i++) {
+                        clientOrderId++;
+                        BaseOrder.OrderType side = i % 2 == 0 ? BaseOrder.OrderType.SELL : BaseOrder.OrderType.BUY;
+                        sendTimes[(int) (clientOrderId % window)] = System.nanoTime();
+                        client.newOrder(clientOrderId, instrumentId, side, BaseOrder.TimeInForce.GTC,
+                                BaseOrder.PriceType.LIMIT, PRICE, 100);
+                    }
+                    client.flush();
+                    filled = 0;
+                    while (filled < batch) {
+                        if (client.read(this) < 0) {
+                            throw new IOException("gateway closed the connection");
+                        }
+                    }
+                }
+            } catch (IOException exception) {
+                throw new IllegalStateException(name + " failed", exception);
+            }
+        }
+
+        @Override
+        public void onExecutionReport(long clientOrderId, long orderId, BaseOrder.OrderStatus status,
+                                      RejectReason rejectReason, long fillPrice, int executedQuantity,
+                                      int leavesQuantity) {
+            if (status == BaseOrder.OrderStatus.EXECUTED) {
+                latency.record(System.nanoTime() - sendTimes[(int) (clientOrderId % window)]);
+                filled++;
+            } else if (status == BaseOrder.OrderStatus.REJECTED) {
+                throw new IllegalStateException(name + " order " + clientOrderId + " rejected " + rejectReason);
+            }
+        }
+
+        @Override
+        public void onRequestReject(byte requestType, long clientOrderId, RejectReason reason) {
+            throw new IllegalStateException(name + " request " + clientOrderId + " rejected " + reason);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of booking a crossing order and matching it against a book of a few thousand resting
+ * orders. Each aggressive order is followed by passive flow that refills what it took.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchLatencyBenchmark {
+    private static final String RIC = "BENCH.M";
+    private static final int BOOK_DEPTH = 5_000;
+
+    private OrderProcessorImpl orderProcessor;
+    private OrderFlowGenerator orderFlow;
+    private BaseOrder nextAggressiveOrder;
+
+    @Setup(Level.Iteration)
+    public void setupBook() {
+        orderProcessor = BenchmarkSupport.newProcessor(RIC);
+        orderFlow = new OrderFlowGenerator(RIC, 100.0, 7);
+        for (int i = 0; i < BOOK_DEPTH; i++) {
+            orderProcessor.submitOrder(orderFlow.nextPassiveOrder());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOrder() {
+        nextAggressiveOrder = orderFlow.nextAggressiveOrder();
+        // keep the book roughly at depth
+        orderProcessor.submitOrder(orderFlow.nextPassiveOrder());
+        orderProcessor.submitOrder(orderFlow.nextPassiveOrder());
+    }
+
+    @Benchmark
+    public int submitAndMatchCrossingOrder() {
+        orderProcessor.submitOrder(nextAggressiveOrder);
+        return orderProcessor.executeAllMatchedOrder();
+    }
+}
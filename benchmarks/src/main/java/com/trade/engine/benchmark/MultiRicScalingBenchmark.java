@@ -0,0 +1,99 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aggregate submit throughput with many RICs and several submitting threads, across matching
+ * modes and worker counts. Each submitting thread works its own slice of the RICs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MultiRicScalingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+        @Param({"64"})
+        public int ricCount;
+
+        @Param({"1", "2", "4", "8"})
+        public int workers;
+
+        @Param({"SIGNAL", "SEQUENCED"})
+        public MatchingMode matchingMode;
+
+        TradeBookingEngineImpl engine;
+        final AtomicInteger threadIndex = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void start() {
+            BenchmarkSupport.quietLogging();
+            TradeBookingEngineConfig config = new TradeBookingEngineConfig(workers);
+            config.setMatchingMode(matchingMode);
+            config.setConsoleReports(false);
+            engine = new TradeBookingEngineImpl(config);
+            engine.start();
+            for (int i = 0; i < ricCount; i++) {
+                engine.register(ric(i), OrderFlowGenerator.TICK_SIZE);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            engine.shutdown();
+        }
+
+        static String ric(int i) {
+            return "BENCH." + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Submitter {
+        OrderFlowGenerator[] orderFlows;
+        String[] rics;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(Engine engine) {
+            int index = engine.threadIndex.getAndIncrement();
+            int slice = Math.max(1, engine.ricCount / 4);
+            rics = new String[slice];
+            orderFlows = new OrderFlowGenerator[slice];
+            for (int i = 0; i < slice; i++) {
+                rics[i] = Engine.ric((index * slice + i) % engine.ricCount);
+                orderFlows[i] = new OrderFlowGenerator(rics[i], 100.0, index * 1000 + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void submitMixedFlow(Engine engine, Submitter submitter) {
+        int i = submitter.next++ % submitter.rics.length;
+        OrderFlowGenerator orderFlow = submitter.orderFlows[i];
+        engine.engine.submitOrder(submitter.rics[i],
+                (submitter.next & 3) == 0 ? orderFlow.nextAggressiveOrder() : orderFlow.nextPassiveOrder());
+    }
+}
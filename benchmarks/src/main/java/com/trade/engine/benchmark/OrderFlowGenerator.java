@@ -0,0 +1,63 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic order flow around a mid price: passive orders rest a few ticks away
+ * from the mid with a roughly geometric depth profile, aggressive orders cross the spread.
+ */
+public class OrderFlowGenerator {
+    public static final int LOT_SIZE = 100;
+    public static final double TICK_SIZE = 0.01;
+
+    private final String RIC;
+    private final long mid;
+    private final long tick;
+    private final SplittableRandom random;
+
+    public OrderFlowGenerator(String RIC, double midPrice, long seed) {
+        this.RIC = RIC;
+        this.mid = Price.toScaled(midPrice);
+        this.tick = Price.toScaled(TICK_SIZE);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Order resting on either side, between 1 and ~50 ticks from the mid.
+     */
+    public BaseOrder nextPassiveOrder() {
+        return random.nextBoolean() ? nextPassiveBuyOrder() : nextPassiveSellOrder();
+    }
+
+    public BuyOrder nextPassiveBuyOrder() {
+        return new BuyOrder(RIC, lots(), mid - ticksAway() * tick, LOT_SIZE);
+    }
+
+    public SellOrder nextPassiveSellOrder() {
+        return new SellOrder(RIC, lots(), mid + ticksAway() * tick, LOT_SIZE);
+    }
+
+    /**
+     * Marketable order priced far enough through the mid to take the top few levels.
+     */
+    public BaseOrder nextAggressiveOrder() {
+        if (random.nextBoolean()) {
+            return new BuyOrder(RIC, lots(), mid + 5 * tick, LOT_SIZE);
+        }
+        return new SellOrder(RIC, lots(), mid - 5 * tick, LOT_SIZE);
+    }
+
+    private int lots() {
+        return 1 + random.nextInt(10);
+    }
+
+    private long ticksAway() {
+        // geometric-ish: most orders close to the touch, a long tail further out
+        return 1 + (long) (-Math.log(1 - random.nextDouble()) * 8) % 50;
+    }
+}
@@ -0,0 +1,43 @@
+package com.trade.engine.benchmark;
+
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passive order submission into a single RIC's book.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SubmitThroughputBenchmark {
+    private static final String RIC = "BENCH.T";
+
+    private OrderProcessorImpl orderProcessor;
+    private OrderFlowGenerator orderFlow;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        orderProcessor = BenchmarkSupport.newProcessor(RIC);
+        orderFlow = new OrderFlowGenerator(RIC, 100.0, 42);
+    }
+
+    @Benchmark
+    public void submitPassiveOrder() {
+        orderProcessor.submitOrder(orderFlow.nextPassiveOrder());
+    }
+}
@@ -0,0 +1,13 @@
+package com.trade.engine.booking;
+
+/**
+ * How matching is triggered after an order is submitted.
+ */
+public enum MatchingMode {
+    /** match on the submitting thread before submitOrder returns */
+    INLINE,
+    /** wake the RIC's processor task, which matches on a pool thread */
+    SIGNAL,
+    /** publish commands to the RIC's ring buffer, applied and matched by a single consumer thread */
+    SEQUENCED
+}
@@ -1,27 +1,134 @@
 package com.trade.engine.booking;
 
+import com.trade.engine.marketdata.MarketDataListener;
+import com.trade.engine.metrics.RicMetrics;
 import com.trade.engine.order.BaseOrder;
 import com.trade.engine.order.BuyOrder;
 import com.trade.engine.order.CounterParty;
 import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderbook.BookDepth;
+import com.trade.engine.orderexecution.AuctionResult;
+import com.trade.engine.orderexecution.BatchSubmitResult;
+import com.trade.engine.orderexecution.SessionState;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.report.ExecutionReportListener;
+import com.trade.engine.scheduler.RicHealth;
+
+import java.util.List;
 
 public interface TradeBookingEngine {
     void start();
+
+    /**
+     * Registers a RIC with its reference data definition, or the default tick and lot size when
+     * there is none.
+     */
     boolean register(String RIC);
+
+    /**
+     * Registers a RIC whose order prices must be a multiple of tickSize.
+     */
+    boolean register(String RIC, double tickSize);
+
+    /**
+     * Registers an instrument with its own tick size, lot size, price band and trading status.
+     */
+    boolean register(Instrument instrument);
+
+    /**
+     * Dense id of a registered RIC, for the overloads that skip the RIC lookup.
+     */
+    int getInstrumentId(String RIC);
+
+    Instrument getInstrument(String RIC);
+
+    Instrument getInstrument(int instrumentId);
     boolean unregister(String RIC);
     void shutdown();
+
+    /**
+     * Listeners are called asynchronously on the report dispatcher thread, never on the matcher.
+     */
+    void addExecutionReportListener(ExecutionReportListener listener);
+
+    boolean removeExecutionReportListener(ExecutionReportListener listener);
+
+    /**
+     * Subscribes to depth updates, the best bid and ask and trades of every registered RIC. Listeners
+     * are called on the market data dispatcher thread and get conflated updates when they fall behind.
+     */
+    void addMarketDataListener(MarketDataListener listener);
+
+    boolean removeMarketDataListener(MarketDataListener listener);
     void submitOrder(String RIC, BaseOrder order);
 
     void submitOrder(String RIC, BaseOrder order, CounterParty counterParty);
 
+    void submitOrder(int instrumentId, BaseOrder order);
+
+    /**
+     * Submits a burst of orders with one registration check and one matching pass for the whole batch.
+     */
+    BatchSubmitResult submitOrders(String RIC, List<BaseOrder> orders);
+
+    BatchSubmitResult submitOrders(int instrumentId, List<BaseOrder> orders);
+
     boolean isPendingOrder(BaseOrder order);
 
     BuyOrder peekBuyOrder(String RIC);
 
     SellOrder peekSellOrder(String RIC);
 
+    /**
+     * Aggregate quantity and order count of the best levels on each side, at most the configured
+     * depth levels. Served from a snapshot without blocking matching.
+     */
+    BookDepth getDepth(String RIC, int levels);
+
+    BookDepth getDepth(int instrumentId, int levels);
+
+    /**
+     * Counters, gauges and latency histograms of a RIC, null when metrics are disabled.
+     */
+    RicMetrics getMetrics(String RIC);
+
+    /**
+     * Whether the RIC's matching is running or waiting to be restarted after a failure, with its
+     * restart count and last failure.
+     */
+    RicHealth getHealth(String RIC);
+
+    SessionState getSessionState(String RIC);
+
+    /**
+     * Moves a RIC to its next trading session, uncrossing the book when an auction call ends. Applied
+     * straight away under the book's lock; in SEQUENCED mode orders still queued join the new session.
+     */
+    AuctionResult setSessionState(String RIC, SessionState sessionState);
+
+    /**
+     * Price and volume the RIC's auction book would uncross at now.
+     */
+    AuctionResult getIndicativeUncross(String RIC);
+
+    /**
+     * Cancels a resting order. In SEQUENCED mode the cancel is queued and true only means it was accepted.
+     */
     public boolean cancelOrder(BaseOrder order);
 
+    /**
+     * Changes a resting order's price and quantity, quantity in units like getQuantity(). A smaller
+     * quantity at the same price keeps the order's queue position, anything else is a cancel-replace.
+     * A stop order still waiting for its trigger can be amended too, its stop price stays.
+     * In SEQUENCED mode the amend is queued and true only means it was accepted.
+     */
+    boolean modifyOrder(BaseOrder order, double price, int quantity);
+
+    /**
+     * modifyOrder with the price in fixed-point units of 1 / Price.SCALE.
+     */
+    boolean modifyOrder(BaseOrder order, long price, int quantity);
+
     public BuyOrder popBuyOrder(String RIC) ;
 
     public SellOrder popSellOrder(String RIC) ;
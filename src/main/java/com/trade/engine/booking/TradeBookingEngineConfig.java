@@ -0,0 +1,290 @@
+package com.trade.engine.booking;
+
+import com.trade.engine.concurrent.WaitStrategyType;
+import com.trade.engine.order.Price;
+import com.trade.engine.orderbook.DepthSnapshot;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.risk.RiskLimits;
+
+/**
+ * Tuning options for TradeBookingEngineImpl.
+ */
+public class TradeBookingEngineConfig {
+    private int parallism;
+    private MatchingMode matchingMode = MatchingMode.SIGNAL;
+    private int sequencerBufferSize = 1 << 14;
+    private WaitStrategyType waitStrategyType = WaitStrategyType.PARK;
+    private double defaultTickSize = 1.0 / Price.SCALE;
+    private int defaultLotSize = Instrument.DEFAULT_LOT_SIZE;
+    private String referenceDataFile;
+    private int reportBufferSize = 1 << 16;
+    private boolean consoleReports = true;
+    private String journalDir;
+    private int journalSegmentSize = 64 << 20;
+    private long journalFlushIntervalMicros = 1000;
+    private long snapshotIntervalMillis = 60_000;
+    private int snapshotRetention = 2;
+    private int tradeTapeSize = 1 << 16;
+    private long marketDataConflationMicros;
+    private int depthLevels = DepthSnapshot.DEFAULT_LEVELS;
+    private RiskLimits riskLimits;
+    private boolean metricsEnabled = true;
+    private boolean jmxMetrics;
+    private long shutdownTimeoutMillis = 5_000;
+    private long restartBackoffMicros = 1_000;
+    private long maxRestartBackoffMicros = 1_000_000;
+
+    public TradeBookingEngineConfig(int parallism) {
+        this.parallism = parallism;
+    }
+
+    public int getParallism() {
+        return parallism;
+    }
+
+    public void setParallism(int parallism) {
+        this.parallism = parallism;
+    }
+
+    public MatchingMode getMatchingMode() {
+        return matchingMode;
+    }
+
+    public void setMatchingMode(MatchingMode matchingMode) {
+        this.matchingMode = matchingMode;
+    }
+
+    public int getSequencerBufferSize() {
+        return sequencerBufferSize;
+    }
+
+    /**
+     * Ring buffer slots per RIC in SEQUENCED mode, must be a power of 2.
+     */
+    public void setSequencerBufferSize(int sequencerBufferSize) {
+        this.sequencerBufferSize = sequencerBufferSize;
+    }
+
+    public double getDefaultTickSize() {
+        return defaultTickSize;
+    }
+
+    /**
+     * Tick size for RICs registered without one. Defaults to the finest fixed-point increment.
+     */
+    public void setDefaultTickSize(double defaultTickSize) {
+        this.defaultTickSize = defaultTickSize;
+    }
+
+    public int getDefaultLotSize() {
+        return defaultLotSize;
+    }
+
+    /**
+     * Lot size for RICs registered without reference data.
+     */
+    public void setDefaultLotSize(int defaultLotSize) {
+        this.defaultLotSize = defaultLotSize;
+    }
+
+    public String getReferenceDataFile() {
+        return referenceDataFile;
+    }
+
+    /**
+     * CSV file of instrument definitions loaded at start, see InstrumentRegistry for the format.
+     */
+    public void setReferenceDataFile(String referenceDataFile) {
+        this.referenceDataFile = referenceDataFile;
+    }
+
+    public int getReportBufferSize() {
+        return reportBufferSize;
+    }
+
+    /**
+     * Execution reports held for the dispatcher thread before new ones go to its unbounded overflow
+     * queue, must be a power of 2.
+     */
+    public void setReportBufferSize(int reportBufferSize) {
+        this.reportBufferSize = reportBufferSize;
+    }
+
+    public boolean isConsoleReports() {
+        return consoleReports;
+    }
+
+    /**
+     * Whether execution reports are also printed to stdout.
+     */
+    public void setConsoleReports(boolean consoleReports) {
+        this.consoleReports = consoleReports;
+    }
+
+    public WaitStrategyType getWaitStrategyType() {
+        return waitStrategyType;
+    }
+
+    public void setWaitStrategyType(WaitStrategyType waitStrategyType) {
+        this.waitStrategyType = waitStrategyType;
+    }
+
+    public String getJournalDir() {
+        return journalDir;
+    }
+
+    /**
+     * Directory for the per-RIC order journals. Journaling is off while this is null.
+     */
+    public void setJournalDir(String journalDir) {
+        this.journalDir = journalDir;
+    }
+
+    public int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    /**
+     * Bytes per memory-mapped journal segment file.
+     */
+    public void setJournalSegmentSize(int journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+    }
+
+    public long getJournalFlushIntervalMicros() {
+        return journalFlushIntervalMicros;
+    }
+
+    /**
+     * Group commit interval, the longest a journal record stays in the page cache before it is forced to disk.
+     */
+    public void setJournalFlushIntervalMicros(long journalFlushIntervalMicros) {
+        this.journalFlushIntervalMicros = journalFlushIntervalMicros;
+    }
+
+    public long getSnapshotIntervalMillis() {
+        return snapshotIntervalMillis;
+    }
+
+    /**
+     * How often each journaled book is snapshotted into the journal directory, 0 to disable snapshots.
+     */
+    public void setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    public int getSnapshotRetention() {
+        return snapshotRetention;
+    }
+
+    /**
+     * Snapshots kept per RIC, older ones are deleted.
+     */
+    public void setSnapshotRetention(int snapshotRetention) {
+        this.snapshotRetention = snapshotRetention;
+    }
+
+    public int getTradeTapeSize() {
+        return tradeTapeSize;
+    }
+
+    /**
+     * Trades held for the market data dispatcher before new ones are dropped, must be a power of 2.
+     */
+    public void setTradeTapeSize(int tradeTapeSize) {
+        this.tradeTapeSize = tradeTapeSize;
+    }
+
+    public long getMarketDataConflationMicros() {
+        return marketDataConflationMicros;
+    }
+
+    /**
+     * Minimum time between market data deliveries; depth and ticker changes made in between are
+     * conflated. 0 delivers as soon as the dispatcher gets to them.
+     */
+    public void setMarketDataConflationMicros(long marketDataConflationMicros) {
+        this.marketDataConflationMicros = marketDataConflationMicros;
+    }
+
+    public int getDepthLevels() {
+        return depthLevels;
+    }
+
+    /**
+     * Price levels per side kept for getDepth, the most a depth query returns.
+     */
+    public void setDepthLevels(int depthLevels) {
+        this.depthLevels = depthLevels;
+    }
+
+    public RiskLimits getRiskLimits() {
+        return riskLimits;
+    }
+
+    /**
+     * Limits checked before orders reach their book. Pre-trade risk is off while this is null.
+     */
+    public void setRiskLimits(RiskLimits riskLimits) {
+        this.riskLimits = riskLimits;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Whether per-RIC counters and latency histograms are kept.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isJmxMetrics() {
+        return jmxMetrics;
+    }
+
+    /**
+     * Whether per-RIC metrics are also registered as MXBeans on the platform MBean server, off by
+     * default.
+     */
+    public void setJmxMetrics(boolean jmxMetrics) {
+        this.jmxMetrics = jmxMetrics;
+    }
+
+    public long getShutdownTimeoutMillis() {
+        return shutdownTimeoutMillis;
+    }
+
+    /**
+     * Longest shutdown or unregister waits for each stage to drain: queued commands, running
+     * matching tasks and undelivered reports. Stages that drain sooner do not wait.
+     */
+    public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    public long getRestartBackoffMicros() {
+        return restartBackoffMicros;
+    }
+
+    /**
+     * Wait before the second restart of a RIC whose matching keeps failing, doubled on each
+     * further failure. The first failure is restarted straight away.
+     */
+    public void setRestartBackoffMicros(long restartBackoffMicros) {
+        this.restartBackoffMicros = restartBackoffMicros;
+    }
+
+    public long getMaxRestartBackoffMicros() {
+        return maxRestartBackoffMicros;
+    }
+
+    /**
+     * Longest restart backoff. A RIC that stays up this long after a restart starts over with an
+     * immediate restart on its next failure.
+     */
+    public void setMaxRestartBackoffMicros(long maxRestartBackoffMicros) {
+        this.maxRestartBackoffMicros = maxRestartBackoffMicros;
+    }
+}
@@ -1,206 +1,857 @@
 package com.trade.engine.booking;
 
+import com.trade.engine.journal.BookSnapshot;
+import com.trade.engine.journal.BookSnapshotter;
+import com.trade.engine.journal.JournalException;
+import com.trade.engine.journal.JournalFlusher;
+import com.trade.engine.journal.MappedOrderJournal;
+import com.trade.engine.journal.OrderJournal;
+import com.trade.engine.marketdata.MarketDataDispatcher;
+import com.trade.engine.marketdata.MarketDataListener;
+import com.trade.engine.metrics.MetricsRegistry;
+import com.trade.engine.metrics.RicMetrics;
 import com.trade.engine.order.*;
+import com.trade.engine.orderbook.BookDepth;
+import com.trade.engine.orderexecution.AuctionResult;
+import com.trade.engine.orderexecution.BatchSubmitResult;
 import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
 import com.trade.engine.orderexecution.OrderProcessor;
 import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.orderexecution.OrderProcessorNotActiveException;
+import com.trade.engine.orderexecution.SessionState;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.refdata.InstrumentRegistry;
+import com.trade.engine.report.AsyncExecutionReportDispatcher;
+import com.trade.engine.report.ConsoleExecutionReportListener;
+import com.trade.engine.report.CounterPartyReportListener;
+import com.trade.engine.report.ExecutionReportListener;
+import com.trade.engine.report.RejectReason;
+import com.trade.engine.risk.PreTradeRisk;
+import com.trade.engine.scheduler.RicHealth;
+import com.trade.engine.scheduler.RicScheduler;
+import com.trade.engine.scheduler.RicSupervisor;
+import com.trade.engine.scheduler.RicTask;
+import com.trade.engine.scheduler.WorkerStats;
+import com.trade.engine.sequencer.OrderSequencer;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
 
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class TradeBookingEngineImpl implements TradeBookingEngine {
-    private Map<String, OrderProcessor> orderProcessorByRIC = new ConcurrentHashMap<>();
-    private Map<String, ForkJoinTask> submittedTaskByRIC = new ConcurrentHashMap<>();
+    private static final Logger LOG = LogManager.getLogger(TradeBookingEngineImpl.class);
+    private Map<String, Listing> listingByRIC = new ConcurrentHashMap<>();
+    // indexed by instrument id and replaced on every register, so lookups by id take no lock
+    private volatile Listing[] listings = new Listing[16];
+    private InstrumentRegistry instrumentRegistry = new InstrumentRegistry();
+    private TradeBookingEngineConfig config;
     private int parallism;
-    private ForkJoinPool orderProcessorPool;
+    private MatchingMode matchingMode;
+    private RicScheduler scheduler;
+    private RicSupervisor supervisor;
+    private AsyncExecutionReportDispatcher reportDispatcher;
+    private MarketDataDispatcher marketDataDispatcher;
+    private PreTradeRisk preTradeRisk;
+    private MetricsRegistry metricsRegistry;
+    private JournalFlusher journalFlusher;
+    private BookSnapshotter bookSnapshotter;
 
 
     public TradeBookingEngineImpl(int parallism) {
-        this.parallism = parallism;
+        this(new TradeBookingEngineConfig(parallism));
     }
 
-    private class OrderProcessorTask extends RecursiveAction {
-        private String RIC;
+    public TradeBookingEngineImpl(int parallism, MatchingMode matchingMode) {
+        this(config(parallism, matchingMode));
+    }
+
+    public TradeBookingEngineImpl(TradeBookingEngineConfig config) {
+        this.config = config;
+        this.parallism = config.getParallism();
+        this.matchingMode = config.getMatchingMode();
+        this.scheduler = new RicScheduler(parallism);
+        this.supervisor = new RicSupervisor(config.getRestartBackoffMicros(), config.getMaxRestartBackoffMicros(),
+                TimeUnit.MICROSECONDS);
+        this.reportDispatcher = new AsyncExecutionReportDispatcher(config.getReportBufferSize());
+        if (config.isMetricsEnabled()) {
+            this.metricsRegistry = new MetricsRegistry(config.isJmxMetrics());
+            // first, so report latency is measured up to the counterparty callback
+            this.reportDispatcher.addListener(metricsRegistry);
+        }
+        this.reportDispatcher.addListener(new CounterPartyReportListener());
+        if (config.isConsoleReports()) {
+            this.reportDispatcher.addListener(new ConsoleExecutionReportListener());
+        }
+        if (config.getRiskLimits() != null) {
+            this.preTradeRisk = new PreTradeRisk(config.getRiskLimits());
+        }
+        this.marketDataDispatcher = new MarketDataDispatcher(config.getTradeTapeSize(),
+                config.getMarketDataConflationMicros());
+        if (config.getJournalDir() != null) {
+            this.journalFlusher = new JournalFlusher(config.getJournalFlushIntervalMicros());
+            if (config.getSnapshotIntervalMillis() > 0) {
+                this.bookSnapshotter = new BookSnapshotter(new File(config.getJournalDir()),
+                        config.getSnapshotIntervalMillis(), config.getSnapshotRetention());
+            }
+        }
+    }
+
+    private static TradeBookingEngineConfig config(int parallism, MatchingMode matchingMode) {
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(parallism);
+        config.setMatchingMode(matchingMode);
+        return config;
+    }
+
+    /**
+     * Everything the engine keeps for one registered RIC, found with one map lookup by RIC or
+     * an array index by instrument id.
+     */
+    private static final class Listing {
+        final Instrument instrument;
+        final OrderProcessor orderProcessor;
+        volatile OrderProcessorTask task;
+        volatile OrderSequencer sequencer;
+        OrderJournal journal;
+        // set once the listing is unregistered or the engine shut down, never restarted after
+        volatile boolean stopped;
+
+        Listing(Instrument instrument, OrderProcessor orderProcessor) {
+            this.instrument = instrument;
+            this.orderProcessor = orderProcessor;
+        }
+
+        String getRIC() {
+            return instrument.getRIC();
+        }
+    }
+
+    /**
+     * Matches a RIC each time it is signalled by submitOrder. Between signals it is not queued
+     * on any worker, so an idle RIC costs no CPU and holds no thread.
+     */
+    private class OrderProcessorTask extends RicTask {
         private OrderProcessor orderProcessor;
-        private volatile boolean isRunning = false;
 
         public OrderProcessorTask(String RIC, OrderProcessor orderProcessor) {
-            this.RIC = RIC;
+            super(RIC);
             this.orderProcessor = orderProcessor;
         }
 
+        void signal() {
+            scheduler.signal(this);
+        }
+
         @Override
-        protected void compute() {
-            System.out.println("start order processing for:"+RIC);
-            while (true) {
-                try {
-                    Set<BaseOrder> executedOrders = this.orderProcessor.executeAllMatchedOrder();
-                    if (executedOrders.size() > 0) {
-                        System.out.println("end order processing for :" + this.RIC + ", executedOrder : " + executedOrders);
-                    }
-                    Thread.currentThread().sleep(1);
-                } catch (InterruptedException ex) {
-                    ex.printStackTrace();
-                }
+        protected void run() {
+            matchOrders(getRIC(), orderProcessor);
+        }
+
+        @Override
+        protected void onFailure(Throwable failure) {
+            supervisor.onFailure(getRIC(), failure);
+        }
+    }
+
+    private void matchOrders(String RIC, OrderProcessor orderProcessor) {
+        int executedCount = orderProcessor.executeAllMatchedOrder();
+        if (executedCount > 0) {
+            LOG.info("end order processing for :{}, executed fills : {}", RIC, executedCount);
+        }
+    }
+
+    private void submitToProcessor(Listing listing, BaseOrder order) {
+        if (metricsRegistry != null) {
+            order.setSubmitTime(System.nanoTime());
+        }
+        order.setInstrumentId(listing.instrument.getId());
+        OrderProcessor orderProcessor = listing.orderProcessor;
+        if (preTradeRisk != null) {
+            RejectReason reason = preTradeRisk.check(order);
+            if (reason != null) {
+                orderProcessor.rejectOrder(order, reason);
+                return;
+            }
+        }
+        try {
+            if (matchingMode == MatchingMode.SEQUENCED) {
+                sequencer(listing).submit(order);
+                return;
             }
+            orderProcessor.submitOrder(order);
+        } catch (OrderProcessorNotActiveException exception) {
+            releaseRisk(order);
+            throw exception;
         }
+        triggerMatch(listing);
+    }
 
+    /**
+     * Gives back the notional reserved for an order that will never be reported on.
+     */
+    private void releaseRisk(BaseOrder order) {
+        if (preTradeRisk != null) {
+            preTradeRisk.release(order);
+        }
+    }
+
+    private void releaseAmendRisk(BaseOrder order) {
+        if (preTradeRisk != null) {
+            preTradeRisk.releaseAmend(order);
+        }
+    }
+
+    private void triggerMatch(Listing listing) {
+        if (matchingMode == MatchingMode.INLINE) {
+            matchOrders(listing.getRIC(), listing.orderProcessor);
+        } else {
+            OrderProcessorTask task = listing.task;
+            if (task != null) {
+                task.signal();
+            } else if (listing.stopped) {
+                // raced past stopMatching's last pass: match it here, or fail if the book is already inactive
+                matchOrders(listing.getRIC(), listing.orderProcessor);
+            }
+        }
     }
 
 
     @Override
     public void start() {
         try {
-            orderProcessorPool = new ForkJoinPool(this.parallism);
-            Timer timer = new Timer("TradBookingProcessor");
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    orderProcessorByRIC.forEach((RIC, orderProcessorL) -> {
-                        startProcessor(RIC,orderProcessorL);
-                    });
+            if (config.getReferenceDataFile() != null) {
+                int loaded = instrumentRegistry.load(new File(config.getReferenceDataFile()));
+                LOG.info("loaded {} instruments from {}", loaded, config.getReferenceDataFile());
+            }
+            reportDispatcher.start();
+            marketDataDispatcher.start();
+            scheduler.start();
+            if (journalFlusher != null) {
+                journalFlusher.start();
+                if (bookSnapshotter != null) {
+                    bookSnapshotter.start();
                 }
-            },0,(100));
-
+                recoverJournaledRics();
+            }
         } catch (Exception exception) {
-            System.out.println("error in starting tradebooking engine..");
-            exception.printStackTrace();
+            LOG.error("error in starting tradebooking engine..", exception);
         }
 
     }
 
+    /**
+     * Registers every RIC that has a journal, rebuilding its book from the journal.
+     */
+    private void recoverJournaledRics() {
+        File journalDir = new File(config.getJournalDir());
+        for (String RIC : MappedOrderJournal.listJournaledRics(journalDir)) {
+            if (instrumentRegistry.getDefinition(RIC) != null) {
+                register(RIC);
+            } else {
+                register(RIC, Price.toDouble(MappedOrderJournal.readTickSize(journalDir, RIC)));
+            }
+        }
+    }
+
+    private long openJournal(Listing listing) {
+        String RIC = listing.getRIC();
+        OrderProcessor orderProcessor = listing.orderProcessor;
+        File journalDir = new File(config.getJournalDir());
+        MappedOrderJournal journal = new MappedOrderJournal(journalDir, RIC, listing.instrument.getTickSize(),
+                config.getJournalSegmentSize());
+        long startTime = System.nanoTime();
+        long replayed = recoverBook(RIC, orderProcessor, journalDir, journal);
+        if (replayed > 0) {
+            LOG.info("recovered {} from {} journal records in {} us", RIC, replayed,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+        }
+        orderProcessor.setOrderJournal(journal);
+        listing.journal = journal;
+        journalFlusher.add(journal);
+        if (bookSnapshotter != null) {
+            bookSnapshotter.add(RIC, journal);
+        }
+        return replayed;
+    }
+
+    /**
+     * Starts from the newest readable snapshot and replays the journal after it.
+     */
+    private long recoverBook(String RIC, OrderProcessor orderProcessor, File journalDir, OrderJournal journal) {
+        for (File snapshot : BookSnapshot.list(journalDir, RIC)) {
+            try {
+                long replayed = orderProcessor.recover(snapshot, journal);
+                LOG.info("loaded {}", snapshot.getName());
+                return replayed;
+            } catch (JournalException exception) {
+                LOG.warn("skipping unreadable snapshot {} : {}", snapshot, exception.getMessage());
+            }
+        }
+        return orderProcessor.recover(journal);
+    }
+
     @Override
     public boolean register(String RIC) {
-        if (orderProcessorByRIC.containsKey(RIC)) {
-            System.out.println("Already registered : " + RIC);
+        Instrument definition = instrumentRegistry.getDefinition(RIC);
+        if (definition == null) {
+            return register(RIC, config.getDefaultTickSize());
+        }
+        return register(definition);
+    }
+
+    @Override
+    public boolean register(String RIC, double tickSize) {
+        return register(new Instrument(RIC, Price.toScaled(tickSize), config.getDefaultLotSize()));
+    }
+
+    @Override
+    public synchronized boolean register(Instrument instrument) {
+        String RIC = instrument.getRIC();
+        if (listingByRIC.containsKey(RIC)) {
+            LOG.warn("Already registered : {}", RIC);
             return false;
         }
-        OrderProcessor orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl());
-        orderProcessorByRIC.putIfAbsent(RIC, orderProcessor);
-        startProcessor(RIC,orderProcessor);
+        int instrumentId = instrumentRegistry.assignId(instrument);
+        OrderProcessor orderProcessor = new OrderProcessorImpl(instrument, new LimitOrderMatchRuleImpl(),
+                config.getDepthLevels());
+        if (preTradeRisk != null) {
+            preTradeRisk.addInstrument(instrumentId, RIC);
+            // risk state follows the book synchronously, listeners still get the reports asynchronously
+            orderProcessor.setExecutionReportListener(report -> {
+                preTradeRisk.onExecutionReport(report);
+                reportDispatcher.onExecutionReport(report);
+            });
+        } else {
+            orderProcessor.setExecutionReportListener(reportDispatcher);
+        }
+        orderProcessor.setMarketDataChannel(marketDataDispatcher.addChannel(RIC));
+        if (metricsRegistry != null) {
+            RicMetrics metrics = metricsRegistry.register(instrumentId, RIC);
+            metrics.setRestingOrders(orderProcessor::getRestingOrderCount);
+            metrics.setRestarts(() -> {
+                RicHealth health = supervisor.getHealth(RIC);
+                return health == null ? 0 : health.getRestarts();
+            });
+            orderProcessor.setMetrics(metrics);
+        }
+        Listing listing = new Listing(instrument, orderProcessor);
+        long recovered = journalFlusher != null ? openJournal(listing) : 0;
+        Listing[] grown = Arrays.copyOf(listings, Math.max(listings.length, instrumentId + 1));
+        grown[instrumentId] = listing;
+        listings = grown;
+        listingByRIC.put(RIC, listing);
+        supervisor.supervise(RIC, () -> restartProcessor(listing));
+        startProcessor(listing);
+        if (recovered > 0) {
+            // orders journaled just before a crash may not have been matched yet
+            matchOrders(RIC, orderProcessor);
+        }
         return true;
     }
 
+    /**
+     * Removes the RIC so no new order can reach it, applies the commands already queued for it,
+     * stops its matching and waits until its reports are delivered. The book is cleared; a
+     * journaled RIC gets it back from the journal when it is registered again.
+     */
     @Override
-    public boolean unregister(String RIC) {
-        if (!orderProcessorByRIC.containsKey(RIC)) {
-            System.out.println("RIC not registered : " + RIC);
+    public synchronized boolean unregister(String RIC) {
+        Listing listing = listingByRIC.remove(RIC);
+        if (listing == null) {
+            LOG.warn("RIC not registered : {}", RIC);
             return false;
         }
-        OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-        System.out.println("Stopping order processor on unregister event for : " + RIC);
+        long startTime = System.nanoTime();
+        Listing[] shrunk = listings.clone();
+        shrunk[listing.instrument.getId()] = null;
+        listings = shrunk;
+        OrderProcessor orderProcessor = listing.orderProcessor;
+        LOG.info("Stopping order processor on unregister event for : {}", RIC);
+        supervisor.unsupervise(RIC);
+        stopMatching(listing);
         orderProcessor.stop();
+        orderProcessor.setMarketDataChannel(null);
+        marketDataDispatcher.removeChannel(RIC);
+        if (preTradeRisk != null) {
+            preTradeRisk.removeInstrument(RIC);
+        }
+        if (metricsRegistry != null) {
+            orderProcessor.setMetrics(null);
+            metricsRegistry.unregister(RIC);
+        }
+        OrderJournal journal = listing.journal;
+        listing.journal = null;
+        if (journal != null) {
+            if (bookSnapshotter != null) {
+                bookSnapshotter.remove(RIC);
+            }
+            orderProcessor.setOrderJournal(null);
+            journalFlusher.remove(journal);
+            journal.close();
+        }
+        if (!reportDispatcher.awaitDelivery(config.getShutdownTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+            LOG.warn("reports of {} still undelivered after unregister", RIC);
+        }
+        LOG.info("unregistered {} in {} us", RIC, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
         return true;
     }
 
+    /**
+     * Stops everything that matches the listing's book: its sequencer after it has applied the
+     * commands already queued, or its scheduler task after a last matching pass for any signal it
+     * will no longer run. Nothing touches the book from those threads once this returns, and the
+     * processor is left inactive so later submits fail instead of resting unmatched.
+     */
+    private void stopMatching(Listing listing) {
+        synchronized (listing) {
+            listing.stopped = true;
+            OrderSequencer sequencer = listing.sequencer;
+            if (sequencer != null) {
+                sequencer.stop();
+                try {
+                    if (!sequencer.awaitTermination(config.getShutdownTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                        LOG.warn("sequencer of {} still draining, pending commands : {}", listing.getRIC(),
+                                sequencer.getPendingCommands());
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                listing.sequencer = null;
+            }
+            OrderProcessorTask task = listing.task;
+            if (task != null) {
+                scheduler.cancel(task);
+                listing.task = null;
+                matchOrders(listing.getRIC(), listing.orderProcessor);
+            }
+            listing.orderProcessor.setActive(false);
+        }
+    }
+
+    /**
+     * Sequencer of a listing that is still matching, SEQUENCED mode only.
+     */
+    private OrderSequencer sequencer(Listing listing) {
+        OrderSequencer sequencer = listing.sequencer;
+        if (sequencer == null) {
+            throw new OrderProcessorNotActiveException("Order Processor stopped for RIC :" + listing.getRIC());
+        }
+        return sequencer;
+    }
+
+    /**
+     * Drains the engine in dependency order: queued commands and pending matches of every RIC,
+     * then the scheduler workers, the journals and finally the reports. Each stage waits only as
+     * long as it still has work, bounded by the configured shutdown timeout.
+     */
     @Override
     public void shutdown() {
+        long startTime = System.nanoTime();
+        long timeout = config.getShutdownTimeoutMillis();
         try {
-            System.out.println("shutting down trading engine...waiting for 30 sec..");
-            orderProcessorPool.awaitTermination((30 * 1000), TimeUnit.MILLISECONDS);
-            System.out.println("shutting down trading engine...pending task " + orderProcessorPool.getRunningThreadCount());
-            orderProcessorPool.shutdown();
+            LOG.info("shutting down trading engine...");
+            supervisor.shutdown();
+            listingByRIC.values().forEach(this::stopMatching);
+            scheduler.shutdown();
+            if (!scheduler.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                LOG.warn("shutting down trading engine...workers still running {}", scheduler.getWorkerStats());
+            }
+            if (journalFlusher != null) {
+                if (bookSnapshotter != null) {
+                    bookSnapshotter.stop();
+                }
+                journalFlusher.stop();
+                listingByRIC.values().forEach(listing -> {
+                    if (listing.journal != null) {
+                        listing.journal.close();
+                    }
+                });
+            }
+            reportDispatcher.stop();
+            if (!reportDispatcher.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                LOG.warn("shutting down trading engine...reports still undelivered {}",
+                        reportDispatcher.getPendingReports());
+            }
+            marketDataDispatcher.stop();
+            if (metricsRegistry != null) {
+                metricsRegistry.unregisterAll();
+            }
+            LOG.info("trading engine shut down in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
         } catch (Exception exception) {
-            exception.printStackTrace();
+            LOG.error("error in shutting down tradebooking engine..", exception);
         }
     }
 
-    private boolean isRegistered(String RIC){
-        return (orderProcessorByRIC.containsKey(RIC)) ;
+    @Override
+    public void addExecutionReportListener(ExecutionReportListener listener) {
+        reportDispatcher.addListener(listener);
     }
 
     @Override
-    public void submitOrder(String RIC, BaseOrder order) {
-        if(isRegistered(RIC)) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            orderProcessor.submitOrder(order);
-        }else{
+    public boolean removeExecutionReportListener(ExecutionReportListener listener) {
+        return reportDispatcher.removeListener(listener);
+    }
+
+    @Override
+    public void addMarketDataListener(MarketDataListener listener) {
+        marketDataDispatcher.addListener(listener);
+    }
+
+    @Override
+    public boolean removeMarketDataListener(MarketDataListener listener) {
+        return marketDataDispatcher.removeListener(listener);
+    }
+
+    /**
+     * Notional the pre-trade risk stage holds for the counterparty's working orders, 0 without risk
+     * limits.
+     */
+    public long getOpenNotional(String counterPartyName) {
+        return preTradeRisk == null ? 0 : preTradeRisk.getOpenNotional(counterPartyName);
+    }
+
+    /**
+     * Trades dropped from the market data tape because listeners fell too far behind.
+     */
+    public long getDroppedTrades() {
+        return marketDataDispatcher.getDroppedTrades();
+    }
+
+    /**
+     * Execution reports dropped because they were published after the report dispatcher stopped.
+     */
+    public long getDroppedExecutionReports() {
+        return reportDispatcher.getDroppedReports();
+    }
+
+    /**
+     * Execution reports that found the report buffer full and were queued in overflow, a sign the
+     * buffer is too small for the listeners.
+     */
+    public long getOverflowedExecutionReports() {
+        return reportDispatcher.getOverflowedReports();
+    }
+
+    private Listing listing(String RIC) {
+        Listing listing = listingByRIC.get(RIC);
+        if (listing == null) {
             throw new RicNotRegisteredException("RIC not registered.");
         }
+        return listing;
+    }
+
+    private Listing listing(int instrumentId) {
+        Listing[] current = listings;
+        Listing listing = instrumentId > 0 && instrumentId < current.length ? current[instrumentId] : null;
+        if (listing == null) {
+            throw new RicNotRegisteredException("Instrument not registered : " + instrumentId);
+        }
+        return listing;
+    }
+
+    /**
+     * Orders submitted through the engine carry their instrument id, others are looked up by RIC.
+     */
+    private Listing listing(BaseOrder order) {
+        Listing[] current = listings;
+        int instrumentId = order.getInstrumentId();
+        if (instrumentId > 0 && instrumentId < current.length) {
+            Listing listing = current[instrumentId];
+            if (listing != null && listing.getRIC().equals(order.getRIC())) {
+                return listing;
+            }
+        }
+        return listing(order.getRIC());
+    }
+
+    @Override
+    public int getInstrumentId(String RIC) {
+        return listing(RIC).instrument.getId();
+    }
+
+    @Override
+    public Instrument getInstrument(String RIC) {
+        return listing(RIC).instrument;
+    }
+
+    @Override
+    public Instrument getInstrument(int instrumentId) {
+        return listing(instrumentId).instrument;
+    }
+
+    @Override
+    public void submitOrder(String RIC, BaseOrder order) {
+        submitToProcessor(listing(RIC), order);
+    }
+
+    @Override
+    public void submitOrder(int instrumentId, BaseOrder order) {
+        submitToProcessor(listing(instrumentId), order);
     }
 
     @Override
     public void submitOrder(String RIC, BaseOrder order, CounterParty counterParty) {
-        if(isRegistered(RIC)) {
-            if (counterParty == null) {
-                throw new InvalidOrderException("Counterparty can not be null.");
+        Listing listing = listing(RIC);
+        if (counterParty == null) {
+            throw new InvalidOrderException("Counterparty can not be null.");
+        }
+        order.setCounterParty(counterParty);
+        submitToProcessor(listing, order);
+    }
+
+    @Override
+    public BatchSubmitResult submitOrders(String RIC, List<BaseOrder> orders) {
+        return submitOrders(listing(RIC), orders);
+    }
+
+    @Override
+    public BatchSubmitResult submitOrders(int instrumentId, List<BaseOrder> orders) {
+        return submitOrders(listing(instrumentId), orders);
+    }
+
+    private BatchSubmitResult submitOrders(Listing listing, List<BaseOrder> orders) {
+        OrderProcessor orderProcessor = listing.orderProcessor;
+        long submitTime = metricsRegistry == null ? 0 : System.nanoTime();
+        for (int i = 0; i < orders.size(); i++) {
+            BaseOrder order = orders.get(i);
+            order.setSubmitTime(submitTime);
+            order.setInstrumentId(listing.instrument.getId());
+        }
+        if (preTradeRisk == null) {
+            return submitBatch(listing, orders);
+        }
+        BatchSubmitResult result = new BatchSubmitResult(orders.size());
+        List<BaseOrder> passed = new ArrayList<>(orders.size());
+        int[] passedIndex = new int[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            BaseOrder order = orders.get(i);
+            RejectReason reason = preTradeRisk.check(order);
+            if (reason != null) {
+                orderProcessor.rejectOrder(order, reason);
+                result.reject(i);
+            } else {
+                passedIndex[passed.size()] = i;
+                passed.add(order);
             }
-            order.setCounterParty(counterParty);
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            orderProcessor.submitOrder(order);
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
         }
+        BatchSubmitResult passedResult;
+        try {
+            passedResult = submitBatch(listing, passed);
+        } catch (OrderProcessorNotActiveException exception) {
+            passed.forEach(this::releaseRisk);
+            throw exception;
+        }
+        for (int i = 0; i < passed.size(); i++) {
+            if (!passedResult.isAccepted(i)) {
+                result.reject(passedIndex[i]);
+            }
+        }
+        return result;
+    }
+
+    private BatchSubmitResult submitBatch(Listing listing, List<BaseOrder> orders) {
+        OrderProcessor orderProcessor = listing.orderProcessor;
+        if (matchingMode == MatchingMode.SEQUENCED) {
+            // validated up front for the result; the consumer rejects the same orders when it applies them
+            BatchSubmitResult result = new BatchSubmitResult(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                if (!orderProcessor.validateOrder(orders.get(i))) {
+                    result.reject(i);
+                }
+            }
+            sequencer(listing).submitAll(orders);
+            return result;
+        }
+        BatchSubmitResult result = orderProcessor.submitOrders(orders);
+        if (result.getAcceptedCount() > 0) {
+            triggerMatch(listing);
+        }
+        return result;
     }
 
     @Override
     public boolean isPendingOrder(BaseOrder order) {
-        if(isRegistered(order.getRIC())) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(order.getRIC());
-            orderProcessor.isPendingOrder(order);
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
-        }
-        return false;
+        return listing(order).orderProcessor.isPendingOrder(order);
     }
 
 
 
     @Override
     public BuyOrder peekBuyOrder(String RIC) {
-        if(isRegistered(RIC)) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            return orderProcessor.peekBuyOrder();
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
-        }
+        return listing(RIC).orderProcessor.peekBuyOrder();
     }
 
     @Override
     public SellOrder peekSellOrder(String RIC) {
-        if(isRegistered(RIC)) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            return orderProcessor.peekSellOrder();
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
-        }
+        return listing(RIC).orderProcessor.peekSellOrder();
+    }
+
+    @Override
+    public BookDepth getDepth(String RIC, int levels) {
+        return listing(RIC).orderProcessor.getDepth(levels);
+    }
+
+    @Override
+    public BookDepth getDepth(int instrumentId, int levels) {
+        return listing(instrumentId).orderProcessor.getDepth(levels);
+    }
+
+    @Override
+    public RicMetrics getMetrics(String RIC) {
+        listing(RIC);
+        return metricsRegistry == null ? null : metricsRegistry.get(RIC);
+    }
+
+    @Override
+    public RicHealth getHealth(String RIC) {
+        listing(RIC);
+        return supervisor.getHealth(RIC);
+    }
+
+    @Override
+    public SessionState getSessionState(String RIC) {
+        return listing(RIC).orderProcessor.getSessionState();
+    }
+
+    @Override
+    public AuctionResult setSessionState(String RIC, SessionState sessionState) {
+        return listing(RIC).orderProcessor.setSessionState(sessionState);
+    }
+
+    @Override
+    public AuctionResult getIndicativeUncross(String RIC) {
+        return listing(RIC).orderProcessor.getIndicativeUncross();
     }
 
     @Override
     public boolean cancelOrder(BaseOrder order) {
-        if(isRegistered(order.getRIC())) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(order.getRIC());
-            return orderProcessor.cancelOrder(order);
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
+        Listing listing = listing(order);
+        if (matchingMode == MatchingMode.SEQUENCED) {
+            sequencer(listing).cancel(order);
+            return true;
+        }
+        return listing.orderProcessor.cancelOrder(order);
+    }
+
+    @Override
+    public boolean modifyOrder(BaseOrder order, double price, int quantity) {
+        return modifyOrder(order, Price.toScaled(price), quantity);
+    }
+
+    @Override
+    public boolean modifyOrder(BaseOrder order, long price, int quantity) {
+        Listing listing = listing(order);
+        if (preTradeRisk != null && preTradeRisk.checkAmend(order, price, quantity) != null) {
+            return false;
+        }
+        boolean amended;
+        try {
+            if (matchingMode == MatchingMode.SEQUENCED) {
+                // an amend the consumer refuses keeps its reservation until the order is done
+                sequencer(listing).amend(order, price, quantity);
+                return true;
+            }
+            amended = listing.orderProcessor.modifyOrder(order, price, quantity);
+        } catch (OrderProcessorNotActiveException exception) {
+            releaseAmendRisk(order);
+            throw exception;
         }
+        if (!amended) {
+            releaseAmendRisk(order);
+            return false;
+        }
+        // a new price may cross the book
+        triggerMatch(listing);
+        return true;
     }
 
     @Override
     public BuyOrder popBuyOrder(String RIC) {
-        if(isRegistered(RIC)) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            return orderProcessor.popBuyOrder();
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
+        BuyOrder order = listing(RIC).orderProcessor.popBuyOrder();
+        if (order != null) {
+            // taken out of the book without a report
+            releaseRisk(order);
         }
+        return order;
     }
 
     @Override
     public SellOrder popSellOrder(String RIC) {
-        if(isRegistered(RIC)) {
-            OrderProcessor orderProcessor = orderProcessorByRIC.get(RIC);
-            return orderProcessor.popSellOrder();
-        }else{
-            throw new RicNotRegisteredException("RIC not registered.");
+        SellOrder order = listing(RIC).orderProcessor.popSellOrder();
+        if (order != null) {
+            releaseRisk(order);
+        }
+        return order;
+    }
+
+    private void startProcessor(Listing listing) {
+        String RIC = listing.getRIC();
+        OrderProcessor orderProcessorL = listing.orderProcessor;
+        synchronized (listing) {
+            if (listing.stopped) {
+                return;
+            }
+            if (matchingMode == MatchingMode.SEQUENCED) {
+                if (listing.sequencer == null) {
+                    orderProcessorL.setActive(true);
+                    OrderSequencer sequencer = new OrderSequencer(RIC, orderProcessorL,
+                            config.getSequencerBufferSize(), config.getWaitStrategyType().newWaitStrategy());
+                    sequencer.setFailureHandler(failure -> supervisor.onFailure(RIC, failure));
+                    sequencer.start();
+                    if (metricsRegistry != null && metricsRegistry.get(RIC) != null) {
+                        metricsRegistry.get(RIC).setPendingCommands(sequencer::getPendingCommands);
+                    }
+                    listing.sequencer = sequencer;
+                }
+                return;
+            }
+            if (listing.task == null) {
+                orderProcessorL.setActive(true);
+                OrderProcessorTask task = new OrderProcessorTask(RIC, orderProcessorL);
+                scheduler.register(task);
+                LOG.info("start order processing for:{} on worker {}", RIC, task.getHomeWorker());
+                listing.task = task;
+            }
+        }
+    }
+
+    /**
+     * Brings the matching of a listing back after it died. SEQUENCED mode starts a new consumer on
+     * the same sequencer, so commands already queued are kept; it takes no listing lock because
+     * stopMatching holds it while joining the consumer. SIGNAL mode replaces the failed task and
+     * signals the new one, as the book may have been left crossed.
+     */
+    private void restartProcessor(Listing listing) {
+        if (listing.stopped) {
+            return;
+        }
+        OrderSequencer sequencer = listing.sequencer;
+        if (sequencer != null) {
+            sequencer.restart();
+            return;
+        }
+        OrderProcessorTask task;
+        synchronized (listing) {
+            OrderProcessorTask failed = listing.task;
+            if (failed != null && !failed.isFailed()) {
+                return;
+            }
+            listing.task = null;
+            startProcessor(listing);
+            task = listing.task;
+        }
+        if (task != null) {
+            task.signal();
         }
     }
 
-    private void startProcessor(String RIC, OrderProcessor orderProcessorL){
-        submittedTaskByRIC.computeIfAbsent(RIC,s -> {
-            orderProcessorL.setActive(true);
-            return orderProcessorPool.submit(new OrderProcessorTask(RIC, orderProcessorL));
-        });
+    /**
+     * Utilization of the scheduler workers that run SIGNAL mode matching.
+     */
+    public List<WorkerStats> getWorkerStats() {
+        return scheduler.getWorkerStats();
     }
 
 }
@@ -0,0 +1,16 @@
+package com.trade.engine.concurrent;
+
+/**
+ * Spins on the CPU. Lowest latency, but keeps the consumer core fully busy.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public int idle(int idleCount, RingBuffer<?> ringBuffer, long sequence) {
+        return idleCount + 1;
+    }
+
+    @Override
+    public void signal() {
+    }
+}
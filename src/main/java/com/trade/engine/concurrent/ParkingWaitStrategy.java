@@ -0,0 +1,34 @@
+package com.trade.engine.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins briefly and then parks the consumer until a producer signals, so an idle consumer uses no CPU.
+ * One instance serves a single consumer thread.
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+    private volatile Thread parkedThread;
+
+    @Override
+    public int idle(int idleCount, RingBuffer<?> ringBuffer, long sequence) {
+        if (idleCount < SPIN_TRIES) {
+            return idleCount + 1;
+        }
+        parkedThread = Thread.currentThread();
+        if (ringBuffer.getCursor() < sequence) {
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        }
+        parkedThread = null;
+        return idleCount + 1;
+    }
+
+    @Override
+    public void signal() {
+        Thread thread = parkedThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.trade.engine.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, preallocated multi-producer/single-consumer ring buffer. Producers claim sequences
+ * with a CAS on the cursor, fill the preallocated slot and publish it; the single consumer reads
+ * published slots in order and releases them once handled. Slots are reused, never reallocated.
+ */
+public class RingBuffer<E> {
+    private final E[] entries;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLongArray published;
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+
+    @SuppressWarnings("unchecked")
+    public RingBuffer(int size, Supplier<E> factory) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of 2 : " + size);
+        }
+        this.entries = (E[]) new Object[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            entries[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * Claims the next n sequences, waiting while the buffer is full. Returns the highest claimed sequence.
+     */
+    public long next(int n) {
+        return next(n, () -> true);
+    }
+
+    /**
+     * Like next(n), but only waits for as long as the consumer is there to make room. Returns -1
+     * once consumerAlive is false and the buffer is still full.
+     */
+    public long next(int n, BooleanSupplier consumerAlive) {
+        while (true) {
+            long claimed = tryNext(n);
+            if (claimed >= 0) {
+                return claimed;
+            }
+            if (!consumerAlive.getAsBoolean()) {
+                return -1;
+            }
+            LockSupport.parkNanos(1);
+        }
+    }
+
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Claims the next n sequences, or returns -1 without waiting if the buffer has no room for them.
+     */
+    public long tryNext(int n) {
+        if (n < 1 || n > entries.length) {
+            throw new IllegalArgumentException("Can not claim " + n + " slots of " + entries.length);
+        }
+        while (true) {
+            long current = cursor.get();
+            long next = current + n;
+            if (next - entries.length > consumerSequence.get()) {
+                return -1;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    public E get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    public void publish(long lo, long hi) {
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Highest sequence, starting at from, up to which every slot has been published; from - 1 if none.
+     */
+    public long getHighestPublished(long from) {
+        long limit = cursor.get();
+        long sequence = from;
+        while (sequence <= limit && published.get((int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * Called by the consumer once every slot up to and including sequence has been handled.
+     */
+    public void release(long sequence) {
+        consumerSequence.lazySet(sequence);
+    }
+
+    public long getConsumerSequence() {
+        return consumerSequence.get();
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Number of claimed slots not yet released by the consumer.
+     */
+    public long size() {
+        return cursor.get() - consumerSequence.get();
+    }
+}
@@ -0,0 +1,18 @@
+package com.trade.engine.concurrent;
+
+/**
+ * How a ring buffer consumer waits when it has nothing to do.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called each time the consumer finds sequence not yet published. idleCount is the number of
+     * consecutive idle calls so far; the returned value is passed back on the next call.
+     */
+    int idle(int idleCount, RingBuffer<?> ringBuffer, long sequence);
+
+    /**
+     * Called by producers after publishing, so a blocked consumer can be woken up.
+     */
+    void signal();
+}
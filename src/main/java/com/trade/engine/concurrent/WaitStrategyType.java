@@ -0,0 +1,16 @@
+package com.trade.engine.concurrent;
+
+public enum WaitStrategyType {
+    BUSY_SPIN, YIELD, PARK;
+
+    public WaitStrategy newWaitStrategy() {
+        switch (this) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case YIELD:
+                return new YieldingWaitStrategy();
+            default:
+                return new ParkingWaitStrategy();
+        }
+    }
+}
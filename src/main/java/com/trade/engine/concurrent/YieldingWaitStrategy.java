@@ -0,0 +1,20 @@
+package com.trade.engine.concurrent;
+
+/**
+ * Spins for a while and then yields the CPU to other threads between checks.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public int idle(int idleCount, RingBuffer<?> ringBuffer, long sequence) {
+        if (idleCount >= SPIN_TRIES) {
+            Thread.yield();
+        }
+        return idleCount + 1;
+    }
+
+    @Override
+    public void signal() {
+    }
+}
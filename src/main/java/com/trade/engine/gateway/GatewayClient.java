@@ -0,0 +1,138 @@
+package com.trade.engine.gateway;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.report.RejectReason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking client of the OrderGateway protocol. Requests are encoded into a buffer and sent on
+ * flush, or when the buffer fills up, so a caller can pipeline many requests per write. Not thread
+ * safe, although one thread may send while another reads.
+ */
+public class GatewayClient implements Closeable {
+
+    /**
+     * Receives the gateway's messages, called on the thread that reads.
+     */
+    public interface Handler {
+        void onExecutionReport(long clientOrderId, long orderId, BaseOrder.OrderStatus status,
+                               RejectReason rejectReason, long fillPrice, int executedQuantity,
+                               int leavesQuantity);
+
+        void onRequestReject(byte requestType, long clientOrderId, RejectReason reason);
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer writeBuffer;
+    private final ByteBuffer readBuffer;
+
+    public GatewayClient(InetSocketAddress address) throws IOException {
+        this(address, OrderGateway.DEFAULT_BUFFER_SIZE);
+    }
+
+    public GatewayClient(InetSocketAddress address, int bufferSize) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+        writeBuffer = ByteBuffer.allocateDirect(bufferSize);
+        readBuffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void logon(String name) throws IOException {
+        reserve(MessageCodec.LOGON_LENGTH);
+        MessageCodec.encodeLogon(writeBuffer, name);
+        flush();
+    }
+
+    /**
+     * @param price in fixed-point units of 1 / Price.SCALE
+     * @param quantity in units, a multiple of the instrument's lot size
+     */
+    public void newOrder(long clientOrderId, int instrumentId, BaseOrder.OrderType side,
+                         BaseOrder.TimeInForce timeInForce, BaseOrder.PriceType priceType, long price,
+                         int quantity) throws IOException {
+        reserve(MessageCodec.NEW_ORDER_LENGTH);
+        MessageCodec.encodeNewOrder(writeBuffer, clientOrderId, instrumentId, side, timeInForce, priceType,
+                price, quantity);
+    }
+
+    public void cancel(long clientOrderId) throws IOException {
+        reserve(MessageCodec.CANCEL_LENGTH);
+        MessageCodec.encodeCancel(writeBuffer, clientOrderId);
+    }
+
+    public void amend(long clientOrderId, long price, int quantity) throws IOException {
+        reserve(MessageCodec.AMEND_LENGTH);
+        MessageCodec.encodeAmend(writeBuffer, clientOrderId, price, quantity);
+    }
+
+    /**
+     * Sends everything encoded so far.
+     */
+    public void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void reserve(int length) throws IOException {
+        if (writeBuffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    /**
+     * Blocks until some bytes arrive and hands every complete message to handler.
+     *
+     * @return messages handled, -1 when the gateway closed the connection
+     */
+    public int read(Handler handler) throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            return -1;
+        }
+        readBuffer.flip();
+        int count = 0;
+        while (readBuffer.hasRemaining()) {
+            int offset = readBuffer.position();
+            byte type = readBuffer.get(offset);
+            int length = MessageCodec.messageLength(type);
+            if (length < 0) {
+                throw new IOException("Unknown message type " + type);
+            }
+            if (readBuffer.remaining() < length) {
+                break;
+            }
+            if (type == MessageCodec.EXECUTION_REPORT) {
+                handler.onExecutionReport(readBuffer.getLong(offset + MessageCodec.REPORT_CLIENT_ORDER_ID),
+                        readBuffer.getLong(offset + MessageCodec.REPORT_ORDER_ID),
+                        MessageCodec.orderStatus(readBuffer.get(offset + MessageCodec.REPORT_STATUS)),
+                        MessageCodec.rejectReason(readBuffer.get(offset + MessageCodec.REPORT_REJECT_REASON)),
+                        readBuffer.getLong(offset + MessageCodec.REPORT_FILL_PRICE),
+                        readBuffer.getInt(offset + MessageCodec.REPORT_EXECUTED_QUANTITY),
+                        readBuffer.getInt(offset + MessageCodec.REPORT_LEAVES_QUANTITY));
+            } else if (type == MessageCodec.REQUEST_REJECT) {
+                handler.onRequestReject(readBuffer.get(offset + MessageCodec.REQUEST_REJECT_REQUEST_TYPE),
+                        readBuffer.getLong(offset + MessageCodec.REQUEST_REJECT_CLIENT_ORDER_ID),
+                        MessageCodec.rejectReason(readBuffer.get(offset + MessageCodec.REQUEST_REJECT_REASON)));
+            } else {
+                throw new IOException("Unexpected message type " + type);
+            }
+            readBuffer.position(offset + length);
+            count++;
+        }
+        readBuffer.compact();
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,324 @@
+package com.trade.engine.gateway;
+
+import com.trade.engine.booking.TradeBookingEngine;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.order.OrderPool;
+import com.trade.engine.orderbook.LongObjectHashMap;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.RejectReason;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+
+/**
+ * One client connection. Requests are decoded in place from the read buffer and turned into
+ * engine calls on the gateway thread; the session is the counterparty of every order it submits,
+ * so the report dispatcher thread hands it the reports, which are encoded straight into the write
+ * buffer. Both threads write under the session's monitor. Orders come from the gateway's pool
+ * and go back to it one report after their terminal one, once every listener is done with them.
+ */
+class GatewaySession extends CounterParty {
+    private static final Logger LOG = LogManager.getLogger(GatewaySession.class);
+
+    private final OrderGateway gateway;
+    private final TradeBookingEngine engine;
+    private final OrderPool orderPool;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer readBuffer;
+    // always in fill mode, flipped only while writing to the channel
+    private final ByteBuffer writeBuffer;
+    // open orders by client order id, guarded by this
+    private final LongObjectHashMap<BaseOrder> openOrders = new LongObjectHashMap<>();
+    // done orders whose terminal report later listeners may still be reading, guarded by this
+    private final ArrayList<BaseOrder> finishingOrders = new ArrayList<>();
+    // done orders no listener can reach any more, released to the pool by the gateway thread
+    private final ArrayList<BaseOrder> finishedOrders = new ArrayList<>();
+    private volatile boolean loggedOn;
+    private volatile boolean closed;
+
+    GatewaySession(OrderGateway gateway, TradeBookingEngine engine, OrderPool orderPool, SocketChannel channel,
+                   SelectionKey key, int bufferSize) {
+        super(null);
+        this.gateway = gateway;
+        this.engine = engine;
+        this.orderPool = orderPool;
+        this.channel = channel;
+        this.key = key;
+        this.readBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.writeBuffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Reads what the channel has and handles every complete request in it. A partial request
+     * stays in the buffer for the next read.
+     *
+     * @return false when the connection is gone or broke the protocol
+     */
+    boolean read() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            return false;
+        }
+        readBuffer.flip();
+        try {
+            while (readBuffer.hasRemaining()) {
+                int offset = readBuffer.position();
+                byte type = readBuffer.get(offset);
+                int length = MessageCodec.messageLength(type);
+                if (length < 0) {
+                    LOG.warn("unknown message type {} from {}", type, getName());
+                    return false;
+                }
+                if (readBuffer.remaining() < length) {
+                    break;
+                }
+                if (!handle(type, offset)) {
+                    return false;
+                }
+                readBuffer.position(offset + length);
+            }
+        } finally {
+            readBuffer.compact();
+        }
+        return true;
+    }
+
+    private boolean handle(byte type, int offset) {
+        if (type == MessageCodec.LOGON) {
+            if (loggedOn) {
+                return false;
+            }
+            String name = MessageCodec.decodeName(readBuffer, offset);
+            if (name.isEmpty() || !gateway.logon(name, this)) {
+                LOG.warn("refused logon as : {}", name);
+                return false;
+            }
+            setName(name);
+            loggedOn = true;
+            return true;
+        }
+        if (!loggedOn) {
+            return false;
+        }
+        switch (type) {
+            case MessageCodec.NEW_ORDER:
+                newOrder(offset);
+                return true;
+            case MessageCodec.CANCEL:
+                cancel(offset);
+                return true;
+            case MessageCodec.AMEND:
+                amend(offset);
+                return true;
+            default:
+                // a type only the gateway sends
+                return false;
+        }
+    }
+
+    private void newOrder(int offset) {
+        long clientOrderId = readBuffer.getLong(offset + MessageCodec.NEW_ORDER_CLIENT_ORDER_ID);
+        BaseOrder.OrderType side = MessageCodec.orderType(readBuffer.get(offset + MessageCodec.NEW_ORDER_SIDE));
+        BaseOrder.TimeInForce timeInForce =
+                MessageCodec.timeInForce(readBuffer.get(offset + MessageCodec.NEW_ORDER_TIME_IN_FORCE));
+        BaseOrder.PriceType priceType =
+                MessageCodec.priceType(readBuffer.get(offset + MessageCodec.NEW_ORDER_PRICE_TYPE));
+        int instrumentId = readBuffer.getInt(offset + MessageCodec.NEW_ORDER_INSTRUMENT_ID);
+        long price = readBuffer.getLong(offset + MessageCodec.NEW_ORDER_PRICE);
+        int quantity = readBuffer.getInt(offset + MessageCodec.NEW_ORDER_QUANTITY);
+        if (clientOrderId == 0 || side == null || timeInForce == null || priceType == null || price <= 0
+                || quantity <= 0) {
+            requestReject(MessageCodec.NEW_ORDER, clientOrderId, RejectReason.INVALID_ORDER);
+            return;
+        }
+        BaseOrder order;
+        try {
+            Instrument instrument = engine.getInstrument(instrumentId);
+            int lotSize = instrument.getLotSize();
+            if (quantity % lotSize != 0) {
+                requestReject(MessageCodec.NEW_ORDER, clientOrderId, RejectReason.INVALID_ORDER);
+                return;
+            }
+            releaseFinishedOrders();
+            order = side == BaseOrder.OrderType.BUY
+                    ? orderPool.acquireBuyOrder(instrument.getRIC(), quantity / lotSize, price, lotSize)
+                    : orderPool.acquireSellOrder(instrument.getRIC(), quantity / lotSize, price, lotSize);
+        } catch (RuntimeException exception) {
+            requestReject(MessageCodec.NEW_ORDER, clientOrderId, RejectReason.INVALID_ORDER);
+            return;
+        }
+        order.setTimeInForce(timeInForce);
+        order.setPriceType(priceType);
+        order.setClientOrderId(clientOrderId);
+        order.setCounterParty(this);
+        synchronized (this) {
+            if (openOrders.containsKey(clientOrderId)) {
+                encodeRequestReject(MessageCodec.NEW_ORDER, clientOrderId, RejectReason.INVALID_ORDER);
+                orderPool.release(order);
+                return;
+            }
+            // before the submit, the terminal report may come back before it returns
+            openOrders.put(clientOrderId, order);
+        }
+        try {
+            engine.submitOrder(instrumentId, order);
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                // not released, a report the engine published before throwing may still point at it
+                openOrders.remove(clientOrderId);
+                encodeRequestReject(MessageCodec.NEW_ORDER, clientOrderId, RejectReason.INVALID_ORDER);
+            }
+        }
+    }
+
+    private void cancel(int offset) {
+        long clientOrderId = readBuffer.getLong(offset + MessageCodec.CANCEL_CLIENT_ORDER_ID);
+        BaseOrder order = openOrder(clientOrderId);
+        boolean cancelled = false;
+        if (order != null) {
+            try {
+                cancelled = engine.cancelOrder(order);
+            } catch (RuntimeException exception) {
+                cancelled = false;
+            }
+        }
+        if (!cancelled) {
+            requestReject(MessageCodec.CANCEL, clientOrderId, RejectReason.UNKNOWN_ORDER);
+        }
+    }
+
+    private void amend(int offset) {
+        long clientOrderId = readBuffer.getLong(offset + MessageCodec.AMEND_CLIENT_ORDER_ID);
+        long price = readBuffer.getLong(offset + MessageCodec.AMEND_PRICE);
+        int quantity = readBuffer.getInt(offset + MessageCodec.AMEND_QUANTITY);
+        BaseOrder order = openOrder(clientOrderId);
+        if (order == null) {
+            requestReject(MessageCodec.AMEND, clientOrderId, RejectReason.UNKNOWN_ORDER);
+            return;
+        }
+        boolean amended;
+        try {
+            amended = engine.modifyOrder(order, price, quantity);
+        } catch (RuntimeException exception) {
+            amended = false;
+        }
+        if (!amended) {
+            requestReject(MessageCodec.AMEND, clientOrderId, RejectReason.INVALID_ORDER);
+        }
+    }
+
+    private synchronized void releaseFinishedOrders() {
+        for (int i = 0; i < finishedOrders.size(); i++) {
+            orderPool.release(finishedOrders.get(i));
+        }
+        finishedOrders.clear();
+    }
+
+    private synchronized BaseOrder openOrder(long clientOrderId) {
+        return clientOrderId == 0 ? null : openOrders.get(clientOrderId);
+    }
+
+    private synchronized void requestReject(byte requestType, long clientOrderId, RejectReason reason) {
+        encodeRequestReject(requestType, clientOrderId, reason);
+    }
+
+    private void encodeRequestReject(byte requestType, long clientOrderId, RejectReason reason) {
+        if (reserve(MessageCodec.REQUEST_REJECT_LENGTH)) {
+            MessageCodec.encodeRequestReject(writeBuffer, requestType, clientOrderId, reason);
+            flush();
+        }
+    }
+
+    /**
+     * Called on the report dispatcher thread for every report of an order this session submitted.
+     */
+    @Override
+    public synchronized void orderStatusCallBack(ExecutionReport report) {
+        // reports are dispatched one at a time, so the previous terminal reports are fully delivered
+        for (int i = 0; i < finishingOrders.size(); i++) {
+            finishedOrders.add(finishingOrders.get(i));
+        }
+        finishingOrders.clear();
+        BaseOrder order = report.getOrder();
+        long clientOrderId = order.getClientOrderId();
+        BaseOrder.OrderStatus status = report.getStatus();
+        if ((status == BaseOrder.OrderStatus.EXECUTED || status == BaseOrder.OrderStatus.CANCELLED
+                || status == BaseOrder.OrderStatus.REJECTED) && openOrders.remove(clientOrderId) == order) {
+            finishingOrders.add(order);
+        }
+        if (reserve(MessageCodec.REPORT_LENGTH)) {
+            MessageCodec.encodeExecutionReport(writeBuffer, clientOrderId, report);
+            flush();
+        }
+    }
+
+    /**
+     * Makes room for a message, closing the session when the client does not read fast enough.
+     */
+    private boolean reserve(int length) {
+        if (closed) {
+            return false;
+        }
+        if (writeBuffer.remaining() < length) {
+            flush();
+            if (writeBuffer.remaining() < length) {
+                LOG.warn("closing slow consumer : {}", getName());
+                close();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes as much as the socket takes without blocking; the gateway thread writes the rest
+     * when the channel becomes writable.
+     */
+    synchronized void flush() {
+        if (closed || writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        try {
+            channel.write(writeBuffer);
+        } catch (IOException exception) {
+            LOG.warn("write failed for {} : {}", getName(), exception.getMessage());
+            close();
+            return;
+        } finally {
+            writeBuffer.compact();
+        }
+        int interestOps = writeBuffer.position() > 0
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.isValid() && key.interestOps() != interestOps) {
+            key.interestOps(interestOps);
+            key.selector().wakeup();
+        }
+    }
+
+    /**
+     * Drops the connection and frees the session name. Orders the session left in the book stay there.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (loggedOn) {
+            gateway.logoff(getName(), this);
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            LOG.warn("error closing session {} : {}", getName(), exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.trade.engine.gateway;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.RejectReason;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary messages of the order-entry gateway. Every message starts with a one byte
+ * type that also fixes its length, followed by big-endian fields at fixed offsets. Prices are in
+ * fixed-point units of 1 / Price.SCALE and quantities in units, not lots. Enums travel as their
+ * ordinal; a reject reason is sent as ordinal + 1 so that 0 means none.
+ *
+ * Decoding reads the fields in place with absolute gets, so a message is never copied out of the
+ * buffer it arrived in.
+ */
+public final class MessageCodec {
+    /** client to gateway: name the session, must come first */
+    public static final byte LOGON = 'L';
+    /** client to gateway: submit an order */
+    public static final byte NEW_ORDER = 'N';
+    /** client to gateway: cancel an open order */
+    public static final byte CANCEL = 'C';
+    /** client to gateway: change an open order's price and quantity */
+    public static final byte AMEND = 'A';
+    /** gateway to client: an ExecutionReport of one of the session's orders */
+    public static final byte EXECUTION_REPORT = 'E';
+    /** gateway to client: a request that never reached the book */
+    public static final byte REQUEST_REJECT = 'R';
+
+    public static final int NAME_LENGTH = 16;
+
+    public static final int LOGON_NAME = 1;
+    public static final int LOGON_LENGTH = LOGON_NAME + NAME_LENGTH;
+
+    public static final int NEW_ORDER_SIDE = 1;
+    public static final int NEW_ORDER_TIME_IN_FORCE = 2;
+    public static final int NEW_ORDER_PRICE_TYPE = 3;
+    public static final int NEW_ORDER_INSTRUMENT_ID = 4;
+    public static final int NEW_ORDER_CLIENT_ORDER_ID = 8;
+    public static final int NEW_ORDER_PRICE = 16;
+    public static final int NEW_ORDER_QUANTITY = 24;
+    public static final int NEW_ORDER_LENGTH = 28;
+
+    public static final int CANCEL_CLIENT_ORDER_ID = 1;
+    public static final int CANCEL_LENGTH = 9;
+
+    public static final int AMEND_CLIENT_ORDER_ID = 1;
+    public static final int AMEND_PRICE = 9;
+    public static final int AMEND_QUANTITY = 17;
+    public static final int AMEND_LENGTH = 21;
+
+    public static final int REPORT_STATUS = 1;
+    public static final int REPORT_REJECT_REASON = 2;
+    public static final int REPORT_SIDE = 3;
+    public static final int REPORT_EXECUTED_QUANTITY = 4;
+    public static final int REPORT_LEAVES_QUANTITY = 8;
+    public static final int REPORT_CLIENT_ORDER_ID = 12;
+    public static final int REPORT_ORDER_ID = 20;
+    public static final int REPORT_FILL_PRICE = 28;
+    public static final int REPORT_SEQUENCE = 36;
+    public static final int REPORT_LENGTH = 44;
+
+    public static final int REQUEST_REJECT_REQUEST_TYPE = 1;
+    public static final int REQUEST_REJECT_REASON = 2;
+    public static final int REQUEST_REJECT_CLIENT_ORDER_ID = 3;
+    public static final int REQUEST_REJECT_LENGTH = 11;
+
+    /** largest message of either direction */
+    public static final int MAX_LENGTH = REPORT_LENGTH;
+
+    private static final BaseOrder.OrderType[] ORDER_TYPES = BaseOrder.OrderType.values();
+    private static final BaseOrder.OrderStatus[] ORDER_STATUSES = BaseOrder.OrderStatus.values();
+    private static final BaseOrder.TimeInForce[] TIMES_IN_FORCE = BaseOrder.TimeInForce.values();
+    private static final BaseOrder.PriceType[] PRICE_TYPES = BaseOrder.PriceType.values();
+    private static final RejectReason[] REJECT_REASONS = RejectReason.values();
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Length of a message of the given type, -1 for an unknown type.
+     */
+    public static int messageLength(byte type) {
+        switch (type) {
+            case LOGON:
+                return LOGON_LENGTH;
+            case NEW_ORDER:
+                return NEW_ORDER_LENGTH;
+            case CANCEL:
+                return CANCEL_LENGTH;
+            case AMEND:
+                return AMEND_LENGTH;
+            case EXECUTION_REPORT:
+                return REPORT_LENGTH;
+            case REQUEST_REJECT:
+                return REQUEST_REJECT_LENGTH;
+            default:
+                return -1;
+        }
+    }
+
+    public static void encodeLogon(ByteBuffer buffer, String name) {
+        if (name.length() > NAME_LENGTH) {
+            throw new IllegalArgumentException("Session name longer than " + NAME_LENGTH + " : " + name);
+        }
+        buffer.put(LOGON);
+        for (int i = 0; i < NAME_LENGTH; i++) {
+            buffer.put(i < name.length() ? (byte) name.charAt(i) : 0);
+        }
+    }
+
+    public static void encodeNewOrder(ByteBuffer buffer, long clientOrderId, int instrumentId,
+                                      BaseOrder.OrderType side, BaseOrder.TimeInForce timeInForce,
+                                      BaseOrder.PriceType priceType, long price, int quantity) {
+        buffer.put(NEW_ORDER)
+                .put((byte) side.ordinal())
+                .put((byte) timeInForce.ordinal())
+                .put((byte) priceType.ordinal())
+                .putInt(instrumentId)
+                .putLong(clientOrderId)
+                .putLong(price)
+                .putInt(quantity);
+    }
+
+    public static void encodeCancel(ByteBuffer buffer, long clientOrderId) {
+        buffer.put(CANCEL).putLong(clientOrderId);
+    }
+
+    public static void encodeAmend(ByteBuffer buffer, long clientOrderId, long price, int quantity) {
+        buffer.put(AMEND).putLong(clientOrderId).putLong(price).putInt(quantity);
+    }
+
+    public static void encodeExecutionReport(ByteBuffer buffer, long clientOrderId, ExecutionReport report) {
+        buffer.put(EXECUTION_REPORT)
+                .put((byte) report.getStatus().ordinal())
+                .put(encodeRejectReason(report.getRejectReason()))
+                .put((byte) report.getSide().ordinal())
+                .putInt(report.getExecutedQuantity())
+                .putInt(report.getLeavesQuantity())
+                .putLong(clientOrderId)
+                .putLong(report.getOrderId())
+                .putLong(report.getFillPrice())
+                .putLong(report.getSequenceNumber());
+    }
+
+    public static void encodeRequestReject(ByteBuffer buffer, byte requestType, long clientOrderId,
+                                           RejectReason reason) {
+        buffer.put(REQUEST_REJECT).put(requestType).put(encodeRejectReason(reason)).putLong(clientOrderId);
+    }
+
+    /**
+     * Session name of a LOGON at offset, without the zero padding.
+     */
+    public static String decodeName(ByteBuffer buffer, int offset) {
+        StringBuilder name = new StringBuilder(NAME_LENGTH);
+        for (int i = 0; i < NAME_LENGTH; i++) {
+            byte b = buffer.get(offset + LOGON_NAME + i);
+            if (b == 0) {
+                break;
+            }
+            name.append((char) b);
+        }
+        return name.toString();
+    }
+
+    /**
+     * The enum at an ordinal read off the wire, null when the ordinal is out of range.
+     */
+    public static BaseOrder.OrderType orderType(byte ordinal) {
+        return ordinal >= 0 && ordinal < ORDER_TYPES.length ? ORDER_TYPES[ordinal] : null;
+    }
+
+    public static BaseOrder.OrderStatus orderStatus(byte ordinal) {
+        return ordinal >= 0 && ordinal < ORDER_STATUSES.length ? ORDER_STATUSES[ordinal] : null;
+    }
+
+    public static BaseOrder.TimeInForce timeInForce(byte ordinal) {
+        return ordinal >= 0 && ordinal < TIMES_IN_FORCE.length ? TIMES_IN_FORCE[ordinal] : null;
+    }
+
+    public static BaseOrder.PriceType priceType(byte ordinal) {
+        return ordinal >= 0 && ordinal < PRICE_TYPES.length ? PRICE_TYPES[ordinal] : null;
+    }
+
+    public static RejectReason rejectReason(byte encoded) {
+        return encoded > 0 && encoded <= REJECT_REASONS.length ? REJECT_REASONS[encoded - 1] : null;
+    }
+
+    private static byte encodeRejectReason(RejectReason reason) {
+        return reason == null ? 0 : (byte) (reason.ordinal() + 1);
+    }
+}
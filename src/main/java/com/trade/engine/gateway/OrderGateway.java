@@ -0,0 +1,172 @@
+package com.trade.engine.gateway;
+
+import com.trade.engine.booking.TradeBookingEngine;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.order.OrderPool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TCP order-entry gateway in front of a TradeBookingEngine. One non-blocking selector thread
+ * accepts connections and decodes MessageCodec requests into engine calls; execution reports are
+ * encoded back by each GatewaySession on the report dispatcher thread. Instruments are addressed
+ * by their engine instrument id and each connection logs on with a session name, unique while it
+ * is connected, which becomes the counterparty name of its orders.
+ */
+public class OrderGateway implements Runnable {
+    private static final Logger LOG = LogManager.getLogger(OrderGateway.class);
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int ORDER_POOL_SIZE = 256;
+
+    private final TradeBookingEngine engine;
+    private final InetSocketAddress address;
+    private final int bufferSize;
+    private final Map<String, GatewaySession> sessionByName = new ConcurrentHashMap<>();
+    // orders of every session, acquired and released on the gateway thread only
+    private final OrderPool orderPool = new OrderPool(ORDER_POOL_SIZE);
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+    private Thread gatewayThread;
+
+    public OrderGateway(TradeBookingEngine engine, InetSocketAddress address) {
+        this(engine, address, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param address where to listen, port 0 picks a free port
+     * @param bufferSize bytes of read and of write buffer per session; a client whose unread
+     *                   reports outgrow the write buffer is disconnected
+     */
+    public OrderGateway(TradeBookingEngine engine, InetSocketAddress address, int bufferSize) {
+        this.engine = engine;
+        this.address = address;
+        this.bufferSize = bufferSize;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        gatewayThread = new Thread(this, "OrderGateway");
+        gatewayThread.setDaemon(true);
+        gatewayThread.start();
+        LOG.info("order gateway listening on {}", serverChannel.getLocalAddress());
+    }
+
+    /**
+     * Closes every session and the listening socket. Orders the sessions left in the book stay there.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            gatewayThread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Port the gateway listens on, useful when it was started on port 0.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessionByName.size();
+    }
+
+    /**
+     * Claims a session name, false when another connected session already has it.
+     */
+    boolean logon(String name, GatewaySession session) {
+        return sessionByName.putIfAbsent(name, session) == null;
+    }
+
+    void logoff(String name, GatewaySession session) {
+        sessionByName.remove(name, session);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException exception) {
+                LOG.error("order gateway select failed", exception);
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                GatewaySession session = (GatewaySession) key.attachment();
+                try {
+                    if (key.isWritable()) {
+                        session.flush();
+                    }
+                    if (key.isValid() && key.isReadable() && !session.read()) {
+                        session.close();
+                    }
+                } catch (IOException exception) {
+                    LOG.warn("dropping session {} : {}", session.getName(), exception.getMessage());
+                    session.close();
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof GatewaySession) {
+                ((GatewaySession) key.attachment()).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException exception) {
+            LOG.error("error closing order gateway", exception);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new GatewaySession(this, engine, orderPool, channel, key, bufferSize));
+        } catch (IOException exception) {
+            LOG.warn("failed to accept connection : {}", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.orderbook.OrderBook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies journal records to a book exactly as they were recorded, without matching or reporting.
+ * Records at or below the last applied sequence are skipped, so a book loaded from a snapshot can
+ * be brought up to date by replaying the journal over it.
+ */
+public class BookRebuilder implements JournalRecordHandler {
+    private static final Logger LOG = LogManager.getLogger(BookRebuilder.class);
+
+    private final String RIC;
+    private final OrderBook orderBook;
+    private final Map<String, CounterParty> counterPartyByName = new HashMap<>();
+    private long sequence;
+
+    public BookRebuilder(String RIC, OrderBook orderBook) {
+        this.RIC = RIC;
+        this.orderBook = orderBook;
+    }
+
+    @Override
+    public void onRecord(JournalRecord record) {
+        if (record.getSequence() <= sequence) {
+            return;
+        }
+        sequence = record.getSequence();
+        switch (record.getType()) {
+            case SUBMIT:
+                restore(record.getSide(), record.getOrderId(), record.getQuantity(), record.getPrice(),
+                        record.getLotSize(), replayedOrderTime(record), record.getCounterPartyName());
+                break;
+            case CANCEL:
+                BaseOrder cancelledOrder = orderBook.get(record.getOrderId());
+                if (cancelledOrder != null) {
+                    orderBook.remove(cancelledOrder);
+                }
+                break;
+            case FILL:
+                BaseOrder filledOrder = orderBook.get(record.getOrderId());
+                if (filledOrder == null) {
+                    LOG.warn("journal fill for unknown order {} on {}", record.getOrderId(), RIC);
+                } else if (record.getQuantity() >= filledOrder.getQuantity()) {
+                    filledOrder.setOrderStatus(BaseOrder.OrderStatus.EXECUTED);
+                    orderBook.remove(filledOrder);
+                } else {
+                    orderBook.reduce(filledOrder, record.getQuantity());
+                }
+                break;
+            case MODIFY:
+                BaseOrder modifiedOrder = orderBook.get(record.getOrderId());
+                if (modifiedOrder == null) {
+                    break;
+                }
+                if (record.getPrice() == modifiedOrder.getScaledPrice()
+                        && record.getQuantity() <= modifiedOrder.getQuantity()) {
+                    orderBook.reduce(modifiedOrder, modifiedOrder.getQuantity() - record.getQuantity());
+                } else {
+                    orderBook.remove(modifiedOrder);
+                    modifiedOrder.setScaledPrice(record.getPrice());
+                    modifiedOrder.setQuantity(record.getQuantity());
+                    modifiedOrder.setOrderTime(replayedOrderTime(record));
+                    orderBook.add(modifiedOrder);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * System.nanoTime() of an earlier process means nothing in this one. Replayed orders get times
+     * below any the running process will hand out, in journal order, so they keep their relative
+     * priority and rank ahead of every new order.
+     */
+    private static long replayedOrderTime(JournalRecord record) {
+        return Long.MIN_VALUE + record.getSequence();
+    }
+
+    /**
+     * Adds a previously accepted order behind the orders already at its price.
+     *
+     * @param quantity quantity in units, not lots
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public void restore(BaseOrder.OrderType side, long orderId, int quantity, long price, int lotSize,
+                        long orderTime, String counterPartyName) {
+        BaseOrder order = BaseOrder.restore(side, orderId, RIC, quantity, price, lotSize, orderTime);
+        if (counterPartyName != null) {
+            order.setCounterParty(counterPartyByName.computeIfAbsent(counterPartyName, CounterParty::new));
+        }
+        orderBook.add(order);
+    }
+
+    public OrderBook getOrderBook() {
+        return orderBook;
+    }
+
+    /**
+     * Journal sequence the book reflects.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,180 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.orderbook.OrderBook;
+import com.trade.engine.orderbook.OrderBookSide;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of one RIC's resting orders, named RIC-sequence.snapshot after the last journal
+ * record it includes. Orders are stored best level first and in time priority within a level, so
+ * adding them back in file order rebuilds the same queues. A trailing CRC32 guards against torn
+ * or partial files, and files are written under a temporary name and renamed when complete.
+ */
+public final class BookSnapshot {
+    static final String SUFFIX = ".snapshot";
+    static final int MAGIC = 0x4F534E50;
+    static final int VERSION = 1;
+
+    private BookSnapshot() {
+    }
+
+    /**
+     * Writes and forces the snapshot. Must not run concurrently with changes to the book.
+     */
+    public static File write(File directory, String RIC, long sequence, OrderBook orderBook) {
+        File file = new File(directory, String.format("%s-%020d%s", RIC, sequence, SUFFIX));
+        File temporaryFile = new File(directory, file.getName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream, 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bufferedOutputStream, checksum));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(orderBook.size());
+            writeSide(out, orderBook.getBuySide());
+            writeSide(out, orderBook.getSellSide());
+            out.flush();
+            new DataOutputStream(bufferedOutputStream).writeLong(checksum.getValue());
+            bufferedOutputStream.flush();
+            fileOutputStream.getChannel().force(true);
+        } catch (IOException exception) {
+            temporaryFile.delete();
+            throw new JournalException("Cannot write snapshot " + file, exception);
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new JournalException("Cannot publish snapshot " + file, exception);
+        }
+        return file;
+    }
+
+    private static void writeSide(DataOutputStream out, OrderBookSide<? extends BaseOrder> side) throws IOException {
+        try {
+            side.forEach(order -> writeOrder(out, order));
+        } catch (JournalException exception) {
+            throw (IOException) exception.getCause();
+        }
+    }
+
+    private static void writeOrder(DataOutputStream out, BaseOrder order) {
+        try {
+            out.writeByte(order.getType().ordinal());
+            out.writeLong(order.getId());
+            out.writeLong(order.getScaledPrice());
+            out.writeInt(order.getQuantity());
+            out.writeInt(order.getLotSize());
+            out.writeLong(order.getOrderTime());
+            CounterParty counterParty = order.getCounterParty();
+            out.writeBoolean(counterParty != null);
+            if (counterParty != null) {
+                out.writeUTF(counterParty.getName());
+            }
+        } catch (IOException exception) {
+            throw new JournalException("Cannot write order " + order.getId(), exception);
+        }
+    }
+
+    /**
+     * Adds the snapshot's orders to an empty book and sets the rebuilder's sequence. The checksum
+     * is verified before anything is added, so a damaged snapshot leaves the book untouched.
+     */
+    public static void load(File file, BookRebuilder bookRebuilder) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException exception) {
+            throw new JournalException("Cannot read snapshot " + file, exception);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(content, 0, Math.max(content.length - 8, 0));
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (content.length < 28 || readLong(content, content.length - 8) != checksum.getValue()
+                    || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new JournalException("Corrupt snapshot " + file);
+            }
+            long sequence = in.readLong();
+            int orderCount = in.readInt();
+            BaseOrder.OrderType[] sides = BaseOrder.OrderType.values();
+            for (int i = 0; i < orderCount; i++) {
+                BaseOrder.OrderType side = sides[in.readByte()];
+                long orderId = in.readLong();
+                long price = in.readLong();
+                int quantity = in.readInt();
+                int lotSize = in.readInt();
+                long orderTime = in.readLong();
+                String counterPartyName = in.readBoolean() ? in.readUTF() : null;
+                bookRebuilder.restore(side, orderId, quantity, price, lotSize, orderTime, counterPartyName);
+            }
+            bookRebuilder.setSequence(sequence);
+        } catch (IOException exception) {
+            throw new JournalException("Corrupt snapshot " + file, exception);
+        }
+    }
+
+    private static long readLong(byte[] content, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (content[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Snapshots of the RIC, newest first.
+     */
+    public static List<File> list(File directory, String RIC) {
+        List<File> snapshots = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isSnapshotOf(file.getName(), RIC)) {
+                    snapshots.add(file);
+                }
+            }
+        }
+        // names are zero padded, so name order is sequence order
+        Collections.sort(snapshots, Collections.reverseOrder());
+        return snapshots;
+    }
+
+    /**
+     * Deletes all but the newest retention snapshots of the RIC.
+     */
+    public static void prune(File directory, String RIC, int retention) {
+        List<File> snapshots = list(directory, RIC);
+        for (int i = retention; i < snapshots.size(); i++) {
+            snapshots.get(i).delete();
+        }
+    }
+
+    private static boolean isSnapshotOf(String fileName, String RIC) {
+        if (!fileName.startsWith(RIC) || !fileName.endsWith(SUFFIX)
+                || fileName.length() != RIC.length() + 21 + SUFFIX.length() || fileName.charAt(RIC.length()) != '-') {
+            return false;
+        }
+        for (int i = RIC.length() + 1; i < fileName.length() - SUFFIX.length(); i++) {
+            if (!Character.isDigit(fileName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
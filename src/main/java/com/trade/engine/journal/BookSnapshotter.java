@@ -0,0 +1,160 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.orderbook.OrderBook;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes periodic snapshots without touching the live books. For each RIC a background thread
+ * tails the journal into a shadow book of its own and snapshots the shadow, so matching threads
+ * never pause or share a lock with it. The cost is a second copy of each book's resting orders.
+ */
+public class BookSnapshotter implements Runnable {
+    private static final Logger LOG = LogManager.getLogger(BookSnapshotter.class);
+    private static final long TAIL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final File directory;
+    private final long snapshotIntervalNanos;
+    private final int retention;
+    private final Map<String, ShadowBook> shadowBookByRIC = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread snapshotThread;
+
+    /**
+     * @param retention snapshots kept per RIC, older ones are deleted
+     */
+    public BookSnapshotter(File directory, long snapshotIntervalMillis, int retention) {
+        this.directory = directory;
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMillis);
+        this.retention = retention;
+    }
+
+    private static class ShadowBook {
+        final String RIC;
+        final BookRebuilder bookRebuilder;
+        final JournalTailer tailer;
+        long snapshotSequence;
+
+        ShadowBook(String RIC, BookRebuilder bookRebuilder, JournalTailer tailer) {
+            this.RIC = RIC;
+            this.bookRebuilder = bookRebuilder;
+            this.tailer = tailer;
+            this.snapshotSequence = bookRebuilder.getSequence();
+        }
+    }
+
+    /**
+     * Starts following the RIC's journal from its latest readable snapshot.
+     */
+    public void add(String RIC, MappedOrderJournal journal) {
+        BookRebuilder bookRebuilder = new BookRebuilder(RIC, new OrderBook());
+        loadLatestSnapshot(directory, RIC, bookRebuilder);
+        shadowBookByRIC.put(RIC, new ShadowBook(RIC, bookRebuilder, new JournalTailer(journal, bookRebuilder.getSequence())));
+    }
+
+    public void remove(String RIC) {
+        ShadowBook shadowBook = shadowBookByRIC.remove(RIC);
+        if (shadowBook != null) {
+            synchronized (shadowBook) {
+                shadowBook.tailer.close();
+            }
+        }
+    }
+
+    /**
+     * Loads the newest snapshot that passes its checksum, skipping damaged ones.
+     *
+     * @return the snapshot loaded, or null if there is none
+     */
+    private static File loadLatestSnapshot(File directory, String RIC, BookRebuilder bookRebuilder) {
+        for (File snapshot : BookSnapshot.list(directory, RIC)) {
+            try {
+                BookSnapshot.load(snapshot, bookRebuilder);
+                return snapshot;
+            } catch (JournalException exception) {
+                LOG.warn("skipping unreadable snapshot {} : {}", snapshot, exception.getMessage());
+            }
+        }
+        return null;
+    }
+
+    public void start() {
+        running = true;
+        snapshotThread = new Thread(this, "BookSnapshotter");
+        snapshotThread.setDaemon(true);
+        snapshotThread.start();
+    }
+
+    /**
+     * Stops the thread and writes a final snapshot of every book that changed, so the next
+     * recovery has no journal tail to replay. The journals are no longer followed afterwards.
+     */
+    public void stop() {
+        running = false;
+        if (snapshotThread != null) {
+            LockSupport.unpark(snapshotThread);
+            try {
+                snapshotThread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        snapshotAll();
+        for (String RIC : shadowBookByRIC.keySet()) {
+            remove(RIC);
+        }
+    }
+
+    @Override
+    public void run() {
+        long nextSnapshotTime = System.nanoTime() + snapshotIntervalNanos;
+        while (running) {
+            try {
+                for (ShadowBook shadowBook : shadowBookByRIC.values()) {
+                    synchronized (shadowBook) {
+                        shadowBook.tailer.poll(shadowBook.bookRebuilder);
+                    }
+                }
+                if (System.nanoTime() - nextSnapshotTime >= 0) {
+                    snapshotAll();
+                    nextSnapshotTime = System.nanoTime() + snapshotIntervalNanos;
+                }
+            } catch (RuntimeException exception) {
+                LOG.error("snapshot failed", exception);
+            }
+            LockSupport.parkNanos(TAIL_INTERVAL_NANOS);
+        }
+    }
+
+    private void snapshotAll() {
+        for (ShadowBook shadowBook : shadowBookByRIC.values()) {
+            synchronized (shadowBook) {
+                shadowBook.tailer.poll(shadowBook.bookRebuilder);
+            }
+            long sequence = shadowBook.bookRebuilder.getSequence();
+            if (sequence != shadowBook.snapshotSequence) {
+                long startTime = System.nanoTime();
+                File snapshot = BookSnapshot.write(directory, shadowBook.RIC, sequence,
+                        shadowBook.bookRebuilder.getOrderBook());
+                shadowBook.snapshotSequence = sequence;
+                BookSnapshot.prune(directory, shadowBook.RIC, retention);
+                LOG.info("wrote {} in {} us", snapshot.getName(),
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+            }
+        }
+    }
+
+    /**
+     * Snapshots of one RIC on disk, newest first.
+     */
+    public List<File> getSnapshots(String RIC) {
+        return BookSnapshot.list(directory, RIC);
+    }
+}
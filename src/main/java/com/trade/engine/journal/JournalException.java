@@ -0,0 +1,11 @@
+package com.trade.engine.journal;
+
+public class JournalException extends RuntimeException {
+    public JournalException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public JournalException(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+    }
+}
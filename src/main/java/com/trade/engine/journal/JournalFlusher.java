@@ -0,0 +1,77 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for every journal of an engine: a background thread forces dirty journals to disk
+ * once per interval, so the appends made during an interval share one fsync and the matching
+ * threads never wait on the disk. A record is in the page cache when its append returns and on
+ * disk within one interval.
+ */
+public class JournalFlusher implements Runnable {
+    private static final Logger LOG = LogManager.getLogger(JournalFlusher.class);
+
+    private final List<OrderJournal> journals = new CopyOnWriteArrayList<>();
+    private final long flushIntervalNanos;
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    public JournalFlusher(long flushIntervalMicros) {
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+    }
+
+    public void add(OrderJournal journal) {
+        journals.add(journal);
+    }
+
+    public boolean remove(OrderJournal journal) {
+        return journals.remove(journal);
+    }
+
+    public void start() {
+        running = true;
+        flusherThread = new Thread(this, "JournalFlusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+    }
+
+    /**
+     * Stops the thread after a last flush of every journal.
+     */
+    public void stop() {
+        running = false;
+        if (flusherThread != null) {
+            LockSupport.unpark(flusherThread);
+            try {
+                flusherThread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAll();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            flushAll();
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+    }
+
+    private void flushAll() {
+        for (OrderJournal journal : journals) {
+            try {
+                journal.flush();
+            } catch (RuntimeException exception) {
+                LOG.error("journal flush failed", exception);
+            }
+        }
+    }
+}
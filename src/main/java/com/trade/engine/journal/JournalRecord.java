@@ -0,0 +1,99 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.order.BaseOrder;
+
+import java.nio.ByteBuffer;
+
+import static com.trade.engine.journal.MappedOrderJournal.*;
+
+/**
+ * Flyweight view of one record in a journal segment, reused for every record during replay.
+ */
+public class JournalRecord {
+    private static final BaseOrder.OrderType[] ORDER_TYPES = BaseOrder.OrderType.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    void wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public JournalRecordType getType() {
+        return JournalRecordType.valueOf(buffer.get(offset + TYPE_OFFSET));
+    }
+
+    public long getSequence() {
+        return buffer.getLong(offset + SEQUENCE_OFFSET);
+    }
+
+    public long getOrderId() {
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+
+    public BaseOrder.OrderType getSide() {
+        return ORDER_TYPES[buffer.get(offset + SIDE_OFFSET)];
+    }
+
+    /**
+     * Order price for SUBMIT and MODIFY, fill price for FILL, in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getPrice() {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+
+    /**
+     * Order quantity for SUBMIT and MODIFY, executed quantity for FILL.
+     */
+    public int getQuantity() {
+        return buffer.getInt(offset + QUANTITY_OFFSET);
+    }
+
+    public int getLotSize() {
+        return buffer.getInt(offset + LOT_SIZE_OFFSET);
+    }
+
+    public long getOrderTime() {
+        return buffer.getLong(offset + ORDER_TIME_OFFSET);
+    }
+
+    public long getContraOrderId() {
+        return buffer.getLong(offset + CONTRA_ORDER_ID_OFFSET);
+    }
+
+    public boolean hasCounterParty() {
+        return buffer.getShort(offset + NAME_LENGTH_OFFSET) >= 0;
+    }
+
+    /**
+     * Whether the counterparty name stored in the record equals the given one, without allocating.
+     */
+    public boolean counterPartyNameEquals(String name) {
+        int length = buffer.getShort(offset + NAME_LENGTH_OFFSET);
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar(offset + NAME_OFFSET + 2 * i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counterparty name of a SUBMIT record, or null when the order had none.
+     */
+    public String getCounterPartyName() {
+        int length = buffer.getShort(offset + NAME_LENGTH_OFFSET);
+        if (length < 0) {
+            return null;
+        }
+        char[] name = new char[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = buffer.getChar(offset + NAME_OFFSET + 2 * i);
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,11 @@
+package com.trade.engine.journal;
+
+/**
+ * Receives journal records in append order during replay.
+ */
+public interface JournalRecordHandler {
+    /**
+     * The record is a view over the journal and is only valid until this returns.
+     */
+    void onRecord(JournalRecord record);
+}
@@ -0,0 +1,23 @@
+package com.trade.engine.journal;
+
+/**
+ * Book mutations written to the journal. The ordinal is the on-disk type code, append only.
+ */
+public enum JournalRecordType {
+    /** unused, a zero type never appears in a committed record */
+    NONE,
+    /** order accepted into the book */
+    SUBMIT,
+    /** order removed from the book without trading */
+    CANCEL,
+    /** one side of a trade, reduces the order by the executed quantity */
+    FILL,
+    /** new price and quantity of an amended order */
+    MODIFY;
+
+    private static final JournalRecordType[] VALUES = values();
+
+    static JournalRecordType valueOf(int code) {
+        return VALUES[code];
+    }
+}
@@ -0,0 +1,80 @@
+package com.trade.engine.journal;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import static com.trade.engine.journal.MappedOrderJournal.*;
+
+/**
+ * Follows a journal from another thread, reading only records the writer has committed. Maps the
+ * segments read-only, so the writer is never blocked, and unmaps each one once it has moved past
+ * it. Not thread safe, poll() and close() must not run concurrently.
+ */
+class JournalTailer {
+    private final MappedOrderJournal journal;
+    private final JournalRecord record = new JournalRecord();
+    private MappedByteBuffer buffer;
+    private int segmentIndex;
+    private int position;
+
+    /**
+     * Starts at the segment holding the first record after the given sequence.
+     */
+    JournalTailer(MappedOrderJournal journal, long afterSequence) {
+        this.journal = journal;
+        List<Integer> segments = journal.listSegments();
+        int first = 0;
+        while (first + 1 < segments.size() && journal.readBaseSequence(segments.get(first + 1)) <= afterSequence) {
+            first++;
+        }
+        open(segments.get(first));
+    }
+
+    /**
+     * Passes the records committed since the last poll to the handler.
+     *
+     * @return number of records read
+     */
+    int poll(JournalRecordHandler handler) {
+        if (buffer == null) {
+            return 0;
+        }
+        long committed = journal.getCommittedPosition();
+        int segmentSize = journal.getSegmentSize();
+        int count = 0;
+        while (position(segmentIndex, position) < committed) {
+            int length = position + 8 > segmentSize ? END_OF_SEGMENT : buffer.getInt(position + LENGTH_OFFSET);
+            if (length == END_OF_SEGMENT) {
+                open(segmentIndex + 1);
+                continue;
+            }
+            if (length == 0) {
+                break;
+            }
+            record.wrap(buffer, position);
+            handler.onRecord(record);
+            count++;
+            position += align(length);
+        }
+        return count;
+    }
+
+    /**
+     * Unmaps the current segment, later polls read nothing.
+     */
+    void close() {
+        if (buffer != null) {
+            unmap(buffer);
+            buffer = null;
+        }
+    }
+
+    private void open(int index) {
+        close();
+        buffer = map(segmentFile(journal.getDirectory(), journal.getRIC(), index), FileChannel.MapMode.READ_ONLY,
+                journal.getSegmentSize());
+        segmentIndex = index;
+        position = HEADER_SIZE;
+    }
+}
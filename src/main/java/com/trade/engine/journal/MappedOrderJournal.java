@@ -0,0 +1,475 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Journal for one RIC kept in fixed size memory-mapped segment files named RIC-000000.journal,
+ * RIC-000001.journal, ... An append is a handful of stores into the page cache, so it survives a
+ * process crash as soon as it returns. Forcing the pages to disk is left to flush(), which
+ * JournalFlusher calls for all journals on a short interval so many appends share one fsync. A
+ * full segment is handed to the next flush too, which forces and unmaps it, so rolling to a new
+ * segment never waits on the disk. Not thread safe for appends, callers hold the book lock.
+ *
+ * Records are 8 byte aligned: int length, byte type, byte side, short counterparty name length
+ * (-1 for none), long sequence, long order id, long price, long order time, long contra order id,
+ * int quantity, int lot size, then the name as chars. The length is stored last, so a zero length
+ * marks the end of the journal and -1 the unused tail of a full segment.
+ */
+public class MappedOrderJournal implements OrderJournal {
+    static final String SUFFIX = ".journal";
+    static final int MAGIC = 0x4F4A524E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int END_OF_SEGMENT = -1;
+    static final int MAX_COUNTER_PARTY_CHARS = 64;
+
+    static final int LENGTH_OFFSET = 0;
+    static final int TYPE_OFFSET = 4;
+    static final int SIDE_OFFSET = 5;
+    static final int NAME_LENGTH_OFFSET = 6;
+    static final int SEQUENCE_OFFSET = 8;
+    static final int ORDER_ID_OFFSET = 16;
+    static final int PRICE_OFFSET = 24;
+    static final int ORDER_TIME_OFFSET = 32;
+    static final int CONTRA_ORDER_ID_OFFSET = 40;
+    static final int QUANTITY_OFFSET = 48;
+    static final int LOT_SIZE_OFFSET = 52;
+    static final int NAME_OFFSET = 56;
+
+    private static final int HEADER_MAGIC_OFFSET = 0;
+    private static final int HEADER_VERSION_OFFSET = 4;
+    private static final int HEADER_TICK_SIZE_OFFSET = 8;
+    private static final int HEADER_SEGMENT_INDEX_OFFSET = 16;
+    private static final int HEADER_BASE_SEQUENCE_OFFSET = 24;
+
+    private final File directory;
+    private final String RIC;
+    private final long tickSize;
+    private final int segmentSize;
+    private volatile MappedByteBuffer segment;
+    // full segments still to be forced and unmapped by flush()
+    private final Queue<MappedByteBuffer> sealedSegments = new ConcurrentLinkedQueue<>();
+    private int segmentIndex;
+    private int writePosition;
+    private long sequence;
+    private volatile long committedPosition;
+    private long flushedPosition;
+
+    /**
+     * Opens the journal for appending after its last committed record, creating the first segment
+     * if the RIC has none.
+     *
+     * @param tickSize stored in new segment headers so the RIC can be re-registered on recovery
+     * @param segmentSize bytes per segment file, rounded down to a multiple of 8
+     */
+    public MappedOrderJournal(File directory, String RIC, long tickSize, int segmentSize) {
+        this.directory = directory;
+        this.RIC = RIC;
+        this.tickSize = tickSize;
+        this.segmentSize = segmentSize & ~7;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new JournalException("Cannot create journal directory " + directory);
+        }
+        List<Integer> segments = listSegments(directory, RIC);
+        if (segments.isEmpty()) {
+            openSegment(0, true);
+        } else {
+            openSegment(segments.get(segments.size() - 1), false);
+            seekToEnd();
+        }
+        committedPosition = position(segmentIndex, writePosition);
+        flushedPosition = committedPosition;
+    }
+
+    /**
+     * RICs with at least one journal segment in the directory.
+     */
+    public static Set<String> listJournaledRics(File directory) {
+        Set<String> rics = new TreeSet<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String RIC = parseRic(file.getName());
+                if (RIC != null) {
+                    rics.add(RIC);
+                }
+            }
+        }
+        return rics;
+    }
+
+    /**
+     * Tick size recorded in the RIC's first segment, in fixed-point units of 1 / Price.SCALE.
+     */
+    public static long readTickSize(File directory, String RIC) {
+        MappedByteBuffer buffer = map(segmentFile(directory, RIC, 0), FileChannel.MapMode.READ_ONLY, HEADER_SIZE);
+        try {
+            checkHeader(buffer, RIC);
+            return buffer.getLong(HEADER_TICK_SIZE_OFFSET);
+        } finally {
+            unmap(buffer);
+        }
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void appendSubmit(BaseOrder order) {
+        CounterParty counterParty = order.getCounterParty();
+        String name = counterParty == null ? null : counterParty.getName();
+        int nameLength = name == null ? -1 : Math.min(name.length(), MAX_COUNTER_PARTY_CHARS);
+        int length = NAME_OFFSET + 2 * Math.max(nameLength, 0);
+        int offset = claim(length);
+        MappedByteBuffer buffer = segment;
+        for (int i = 0; i < nameLength; i++) {
+            buffer.putChar(offset + NAME_OFFSET + 2 * i, name.charAt(i));
+        }
+        buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) nameLength);
+        commit(buffer, offset, length, JournalRecordType.SUBMIT, order, order.getScaledPrice(),
+                order.getQuantity(), 0);
+    }
+
+    @Override
+    public void appendCancel(BaseOrder order) {
+        int offset = claim(NAME_OFFSET);
+        MappedByteBuffer buffer = segment;
+        buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) -1);
+        commit(buffer, offset, NAME_OFFSET, JournalRecordType.CANCEL, order, order.getScaledPrice(), 0, 0);
+    }
+
+    @Override
+    public void appendFill(BaseOrder order, BaseOrder contraOrder, long fillPrice, int quantity) {
+        int offset = claim(NAME_OFFSET);
+        MappedByteBuffer buffer = segment;
+        buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) -1);
+        commit(buffer, offset, NAME_OFFSET, JournalRecordType.FILL, order, fillPrice, quantity,
+                contraOrder == null ? 0 : contraOrder.getId());
+    }
+
+    @Override
+    public void appendModify(BaseOrder order) {
+        int offset = claim(NAME_OFFSET);
+        MappedByteBuffer buffer = segment;
+        buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) -1);
+        commit(buffer, offset, NAME_OFFSET, JournalRecordType.MODIFY, order, order.getScaledPrice(),
+                order.getQuantity(), 0);
+    }
+
+    private void commit(MappedByteBuffer buffer, int offset, int length, JournalRecordType type, BaseOrder order,
+                        long price, int quantity, long contraOrderId) {
+        buffer.put(offset + TYPE_OFFSET, (byte) type.ordinal());
+        buffer.put(offset + SIDE_OFFSET, (byte) order.getType().ordinal());
+        buffer.putLong(offset + SEQUENCE_OFFSET, ++sequence);
+        buffer.putLong(offset + ORDER_ID_OFFSET, order.getId());
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        buffer.putLong(offset + ORDER_TIME_OFFSET, order.getOrderTime());
+        buffer.putLong(offset + CONTRA_ORDER_ID_OFFSET, contraOrderId);
+        buffer.putInt(offset + QUANTITY_OFFSET, quantity);
+        buffer.putInt(offset + LOT_SIZE_OFFSET, order.getLotSize());
+        buffer.putInt(offset + LENGTH_OFFSET, length);
+        committedPosition = position(segmentIndex, writePosition);
+    }
+
+    /**
+     * Reserves space for a record, rolling to a new segment when the current one is full.
+     */
+    private int claim(int length) {
+        int alignedLength = align(length);
+        if (writePosition + alignedLength > segmentSize) {
+            if (HEADER_SIZE + alignedLength > segmentSize) {
+                throw new JournalException("Journal record of " + length + " bytes exceeds segment size for " + RIC);
+            }
+            if (writePosition + 4 <= segmentSize) {
+                segment.putInt(writePosition, END_OF_SEGMENT);
+            }
+            sealedSegments.offer(segment);
+            openSegment(segmentIndex + 1, true);
+        }
+        int offset = writePosition;
+        writePosition += alignedLength;
+        return offset;
+    }
+
+    /**
+     * Segment index in the high int and byte offset in the low int of the end of the last
+     * committed record. Records before it are complete and may be read by another thread.
+     */
+    public long getCommittedPosition() {
+        return committedPosition;
+    }
+
+    @Override
+    public long replay(JournalRecordHandler handler, long afterSequence) {
+        JournalRecord record = new JournalRecord();
+        long count = 0;
+        List<Integer> segments = listSegments(directory, RIC);
+        for (int i = 0; i < segments.size(); i++) {
+            // a segment whose successor starts at or before afterSequence holds nothing to replay
+            if (i + 1 < segments.size() && readBaseSequence(segments.get(i + 1)) <= afterSequence) {
+                continue;
+            }
+            MappedByteBuffer buffer = mapForRead(segments.get(i));
+            try {
+                int position = HEADER_SIZE;
+                while (position + 8 <= buffer.limit()) {
+                    int length = buffer.getInt(position + LENGTH_OFFSET);
+                    if (length == 0) {
+                        return count;
+                    }
+                    if (length == END_OF_SEGMENT) {
+                        break;
+                    }
+                    if (buffer.getLong(position + SEQUENCE_OFFSET) > afterSequence) {
+                        record.wrap(buffer, position);
+                        handler.onRecord(record);
+                        count++;
+                    }
+                    position += align(length);
+                }
+            } finally {
+                if (buffer != segment) {
+                    unmap(buffer);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The live segment when index is the one being written, a new read-only mapping otherwise.
+     */
+    MappedByteBuffer mapForRead(int index) {
+        MappedByteBuffer buffer = index == segmentIndex ? segment
+                : map(segmentFile(directory, RIC, index), FileChannel.MapMode.READ_ONLY, segmentSize);
+        checkHeader(buffer, RIC);
+        return buffer;
+    }
+
+    long readBaseSequence(int index) {
+        MappedByteBuffer buffer = map(segmentFile(directory, RIC, index), FileChannel.MapMode.READ_ONLY, HEADER_SIZE);
+        try {
+            return buffer.getLong(HEADER_BASE_SEQUENCE_OFFSET);
+        } finally {
+            unmap(buffer);
+        }
+    }
+
+    List<Integer> listSegments() {
+        return listSegments(directory, RIC);
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Forces and unmaps the segments filled since the last flush, then forces the live one if it
+     * has new records. Synchronized with close(), the only other caller that unmaps.
+     */
+    @Override
+    public synchronized void flush() {
+        long committed = committedPosition;
+        releaseSealedSegments();
+        if (committed != flushedPosition) {
+            segment.force();
+            flushedPosition = committed;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        long committed = committedPosition;
+        releaseSealedSegments();
+        segment.force();
+        flushedPosition = committed;
+    }
+
+    private void releaseSealedSegments() {
+        MappedByteBuffer sealed;
+        while ((sealed = sealedSegments.poll()) != null) {
+            sealed.force();
+            unmap(sealed);
+        }
+    }
+
+    static long position(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    private void seekToEnd() {
+        sequence = segment.getLong(HEADER_BASE_SEQUENCE_OFFSET);
+        int position = HEADER_SIZE;
+        while (position + 8 <= segmentSize) {
+            int length = segment.getInt(position + LENGTH_OFFSET);
+            if (length == 0) {
+                break;
+            }
+            if (length == END_OF_SEGMENT) {
+                position = segmentSize;
+                break;
+            }
+            sequence = segment.getLong(position + SEQUENCE_OFFSET);
+            position += align(length);
+        }
+        writePosition = position;
+        if (position + 8 > segmentSize) {
+            openSegment(segmentIndex + 1, true);
+        }
+    }
+
+    private void openSegment(int index, boolean create) {
+        MappedByteBuffer buffer = map(segmentFile(directory, RIC, index), FileChannel.MapMode.READ_WRITE, segmentSize);
+        if (create) {
+            buffer.putInt(HEADER_VERSION_OFFSET, VERSION);
+            buffer.putLong(HEADER_TICK_SIZE_OFFSET, tickSize);
+            buffer.putInt(HEADER_SEGMENT_INDEX_OFFSET, index);
+            buffer.putLong(HEADER_BASE_SEQUENCE_OFFSET, sequence);
+            buffer.putInt(HEADER_MAGIC_OFFSET, MAGIC);
+        } else {
+            checkHeader(buffer, RIC);
+        }
+        segmentIndex = index;
+        writePosition = HEADER_SIZE;
+        segment = buffer;
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer, String RIC) {
+        if (buffer.getInt(HEADER_MAGIC_OFFSET) != MAGIC || buffer.getInt(HEADER_VERSION_OFFSET) != VERSION) {
+            throw new JournalException("Not a version " + VERSION + " journal segment for " + RIC);
+        }
+    }
+
+    static MappedByteBuffer map(File file, FileChannel.MapMode mode, int size) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw")) {
+            long length = mode == FileChannel.MapMode.READ_ONLY ? Math.min(size, randomAccessFile.length()) : size;
+            if (mode != FileChannel.MapMode.READ_ONLY && randomAccessFile.length() < size) {
+                randomAccessFile.setLength(size);
+            }
+            return randomAccessFile.getChannel().map(mode, 0, length);
+        } catch (IOException exception) {
+            throw new JournalException("Cannot map journal segment " + file, exception);
+        }
+    }
+
+    /**
+     * Releases a mapping straight away instead of when the buffer is garbage collected. The buffer
+     * must not be touched afterwards. Does nothing where the JDK offers no way to do it.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        Unmapper.unmap(buffer);
+    }
+
+    /**
+     * Unsafe.invokeCleaner from Java 9, the buffer's own cleaner before that.
+     */
+    private static final class Unmapper {
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+        private static volatile boolean unsupported;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException exception) {
+                // Java 8, falls back to the cleaner
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void unmap(MappedByteBuffer buffer) {
+            if (unsupported) {
+                return;
+            }
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                    return;
+                }
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException exception) {
+                // left to the garbage collector from now on
+                unsupported = true;
+            }
+        }
+    }
+
+    static File segmentFile(File directory, String RIC, int index) {
+        return new File(directory, String.format("%s-%06d%s", RIC, index, SUFFIX));
+    }
+
+    static List<Integer> listSegments(File directory, String RIC) {
+        List<Integer> segments = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (RIC.equals(parseRic(name))) {
+                    segments.add(parseSegmentIndex(name));
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static String parseRic(String fileName) {
+        int separator = fileName.lastIndexOf('-');
+        if (!fileName.endsWith(SUFFIX) || separator <= 0) {
+            return null;
+        }
+        for (int i = separator + 1; i < fileName.length() - SUFFIX.length(); i++) {
+            if (!Character.isDigit(fileName.charAt(i))) {
+                return null;
+            }
+        }
+        return fileName.substring(0, separator);
+    }
+
+    private static int parseSegmentIndex(String fileName) {
+        return Integer.parseInt(fileName.substring(fileName.lastIndexOf('-') + 1, fileName.length() - SUFFIX.length()));
+    }
+
+    static int align(int length) {
+        return (length + 7) & ~7;
+    }
+}
@@ -0,0 +1,43 @@
+package com.trade.engine.journal;
+
+import com.trade.engine.order.BaseOrder;
+
+/**
+ * Append-only log of the mutations applied to one RIC's book. Appends are made by the thread
+ * holding the book lock, in the order the book saw them.
+ */
+public interface OrderJournal {
+
+    void appendSubmit(BaseOrder order);
+
+    void appendCancel(BaseOrder order);
+
+    /**
+     * @param fillPrice price in fixed-point units of 1 / Price.SCALE
+     */
+    void appendFill(BaseOrder order, BaseOrder contraOrder, long fillPrice, int quantity);
+
+    /**
+     * Records an amended order's new price, quantity and order time.
+     */
+    void appendModify(BaseOrder order);
+
+    /**
+     * Passes every committed record after the given sequence to the handler in append order.
+     *
+     * @return number of records replayed
+     */
+    long replay(JournalRecordHandler handler, long afterSequence);
+
+    /**
+     * Sequence number of the last record appended or recovered.
+     */
+    long getSequence();
+
+    /**
+     * Forces appended records to storage if any were written since the last flush.
+     */
+    void flush();
+
+    void close();
+}
@@ -0,0 +1,69 @@
+package com.trade.engine.log;
+
+/**
+ * Preallocated log ring buffer slot. Arguments are kept raw and only formatted by the writer thread.
+ */
+class LogEvent {
+    static final int MAX_ARGS = 3;
+
+    long sequence;
+    LogLevel level;
+    String loggerName;
+    String threadName;
+    long timeMillis;
+    String template;
+    int argCount;
+    final Object[] objectArgs = new Object[MAX_ARGS];
+    final long[] longArgs = new long[MAX_ARGS];
+    final boolean[] isLongArg = new boolean[MAX_ARGS];
+    Throwable throwable;
+
+    void start(LogLevel level, String loggerName, String template) {
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.timeMillis = System.currentTimeMillis();
+        this.template = template;
+        this.argCount = 0;
+        this.throwable = null;
+    }
+
+    void arg(Object arg) {
+        if (argCount < MAX_ARGS) {
+            objectArgs[argCount] = arg;
+            isLongArg[argCount++] = false;
+        }
+    }
+
+    void arg(long arg) {
+        if (argCount < MAX_ARGS) {
+            longArgs[argCount] = arg;
+            isLongArg[argCount++] = true;
+        }
+    }
+
+    void appendMessage(StringBuilder out) {
+        int arg = 0;
+        int from = 0;
+        int placeholder;
+        while (arg < argCount && (placeholder = template.indexOf("{}", from)) >= 0) {
+            out.append(template, from, placeholder);
+            if (isLongArg[arg]) {
+                out.append(longArgs[arg]);
+            } else {
+                out.append(objectArgs[arg]);
+            }
+            arg++;
+            from = placeholder + 2;
+        }
+        out.append(template, from, template.length());
+    }
+
+    void clear() {
+        for (int i = 0; i < MAX_ARGS; i++) {
+            objectArgs[i] = null;
+        }
+        template = null;
+        throwable = null;
+    }
+}
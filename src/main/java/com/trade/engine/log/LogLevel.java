@@ -0,0 +1,5 @@
+package com.trade.engine.log;
+
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
@@ -0,0 +1,69 @@
+package com.trade.engine.log;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Entry point of the engine's asynchronous logging. Configured through system properties:
+ * tradeengine.log.level (default INFO), tradeengine.log.file (default stdout) and
+ * tradeengine.log.bufferSize (default 65536, a power of 2).
+ */
+public class LogManager {
+    private static final LogManager INSTANCE = new LogManager();
+
+    private final ConcurrentMap<String, Logger> loggers = new ConcurrentHashMap<>();
+    private final LogWriter writer;
+    private volatile LogLevel level;
+
+    private LogManager() {
+        level = LogLevel.valueOf(System.getProperty("tradeengine.log.level", LogLevel.INFO.name()));
+        int bufferSize = Integer.getInteger("tradeengine.log.bufferSize", 1 << 16);
+        writer = new LogWriter(bufferSize, openOutput(System.getProperty("tradeengine.log.file")));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writer.flush(1000), "LogWriter-flush"));
+    }
+
+    private static PrintStream openOutput(String file) {
+        if (file == null || file.isEmpty()) {
+            return System.out;
+        }
+        try {
+            return new PrintStream(new FileOutputStream(file, true), false);
+        } catch (FileNotFoundException ex) {
+            System.err.println("can not open log file " + file + ", logging to stdout : " + ex.getMessage());
+            return System.out;
+        }
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return INSTANCE.loggers.computeIfAbsent(type.getSimpleName(), name -> new Logger(name, INSTANCE));
+    }
+
+    public static void setLevel(LogLevel level) {
+        INSTANCE.level = level;
+    }
+
+    /**
+     * Blocks until everything logged so far has been written, up to timeoutMillis.
+     */
+    public static boolean flush(long timeoutMillis) {
+        return INSTANCE.writer.flush(timeoutMillis);
+    }
+
+    /**
+     * Events lost because the buffer was full.
+     */
+    public static long getDroppedEvents() {
+        return INSTANCE.writer.getDroppedEvents();
+    }
+
+    LogLevel getLevel() {
+        return level;
+    }
+
+    LogWriter getWriter() {
+        return writer;
+    }
+}
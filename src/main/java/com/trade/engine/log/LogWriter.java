@@ -0,0 +1,107 @@
+package com.trade.engine.log;
+
+import com.trade.engine.concurrent.ParkingWaitStrategy;
+import com.trade.engine.concurrent.RingBuffer;
+import com.trade.engine.concurrent.WaitStrategy;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread draining log events from a ring buffer to a PrintStream. Logging threads only
+ * claim a slot and copy references into it; formatting and I/O happen here. When the buffer is
+ * full the event is dropped and counted rather than blocking the caller.
+ */
+class LogWriter implements Runnable {
+    private final RingBuffer<LogEvent> ringBuffer;
+    private final WaitStrategy waitStrategy = new ParkingWaitStrategy();
+    private final PrintStream out;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final StringBuilder line = new StringBuilder(256);
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private final Date time = new Date();
+    private final Thread writerThread;
+
+    LogWriter(int bufferSize, PrintStream out) {
+        this.ringBuffer = new RingBuffer<>(bufferSize, LogEvent::new);
+        this.out = out;
+        this.writerThread = new Thread(this, "LogWriter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    LogEvent claim() {
+        long sequence = ringBuffer.tryNext(1);
+        if (sequence < 0) {
+            droppedEvents.incrementAndGet();
+            return null;
+        }
+        LogEvent event = ringBuffer.get(sequence);
+        event.sequence = sequence;
+        return event;
+    }
+
+    void publish(LogEvent event) {
+        ringBuffer.publish(event.sequence);
+        waitStrategy.signal();
+    }
+
+    long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Waits until every event published so far has been written, or the timeout expires.
+     */
+    boolean flush(long timeoutMillis) {
+        long target = ringBuffer.getCursor();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (ringBuffer.getConsumerSequence() < target) {
+            if (System.currentTimeMillis() > deadline || !writerThread.isAlive()) {
+                return false;
+            }
+            waitStrategy.signal();
+            LockSupport.parkNanos(100_000L);
+        }
+        out.flush();
+        return true;
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = ringBuffer.getConsumerSequence() + 1;
+        int idleCount = 0;
+        while (true) {
+            long available = ringBuffer.getHighestPublished(nextSequence);
+            if (available < nextSequence) {
+                idleCount = waitStrategy.idle(idleCount, ringBuffer, nextSequence);
+                continue;
+            }
+            idleCount = 0;
+            for (long sequence = nextSequence; sequence <= available; sequence++) {
+                LogEvent event = ringBuffer.get(sequence);
+                write(event);
+                event.clear();
+            }
+            ringBuffer.release(available);
+            nextSequence = available + 1;
+            out.flush();
+        }
+    }
+
+    private void write(LogEvent event) {
+        line.setLength(0);
+        time.setTime(event.timeMillis);
+        line.append(timeFormat.format(time)).append(' ').append(event.level)
+                .append(" [").append(event.threadName).append("] ")
+                .append(event.loggerName).append(" - ");
+        event.appendMessage(line);
+        out.println(line);
+        if (event.throwable != null) {
+            event.throwable.printStackTrace(out);
+        }
+    }
+}
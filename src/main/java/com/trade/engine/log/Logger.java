@@ -0,0 +1,192 @@
+package com.trade.engine.log;
+
+/**
+ * Level-filtered logger whose messages are "{}" templates. A disabled level costs one comparison;
+ * an enabled one copies the template and arguments into a ring buffer slot, and the message is
+ * only built by the background writer. Primitive long arguments are not boxed.
+ */
+public class Logger {
+    private final String name;
+    private final LogManager logManager;
+
+    Logger(String name, LogManager logManager) {
+        this.name = name;
+        this.logManager = logManager;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= logManager.getLevel().ordinal() && level != LogLevel.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String template) {
+        log(LogLevel.DEBUG, template);
+    }
+
+    public void debug(String template, Object arg) {
+        log(LogLevel.DEBUG, template, arg);
+    }
+
+    public void debug(String template, Object arg1, long arg2) {
+        log(LogLevel.DEBUG, template, arg1, arg2);
+    }
+
+    public void info(String template) {
+        log(LogLevel.INFO, template);
+    }
+
+    public void info(String template, Object arg) {
+        log(LogLevel.INFO, template, arg);
+    }
+
+    public void info(String template, long arg) {
+        log(LogLevel.INFO, template, arg);
+    }
+
+    public void info(String template, Object arg1, Object arg2) {
+        log(LogLevel.INFO, template, arg1, arg2);
+    }
+
+    public void info(String template, Object arg1, long arg2) {
+        log(LogLevel.INFO, template, arg1, arg2);
+    }
+
+    public void info(String template, long arg1, Object arg2) {
+        log(LogLevel.INFO, template, arg1, arg2);
+    }
+
+    public void info(String template, Object arg1, Object arg2, Object arg3) {
+        LogEvent event = start(LogLevel.INFO, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            event.arg(arg3);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void info(String template, Object arg1, long arg2, Object arg3) {
+        LogEvent event = start(LogLevel.INFO, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            event.arg(arg3);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void info(String template, Object arg1, long arg2, long arg3) {
+        LogEvent event = start(LogLevel.INFO, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            event.arg(arg3);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void warn(String template, Object arg) {
+        log(LogLevel.WARN, template, arg);
+    }
+
+    public void warn(String template, long arg) {
+        log(LogLevel.WARN, template, arg);
+    }
+
+    public void warn(String template, Object arg1, Object arg2) {
+        log(LogLevel.WARN, template, arg1, arg2);
+    }
+
+    public void warn(String template, Object arg1, long arg2) {
+        log(LogLevel.WARN, template, arg1, arg2);
+    }
+
+    public void warn(String template, long arg1, Object arg2) {
+        log(LogLevel.WARN, template, arg1, arg2);
+    }
+
+    public void error(String template, Throwable throwable) {
+        LogEvent event = start(LogLevel.ERROR, template);
+        if (event != null) {
+            event.throwable = throwable;
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void error(String template, Object arg, Throwable throwable) {
+        LogEvent event = start(LogLevel.ERROR, template);
+        if (event != null) {
+            event.arg(arg);
+            event.throwable = throwable;
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template, Object arg) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            event.arg(arg);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template, long arg) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            event.arg(arg);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template, Object arg1, Object arg2) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template, Object arg1, long arg2) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    public void log(LogLevel level, String template, long arg1, Object arg2) {
+        LogEvent event = start(level, template);
+        if (event != null) {
+            event.arg(arg1);
+            event.arg(arg2);
+            logManager.getWriter().publish(event);
+        }
+    }
+
+    private LogEvent start(LogLevel level, String template) {
+        if (!isEnabled(level)) {
+            return null;
+        }
+        LogEvent event = logManager.getWriter().claim();
+        if (event != null) {
+            event.start(level, name, template);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,63 @@
+package com.trade.engine.marketdata;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.Price;
+
+/**
+ * New aggregate quantity and order count at one price level. A quantity of 0 removes the level.
+ */
+public class DepthUpdate {
+    private String RIC;
+    private long sequence;
+    private BaseOrder.OrderType side;
+    private long price;
+    private long quantity;
+    private int orderCount;
+
+    void set(String RIC, BaseOrder.OrderType side, long price) {
+        this.RIC = RIC;
+        this.side = side;
+        this.price = price;
+    }
+
+    void update(long sequence, long quantity, int orderCount) {
+        this.sequence = sequence;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Per-RIC market data sequence of the last change folded into this update.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public BaseOrder.OrderType getSide() {
+        return side;
+    }
+
+    /**
+     * Level price in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + RIC + "," + side + "," + Price.toDouble(price) + "," + quantity + "," + orderCount + "]";
+    }
+}
@@ -0,0 +1,158 @@
+package com.trade.engine.marketdata;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.orderbook.BookChangeListener;
+import com.trade.engine.orderbook.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Market data of one RIC, handed from the matching thread to the dispatcher thread without
+ * locking. The matching thread writes into the current of two change sets, overwriting one slot
+ * per changed price level and one ticker, and the dispatcher thread swaps in the other set and
+ * delivers whatever the old one holds, so a slow dispatcher sees fewer, conflated updates and
+ * never holds up matching. Each write makes its set's version odd and checks the set is still
+ * current; the dispatcher swaps first and waits for an odd version to turn even, which is at most
+ * one level update. Trades go on the dispatcher's bounded tape.
+ */
+public class MarketDataChannel implements BookChangeListener {
+    private final String RIC;
+    private final MarketDataDispatcher dispatcher;
+    private final AtomicReference<ChangeSet> current;
+    private volatile boolean dirty;
+    // only touched by the thread matching the book, under the order processor's lock
+    private final TopOfBook topOfBook;
+    private long sequence;
+    // only touched by the dispatcher thread
+    private ChangeSet spare;
+
+    MarketDataChannel(String RIC, MarketDataDispatcher dispatcher) {
+        this.RIC = RIC;
+        this.dispatcher = dispatcher;
+        this.topOfBook = new TopOfBook(RIC);
+        this.current = new AtomicReference<>(new ChangeSet(RIC));
+        this.spare = new ChangeSet(RIC);
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    @Override
+    public void onLevelChange(BaseOrder.OrderType side, long price, long quantity, int orderCount) {
+        ChangeSet changes = beginWrite();
+        changes.levelChanged(RIC, side, price, ++sequence, quantity, orderCount);
+        endWrite(changes);
+    }
+
+    @Override
+    public void onBestLevelChange(BaseOrder.OrderType side, long price, long quantity) {
+        if (side == BaseOrder.OrderType.BUY) {
+            topOfBook.setBid(++sequence, price, quantity);
+        } else {
+            topOfBook.setAsk(++sequence, price, quantity);
+        }
+        ChangeSet changes = beginWrite();
+        changes.topOfBook.copyFrom(topOfBook);
+        changes.topOfBookChanged = true;
+        endWrite(changes);
+    }
+
+    /**
+     * Puts a fill on the tape, called by the matching thread.
+     */
+    public void onTrade(BaseOrder aggressor, BaseOrder restingOrder, long price, int quantity) {
+        dispatcher.publishTrade(RIC, ++sequence, aggressor, restingOrder, price, quantity);
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Hands the changes made since the last call to the dispatcher's listeners, called by the
+     * dispatcher thread.
+     */
+    void deliver() {
+        dirty = false;
+        ChangeSet changes = current.getAndSet(spare);
+        // a write that found the set current before the swap finishes first
+        while ((changes.version.get() & 1) != 0) {
+            Thread.yield();
+        }
+        for (int i = 0, count = changes.levels.size(); i < count; i++) {
+            dispatcher.deliverDepthUpdate(changes.levels.get(i));
+        }
+        if (changes.topOfBookChanged) {
+            dispatcher.deliverTopOfBook(changes.topOfBook);
+        }
+        changes.clear();
+        spare = changes;
+    }
+
+    private ChangeSet beginWrite() {
+        while (true) {
+            ChangeSet changes = current.get();
+            long version = changes.version.get();
+            changes.version.set(version + 1);
+            if (current.get() == changes) {
+                return changes;
+            }
+            // swapped out meanwhile, the dispatcher may be reading it
+            changes.version.lazySet(version + 2);
+        }
+    }
+
+    private void endWrite(ChangeSet changes) {
+        changes.version.lazySet(changes.version.get() + 1);
+        if (!dirty) {
+            dirty = true;
+            dispatcher.signal();
+        }
+    }
+
+    /**
+     * Level and ticker changes between two deliveries, one update per changed level in the order
+     * the levels first changed.
+     */
+    private static final class ChangeSet {
+        private final AtomicLong version = new AtomicLong();
+        private final LongObjectHashMap<DepthUpdate> bidLevels = new LongObjectHashMap<>();
+        private final LongObjectHashMap<DepthUpdate> askLevels = new LongObjectHashMap<>();
+        private final List<DepthUpdate> levels = new ArrayList<>();
+        private final List<DepthUpdate> freeUpdates = new ArrayList<>();
+        private final TopOfBook topOfBook;
+        private boolean topOfBookChanged;
+
+        ChangeSet(String RIC) {
+            this.topOfBook = new TopOfBook(RIC);
+        }
+
+        void levelChanged(String RIC, BaseOrder.OrderType side, long price, long sequence, long quantity,
+                          int orderCount) {
+            LongObjectHashMap<DepthUpdate> levelByPrice = side == BaseOrder.OrderType.BUY ? bidLevels : askLevels;
+            DepthUpdate update = levelByPrice.get(price);
+            if (update == null) {
+                int free = freeUpdates.size();
+                update = free == 0 ? new DepthUpdate() : freeUpdates.remove(free - 1);
+                update.set(RIC, side, price);
+                levelByPrice.put(price, update);
+                levels.add(update);
+            }
+            update.update(sequence, quantity, orderCount);
+        }
+
+        void clear() {
+            for (int i = 0, count = levels.size(); i < count; i++) {
+                DepthUpdate update = levels.get(i);
+                (update.getSide() == BaseOrder.OrderType.BUY ? bidLevels : askLevels).remove(update.getPrice());
+                freeUpdates.add(update);
+            }
+            levels.clear();
+            topOfBookChanged = false;
+        }
+    }
+}
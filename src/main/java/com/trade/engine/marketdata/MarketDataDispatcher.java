@@ -0,0 +1,174 @@
+package com.trade.engine.marketdata;
+
+import com.trade.engine.concurrent.RingBuffer;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.order.BaseOrder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers market data of every RIC to the registered listeners on one background thread. Each
+ * pass delivers the trades on the tape and then the conflated depth and ticker of every channel
+ * that changed. A positive conflation interval makes the thread wait between passes, so bursts
+ * of book changes reach listeners as one update per level. Trades that do not fit on the tape
+ * are dropped and counted rather than stalling the matcher.
+ */
+public class MarketDataDispatcher implements Runnable {
+    private static final Logger LOG = LogManager.getLogger(MarketDataDispatcher.class);
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+    private final RingBuffer<Trade> tape;
+    private final long conflationNanos;
+    private final Map<String, MarketDataChannel> channelByRIC = new ConcurrentHashMap<>();
+    private final List<MarketDataListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private final AtomicLong droppedTrades = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread dispatcherThread;
+
+    /**
+     * @param tapeSize trades held for the dispatcher thread, must be a power of 2
+     * @param conflationMicros minimum time between delivery passes, 0 to deliver as soon as possible
+     */
+    public MarketDataDispatcher(int tapeSize, long conflationMicros) {
+        this.tape = new RingBuffer<>(tapeSize, Trade::new);
+        this.conflationNanos = TimeUnit.MICROSECONDS.toNanos(conflationMicros);
+    }
+
+    public void addListener(MarketDataListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean removeListener(MarketDataListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Channel the RIC's order processor publishes into, created on first use.
+     */
+    public MarketDataChannel addChannel(String RIC) {
+        return channelByRIC.computeIfAbsent(RIC, s -> new MarketDataChannel(RIC, this));
+    }
+
+    public void removeChannel(String RIC) {
+        channelByRIC.remove(RIC);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this, "MarketDataDispatcher");
+        thread.setDaemon(true);
+        dispatcherThread = thread;
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        Thread thread = dispatcherThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Trades dropped because the tape was full.
+     */
+    public long getDroppedTrades() {
+        return droppedTrades.get();
+    }
+
+    void publishTrade(String RIC, long sequence, BaseOrder aggressor, BaseOrder restingOrder, long price,
+                      int quantity) {
+        long slot = tape.tryNext(1);
+        if (slot < 0) {
+            droppedTrades.incrementAndGet();
+            return;
+        }
+        tape.get(slot).set(RIC, sequence, aggressor, restingOrder, price, quantity);
+        tape.publish(slot);
+        signal();
+    }
+
+    void signal() {
+        if (!signalled.get() && signalled.compareAndSet(false, true)) {
+            Thread thread = dispatcherThread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    void deliverDepthUpdate(DepthUpdate update) {
+        for (MarketDataListener listener : listeners) {
+            try {
+                listener.onDepthUpdate(update);
+            } catch (RuntimeException ex) {
+                LOG.error("market data listener failed for :{}", listener, ex);
+            }
+        }
+    }
+
+    void deliverTopOfBook(TopOfBook topOfBook) {
+        for (MarketDataListener listener : listeners) {
+            try {
+                listener.onTopOfBook(topOfBook);
+            } catch (RuntimeException ex) {
+                LOG.error("market data listener failed for :{}", listener, ex);
+            }
+        }
+    }
+
+    private long deliverTrades(long nextSequence) {
+        long available = tape.getHighestPublished(nextSequence);
+        if (available < nextSequence) {
+            return nextSequence;
+        }
+        for (long sequence = nextSequence; sequence <= available; sequence++) {
+            Trade trade = tape.get(sequence);
+            for (MarketDataListener listener : listeners) {
+                try {
+                    listener.onTrade(trade);
+                } catch (RuntimeException ex) {
+                    LOG.error("market data listener failed for :{}", listener, ex);
+                }
+            }
+        }
+        tape.release(available);
+        return available + 1;
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = tape.getConsumerSequence() + 1;
+        while (running) {
+            if (!signalled.getAndSet(false)) {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                continue;
+            }
+            nextSequence = deliverTrades(nextSequence);
+            for (MarketDataChannel channel : channelByRIC.values()) {
+                if (channel.isDirty()) {
+                    channel.deliver();
+                }
+            }
+            if (conflationNanos > 0) {
+                // signals do not cut the interval short, changes made meanwhile are conflated
+                long deadline = System.nanoTime() + conflationNanos;
+                for (long remaining = conflationNanos; remaining > 0 && running;
+                     remaining = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+    }
+}
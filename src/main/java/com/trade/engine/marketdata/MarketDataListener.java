@@ -0,0 +1,19 @@
+package com.trade.engine.marketdata;
+
+/**
+ * Receives market data on the market data dispatcher thread. Depth updates and the ticker are
+ * conflated, so a slow listener sees the latest state of each price level rather than every
+ * change; trades are delivered one by one. Event objects are reused and only valid for the
+ * duration of the call.
+ */
+public interface MarketDataListener {
+
+    default void onDepthUpdate(DepthUpdate update) {
+    }
+
+    default void onTopOfBook(TopOfBook topOfBook) {
+    }
+
+    default void onTrade(Trade trade) {
+    }
+}
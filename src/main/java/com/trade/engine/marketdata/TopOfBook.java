@@ -0,0 +1,79 @@
+package com.trade.engine.marketdata;
+
+import com.trade.engine.order.Price;
+
+/**
+ * Best bid and ask of a RIC. Prices and quantities are 0 for an empty side.
+ */
+public class TopOfBook {
+    private String RIC;
+    private long sequence;
+    private long bidPrice;
+    private long bidQuantity;
+    private long askPrice;
+    private long askQuantity;
+
+    TopOfBook(String RIC) {
+        this.RIC = RIC;
+    }
+
+    void setBid(long sequence, long bidPrice, long bidQuantity) {
+        this.sequence = sequence;
+        this.bidPrice = bidPrice;
+        this.bidQuantity = bidQuantity;
+    }
+
+    void setAsk(long sequence, long askPrice, long askQuantity) {
+        this.sequence = sequence;
+        this.askPrice = askPrice;
+        this.askQuantity = askQuantity;
+    }
+
+    void copyFrom(TopOfBook topOfBook) {
+        this.RIC = topOfBook.RIC;
+        this.sequence = topOfBook.sequence;
+        this.bidPrice = topOfBook.bidPrice;
+        this.bidQuantity = topOfBook.bidQuantity;
+        this.askPrice = topOfBook.askPrice;
+        this.askQuantity = topOfBook.askQuantity;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Per-RIC market data sequence of the last change folded into this ticker.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Best bid in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getBidPrice() {
+        return bidPrice;
+    }
+
+    public long getBidQuantity() {
+        return bidQuantity;
+    }
+
+    /**
+     * Best ask in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getAskPrice() {
+        return askPrice;
+    }
+
+    public long getAskQuantity() {
+        return askQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + RIC + "," + bidQuantity + "@" + Price.toDouble(bidPrice) + "," + askQuantity + "@"
+                + Price.toDouble(askPrice) + "]";
+    }
+}
@@ -0,0 +1,72 @@
+package com.trade.engine.marketdata;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.Price;
+
+/**
+ * One print on the trade tape: a fill between an aggressor and a resting order.
+ */
+public class Trade {
+    private String RIC;
+    private long sequence;
+    private long price;
+    private int quantity;
+    private BaseOrder.OrderType aggressorSide;
+    private long buyOrderId;
+    private long sellOrderId;
+
+    void set(String RIC, long sequence, BaseOrder aggressor, BaseOrder restingOrder, long price, int quantity) {
+        this.RIC = RIC;
+        this.sequence = sequence;
+        this.price = price;
+        this.quantity = quantity;
+        this.aggressorSide = aggressor.getType();
+        if (aggressorSide == BaseOrder.OrderType.BUY) {
+            this.buyOrderId = aggressor.getId();
+            this.sellOrderId = restingOrder.getId();
+        } else {
+            this.buyOrderId = restingOrder.getId();
+            this.sellOrderId = aggressor.getId();
+        }
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Per-RIC market data sequence, shared with the depth updates and ticker.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Trade price in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public BaseOrder.OrderType getAggressorSide() {
+        return aggressorSide;
+    }
+
+    public long getBuyOrderId() {
+        return buyOrderId;
+    }
+
+    public long getSellOrderId() {
+        return sellOrderId;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + RIC + "," + quantity + "@" + Price.toDouble(price) + "," + aggressorSide + "," + buyOrderId
+                + "," + sellOrderId + "]";
+    }
+}
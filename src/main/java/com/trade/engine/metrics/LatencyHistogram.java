@@ -0,0 +1,133 @@
+package com.trade.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear latency histogram in the style of HdrHistogram. Each power of two is
+ * split into 32 linear buckets, so a value is reported within about 3% of what was recorded.
+ * Recording is one index computation and one atomic increment, safe from any number of threads;
+ * percentiles are computed by the reader. Values above MAX_VALUE are clamped.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    /** largest value tracked, about 36 minutes in nanoseconds */
+    public static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+        counts.getAndIncrement(indexOf(clamped));
+        long max = maxValue.get();
+        while (clamped > max && !maxValue.compareAndSet(max, clamped)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Values below 32 get a bucket each; above that a value in [2^k, 2^(k+1)) lands in one of
+     * 32 buckets of width 2^(k-5).
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Largest value that falls in the bucket at index.
+     */
+    private static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Value at or below which the given percentage of recorded values fall, 0 when empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        return summarize(new double[] {percentile})[0];
+    }
+
+    /**
+     * Count, mean, common percentiles up to p99.99 and max, from one pass over the buckets.
+     */
+    public LatencySummary getSummary() {
+        long[] counts = snapshot();
+        long count = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            sum += (double) counts[i] * highestValueAt(i);
+        }
+        long[] percentiles = percentiles(counts, count, new double[] {50, 90, 99, 99.9, 99.99});
+        return new LatencySummary(count, count == 0 ? 0 : sum / count, percentiles[0], percentiles[1],
+                percentiles[2], percentiles[3], percentiles[4], getMax());
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        maxValue.set(0);
+    }
+
+    private long[] summarize(double[] wanted) {
+        long[] counts = snapshot();
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        return percentiles(counts, count, wanted);
+    }
+
+    private long[] percentiles(long[] counts, long count, double[] wanted) {
+        long[] values = new long[wanted.length];
+        if (count == 0) {
+            return values;
+        }
+        long max = getMax();
+        for (int p = 0; p < wanted.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(wanted[p] / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    values[p] = Math.min(highestValueAt(i), max);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    private long[] snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+}
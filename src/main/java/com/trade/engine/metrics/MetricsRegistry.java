@@ -0,0 +1,129 @@
+package com.trade.engine.metrics;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.ExecutionReportListener;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Metrics of every registered RIC, optionally published as MXBeans named
+ * com.trade.engine:type=RicMetrics,engine=&lt;n&gt;,ric=&lt;RIC&gt;, n numbering the registries of
+ * the JVM so engines running side by side keep their own beans. Registered with the report
+ * dispatcher ahead of the other listeners, it timestamps each report as it is delivered.
+ */
+public class MetricsRegistry implements ExecutionReportListener {
+    private static final Logger LOG = LogManager.getLogger(MetricsRegistry.class);
+    private static final AtomicInteger ENGINE_SEQUENCE = new AtomicInteger();
+    private final Map<String, RicMetrics> metricsByRIC = new ConcurrentHashMap<>();
+    // by instrument id, so reports of registered instruments are not looked up by RIC
+    private volatile RicMetrics[] metricsById = new RicMetrics[16];
+    private final Map<String, Integer> instrumentIdByRIC = new ConcurrentHashMap<>();
+    private final boolean jmxEnabled;
+    private final int engineId = ENGINE_SEQUENCE.incrementAndGet();
+
+    public MetricsRegistry(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    public RicMetrics register(String RIC) {
+        return register(0, RIC);
+    }
+
+    /**
+     * @param instrumentId dense id of the RIC, 0 when its reports must be matched by RIC
+     */
+    public synchronized RicMetrics register(int instrumentId, String RIC) {
+        RicMetrics metrics = new RicMetrics(RIC);
+        metricsByRIC.put(RIC, metrics);
+        if (instrumentId > 0) {
+            RicMetrics[] grown = Arrays.copyOf(metricsById, Math.max(metricsById.length, instrumentId + 1));
+            grown[instrumentId] = metrics;
+            metricsById = grown;
+            instrumentIdByRIC.put(RIC, instrumentId);
+        }
+        if (jmxEnabled) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = objectName(RIC);
+                // a RIC registered again shows its latest metrics
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(metrics, name);
+            } catch (Exception exception) {
+                LOG.warn("could not publish metrics of {} over JMX : {}", RIC, exception.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    public synchronized void unregister(String RIC) {
+        RicMetrics metrics = metricsByRIC.remove(RIC);
+        Integer instrumentId = instrumentIdByRIC.remove(RIC);
+        if (instrumentId != null) {
+            RicMetrics[] shrunk = metricsById.clone();
+            shrunk[instrumentId] = null;
+            metricsById = shrunk;
+        }
+        if (metrics != null && jmxEnabled) {
+            try {
+                ObjectName name = objectName(RIC);
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (Exception exception) {
+                LOG.warn("could not remove metrics of {} from JMX : {}", RIC, exception.getMessage());
+            }
+        }
+    }
+
+    public void unregisterAll() {
+        metricsByRIC.keySet().forEach(this::unregister);
+    }
+
+    public RicMetrics get(String RIC) {
+        return metricsByRIC.get(RIC);
+    }
+
+    public Collection<RicMetrics> getAll() {
+        return Collections.unmodifiableCollection(metricsByRIC.values());
+    }
+
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        RicMetrics metrics = metrics(report.getInstrumentId(), report.getRIC());
+        if (metrics != null) {
+            metrics.onReportDelivered(report, System.nanoTime());
+        }
+    }
+
+    private RicMetrics metrics(int instrumentId, String RIC) {
+        RicMetrics[] current = metricsById;
+        if (instrumentId > 0 && instrumentId < current.length) {
+            RicMetrics metrics = current[instrumentId];
+            if (metrics != null && metrics.getRIC().equals(RIC)) {
+                return metrics;
+            }
+        }
+        return metricsByRIC.get(RIC);
+    }
+
+    /**
+     * Name the RIC's MXBean is registered under when JMX is enabled.
+     */
+    public ObjectName objectName(String RIC) throws Exception {
+        return new ObjectName("com.trade.engine:type=RicMetrics,engine=" + engineId + ",ric="
+                + ObjectName.quote(RIC));
+    }
+}
@@ -0,0 +1,173 @@
+package com.trade.engine.metrics;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.report.ExecutionReport;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms of one RIC. Counters and the queue and match
+ * latencies are recorded by the RIC's order processor, report latency by the report dispatcher
+ * thread; gauges are read from the book and sequencer only when asked for.
+ */
+public class RicMetrics implements RicMetricsMXBean {
+    private final String RIC;
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder cancels = new LongAdder();
+    private final LongAdder rejects = new LongAdder();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram matchLatency = new LatencyHistogram();
+    private final LatencyHistogram reportLatency = new LatencyHistogram();
+    private volatile IntSupplier restingOrders = () -> 0;
+    private volatile LongSupplier pendingCommands = () -> 0;
+    private volatile LongSupplier restarts = () -> 0;
+
+    public RicMetrics(String RIC) {
+        this.RIC = RIC;
+    }
+
+    public void setRestingOrders(IntSupplier restingOrders) {
+        this.restingOrders = restingOrders;
+    }
+
+    public void setPendingCommands(LongSupplier pendingCommands) {
+        this.pendingCommands = pendingCommands;
+    }
+
+    public void setRestarts(LongSupplier restarts) {
+        this.restarts = restarts;
+    }
+
+    /**
+     * An order reached the book. Its submit time is 0 when it did not come through the engine.
+     */
+    public void onOrderAccepted(BaseOrder order) {
+        orders.increment();
+        if (order.getSubmitTime() != 0) {
+            queueLatency.record(order.getOrderTime() - order.getSubmitTime());
+        }
+    }
+
+    /**
+     * An order started trading as aggressor in a matching pass that began at matchTime. Orders
+     * that did not come through the engine, such as recovered ones, are not timed.
+     */
+    public void onMatch(BaseOrder aggressor, long matchTime) {
+        if (aggressor.getSubmitTime() != 0) {
+            matchLatency.record(matchTime - aggressor.getOrderTime());
+        }
+    }
+
+    /**
+     * Counts a report as the processor publishes it.
+     */
+    public void onReport(ExecutionReport report) {
+        if (report.getExecutedQuantity() > 0) {
+            fills.increment();
+        }
+        if (report.getStatus() == BaseOrder.OrderStatus.CANCELLED) {
+            cancels.increment();
+        } else if (report.getStatus() == BaseOrder.OrderStatus.REJECTED) {
+            rejects.increment();
+        }
+    }
+
+    /**
+     * A report reached the listeners at deliveryTime.
+     */
+    public void onReportDelivered(ExecutionReport report, long deliveryTime) {
+        if (report.getMatchTime() != 0) {
+            reportLatency.record(deliveryTime - report.getMatchTime());
+        }
+    }
+
+    @Override
+    public String getRIC() {
+        return RIC;
+    }
+
+    @Override
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    @Override
+    public long getFills() {
+        return fills.sum();
+    }
+
+    @Override
+    public long getCancels() {
+        return cancels.sum();
+    }
+
+    @Override
+    public long getRejects() {
+        return rejects.sum();
+    }
+
+    @Override
+    public int getRestingOrders() {
+        return restingOrders.getAsInt();
+    }
+
+    @Override
+    public long getPendingCommands() {
+        return pendingCommands.getAsLong();
+    }
+
+    @Override
+    public long getRestarts() {
+        return restarts.getAsLong();
+    }
+
+    @Override
+    public LatencySummary getQueueLatency() {
+        return queueLatency.getSummary();
+    }
+
+    @Override
+    public LatencySummary getMatchLatency() {
+        return matchLatency.getSummary();
+    }
+
+    @Override
+    public LatencySummary getReportLatency() {
+        return reportLatency.getSummary();
+    }
+
+    public LatencyHistogram getQueueLatencyHistogram() {
+        return queueLatency;
+    }
+
+    public LatencyHistogram getMatchLatencyHistogram() {
+        return matchLatency;
+    }
+
+    public LatencyHistogram getReportLatencyHistogram() {
+        return reportLatency;
+    }
+
+    @Override
+    public void reset() {
+        orders.reset();
+        fills.reset();
+        cancels.reset();
+        rejects.reset();
+        queueLatency.reset();
+        matchLatency.reset();
+        reportLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return RIC + " orders=" + getOrders() + " fills=" + getFills() + " cancels=" + getCancels() + " rejects="
+                + getRejects() + " resting=" + getRestingOrders() + " pending=" + getPendingCommands()
+                + " restarts=" + getRestarts()
+                + "\n  queue  " + getQueueLatency() + "\n  match  " + getMatchLatency()
+                + "\n  report " + getReportLatency();
+    }
+}
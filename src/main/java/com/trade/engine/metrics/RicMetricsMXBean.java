@@ -0,0 +1,43 @@
+package com.trade.engine.metrics;
+
+/**
+ * JMX view of one RIC's counters, gauges and latencies. Latencies are in nanoseconds.
+ */
+public interface RicMetricsMXBean {
+
+    String getRIC();
+
+    long getOrders();
+
+    long getFills();
+
+    long getCancels();
+
+    long getRejects();
+
+    int getRestingOrders();
+
+    long getPendingCommands();
+
+    /**
+     * Times the RIC's matching was restarted after it failed.
+     */
+    long getRestarts();
+
+    /**
+     * From the engine's submit call to the book accepting the order.
+     */
+    LatencySummary getQueueLatency();
+
+    /**
+     * From the book accepting an order to the matching pass in which it traded as aggressor.
+     */
+    LatencySummary getMatchLatency();
+
+    /**
+     * From the start of the book operation that produced a report to its delivery to listeners.
+     */
+    LatencySummary getReportLatency();
+
+    void reset();
+}
@@ -1,38 +1,177 @@
 package com.trade.engine.order;
 
-import java.time.LocalDate;
-import java.util.Objects;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 
 public abstract class BaseOrder implements Comparable<BaseOrder> {
 
-    private UUID id;
-    protected double price;
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    private static final OrderStatus[] ORDER_STATUS_VALUES = OrderStatus.values();
+    private static final AtomicLongFieldUpdater<BaseOrder> AMEND_RESERVATION =
+            AtomicLongFieldUpdater.newUpdater(BaseOrder.class, "amendReservation");
+
+    private long id;
+    protected long price;
     protected volatile int quantity;
     protected volatile OrderType orderType;
     private CounterParty counterParty;
     protected String RIC;
-    protected LocalDate orderTime;
+    protected long orderTime;
     protected int lotSize = 1;
-    protected AtomicReference<OrderStatus> orderStatus;
+    protected volatile byte orderStatus;
+    protected TimeInForce timeInForce = TimeInForce.GTC;
+    protected PriceType priceType = PriceType.LIMIT;
+    private long reservedNotional;
+    private volatile long amendReservation;
+    private long submitTime;
+    private int instrumentId;
+    private long clientOrderId;
+    private long stopPrice;
 
     public BaseOrder(String RIC, int quantity, double price, int lotSize) {
-        id = UUID.randomUUID();
+        this(RIC, quantity, Price.toScaled(price), lotSize);
+    }
+
+    /**
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public BaseOrder(String RIC, int quantity, long price, int lotSize) {
+        id = ID_SEQUENCE.incrementAndGet();
+        this.RIC = RIC;
+        this.orderTime = System.nanoTime();
+        this.lotSize = lotSize;
+        orderStatus = (byte) OrderStatus.NEW.ordinal();
+        setQuantity(quantity * lotSize);
+        setScaledPrice(price);
+    }
+
+    /**
+     * Blank order for OrderPool, initialised later through reset.
+     */
+    BaseOrder() {
+    }
+
+    /**
+     * Reinitialises a pooled order as a brand new order with a fresh id.
+     */
+    void reset(String RIC, int quantity, long price, int lotSize) {
+        id = ID_SEQUENCE.incrementAndGet();
         this.RIC = RIC;
-        this.orderTime = LocalDate.now();
+        this.orderTime = System.nanoTime();
         this.lotSize = lotSize;
-        orderStatus = new AtomicReference<>(OrderStatus.NEW);
+        this.counterParty = null;
+        this.timeInForce = TimeInForce.GTC;
+        this.priceType = PriceType.LIMIT;
+        this.reservedNotional = 0;
+        this.amendReservation = 0;
+        this.submitTime = 0;
+        this.instrumentId = 0;
+        this.clientOrderId = 0;
+        this.stopPrice = 0;
+        orderStatus = (byte) OrderStatus.NEW.ordinal();
         setQuantity(quantity * lotSize);
-        setPrice(price);
+        setScaledPrice(price);
+    }
+
+    /**
+     * Rebuilds an order that was accepted by an earlier run, keeping its id. New ids are advanced
+     * past it so they never collide with recovered orders.
+     *
+     * @param quantity quantity in units, not lots
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public static BaseOrder restore(OrderType orderType, long id, String RIC, int quantity, long price,
+                                    int lotSize, long orderTime) {
+        BaseOrder order = orderType == OrderType.BUY ? new BuyOrder() : new SellOrder();
+        order.id = id;
+        order.RIC = RIC;
+        order.orderTime = orderTime;
+        order.lotSize = lotSize;
+        order.orderStatus = (byte) OrderStatus.PENDING.ordinal();
+        order.setQuantity(quantity);
+        order.setScaledPrice(price);
+        ID_SEQUENCE.accumulateAndGet(id, Math::max);
+        return order;
+    }
+
+    /**
+     * System.nanoTime() at which the engine was handed the order, 0 when not measured.
+     */
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public void setSubmitTime(long submitTime) {
+        this.submitTime = submitTime;
+    }
+
+    /**
+     * Id of the instrument the engine booked the order into, 0 until it is submitted.
+     */
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    public void setInstrumentId(int instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+
+    /**
+     * Id the submitting client gave the order, 0 when it came in through the Java API.
+     */
+    public long getClientOrderId() {
+        return clientOrderId;
+    }
+
+    public void setClientOrderId(long clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
+
+    /**
+     * Notional the pre-trade risk stage holds against the counterparty's limit for this order, in
+     * fixed-point units of 1 / Price.SCALE. 0 when the order is not tracked.
+     */
+    public long getReservedNotional() {
+        return reservedNotional;
+    }
+
+    public void setReservedNotional(long reservedNotional) {
+        this.reservedNotional = reservedNotional;
+    }
+
+    /**
+     * Notional the pre-trade risk stage holds for amends of this order the book has not reported
+     * yet, on top of getReservedNotional(). Taken by the submitting threads, given back by whichever
+     * thread learns the amend's outcome, so it is updated atomically.
+     */
+    public long getAmendReservation() {
+        return amendReservation;
+    }
+
+    public void addAmendReservation(long notional) {
+        AMEND_RESERVATION.addAndGet(this, notional);
     }
 
-    public UUID getId() {
+    /**
+     * Clears the amend reservation, returning what it held.
+     */
+    public long takeAmendReservation() {
+        return AMEND_RESERVATION.getAndSet(this, 0);
+    }
+
+    public long getId() {
         return id;
     }
 
     public double getPrice() {
+        return Price.toDouble(price);
+    }
+
+    /**
+     * Price in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getScaledPrice() {
         return price;
     }
 
@@ -52,20 +191,61 @@ public abstract class BaseOrder implements Comparable<BaseOrder> {
         return RIC;
     }
 
-    public LocalDate getOrderTime() {
+    /**
+     * System.nanoTime() at which the order was accepted, used for time priority.
+     */
+    public long getOrderTime() {
         return orderTime;
     }
 
-    public OrderStatus getOrderStatus(){return orderStatus.get();}
+    public OrderStatus getOrderStatus(){return ORDER_STATUS_VALUES[orderStatus];}
 
     public void setPrice(double price) {
         if (price <= 0) {
             throw new IllegalArgumentException("Order price must be positive");
         }
 
+        setScaledPrice(Price.toScaled(price));
+    }
+
+    public void setScaledPrice(long price) {
+        if (price <= 0) {
+            throw new IllegalArgumentException("Order price must be positive");
+        }
         this.price = price;
     }
 
+    public double getStopPrice() {
+        return Price.toDouble(stopPrice);
+    }
+
+    /**
+     * Stop price in fixed-point units of 1 / Price.SCALE, 0 when the order is not a stop order.
+     */
+    public long getScaledStopPrice() {
+        return stopPrice;
+    }
+
+    /**
+     * Makes this a stop order, held back until a trade prints at or beyond the stop price: at or
+     * above it for a buy, at or below it for a sell. A LIMIT stop then books as a stop-limit order,
+     * a MARKET stop trades as a market order. 0 clears the stop.
+     */
+    public void setStopPrice(double stopPrice) {
+        setScaledStopPrice(Price.toScaled(stopPrice));
+    }
+
+    public void setScaledStopPrice(long stopPrice) {
+        if (stopPrice < 0) {
+            throw new IllegalArgumentException("Stop price can not be negative");
+        }
+        this.stopPrice = stopPrice;
+    }
+
+    public boolean isStopOrder() {
+        return stopPrice > 0;
+    }
+
     public void setQuantity(int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Order quantity can not be <= 0 ");
@@ -81,24 +261,51 @@ public abstract class BaseOrder implements Comparable<BaseOrder> {
         this.RIC = RIC;
     }
 
-    public void setOrderTime(LocalDate orderTime) {
+    public void setOrderTime(long orderTime) {
         this.orderTime = orderTime;
     }
 
     public void setOrderStatus(OrderStatus status) {
-        this.orderStatus.set(status);
+        this.orderStatus = (byte) status.ordinal();
     }
 
     public int getLotSize(){return this.lotSize;}
 
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public void setTimeInForce(TimeInForce timeInForce) {
+        this.timeInForce = timeInForce;
+    }
+
+    public PriceType getPriceType() {
+        return priceType;
+    }
+
+    /**
+     * A MARKET order trades at any price and, like IOC, never rests; its own price is ignored.
+     */
+    public void setPriceType(PriceType priceType) {
+        this.priceType = priceType;
+    }
+
+    /**
+     * Only GTC limit orders rest in the book, every other order is matched on arrival and any
+     * remainder is cancelled.
+     */
+    public boolean isRestingOrder() {
+        return timeInForce == TimeInForce.GTC && priceType == PriceType.LIMIT;
+    }
+
     @Override
     public String toString() {
         String counterPartyName = counterParty == null ? "NA" : counterParty.getName();
         String orderType = this.orderType == OrderType.BUY ? orderType = "BUY" : "SELL";
         StringBuilder toString = new StringBuilder();
         toString.append("[").append(counterPartyName).append(",").append(RIC).append(",")
-                .append(orderType).append(",").append(quantity).append(",").append(price).append(",")
-                .append(orderStatus).append(",")
+                .append(orderType).append(",").append(quantity).append(",").append(getPrice()).append(",")
+                .append(getOrderStatus()).append(",")
                 .append(id).append("]");
         return toString.toString();
     }
@@ -110,15 +317,14 @@ public abstract class BaseOrder implements Comparable<BaseOrder> {
         }
 
         if (obj instanceof BaseOrder) {
-            UUID thatOrder = ((BaseOrder) obj).getId();
-            return id.equals(thatOrder);
+            return id == ((BaseOrder) obj).getId();
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(id);
+        return Long.hashCode(id);
     }
 
 
@@ -126,4 +332,12 @@ public abstract class BaseOrder implements Comparable<BaseOrder> {
 
     public static enum OrderStatus {EXECUTED, REJECTED, PENDING, NEW,CANCELLED};
 
+    /**
+     * GTC rests until filled or cancelled, IOC fills what it can on arrival and cancels the rest,
+     * FOK fills completely on arrival or not at all.
+     */
+    public static enum TimeInForce {GTC, IOC, FOK};
+
+    public static enum PriceType {LIMIT, MARKET};
+
 }
@@ -8,14 +8,26 @@ public class BuyOrder extends BaseOrder {
         orderType = OrderType.BUY;
     }
 
+    /**
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public BuyOrder(String RIC, int quantity, long price, int lotSize) {
+        super(RIC, quantity, price, lotSize);
+        orderType = OrderType.BUY;
+    }
+
+    BuyOrder() {
+        orderType = OrderType.BUY;
+    }
+
     public int compareTo(BaseOrder o) {
-        int diff = Double.compare(o.getPrice(), getPrice());
+        int diff = Long.compare(o.getScaledPrice(), getScaledPrice());
 
         if (diff != 0) {
             return diff;
         }
 
-        diff = getOrderTime().compareTo(o.getOrderTime());
+        diff = Long.compare(getOrderTime(), o.getOrderTime());
 
         if (diff != 0) {
             return diff;
@@ -1,5 +1,6 @@
 package com.trade.engine.order;
 
+import com.trade.engine.report.ExecutionReport;
 
 public class CounterParty {
 	
@@ -19,10 +20,10 @@ public class CounterParty {
 	
 
 	/**
-	 * Callback function for order execution updates.
+	 * Callback function for order execution updates, invoked on the report dispatcher thread.
+	 * The report is reused once this returns. Does nothing by default.
 	 */
-	public void orderStatusCallBack(BaseOrder order, int quantity,String message) {
-		System.out.println(message + " - executed qty : " + quantity + " - status :" + order.getOrderStatus());
+	public void orderStatusCallBack(ExecutionReport report) {
 	}
 
 	@Override
@@ -0,0 +1,63 @@
+package com.trade.engine.order;
+
+import java.util.ArrayDeque;
+
+/**
+ * Recycles order objects so steady-state order flow does not allocate. An order may only be
+ * released once it is no longer resting in a book and its reports have been consumed.
+ * Not thread safe, use one pool per producing thread.
+ */
+public class OrderPool {
+    private final ArrayDeque<BuyOrder> freeBuyOrders;
+    private final ArrayDeque<SellOrder> freeSellOrders;
+
+    public OrderPool(int initialSize) {
+        freeBuyOrders = new ArrayDeque<>(initialSize);
+        freeSellOrders = new ArrayDeque<>(initialSize);
+        for (int i = 0; i < initialSize; i++) {
+            freeBuyOrders.push(new BuyOrder());
+            freeSellOrders.push(new SellOrder());
+        }
+    }
+
+    /**
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public BuyOrder acquireBuyOrder(String RIC, int quantity, long price, int lotSize) {
+        BuyOrder buyOrder = freeBuyOrders.poll();
+        if (buyOrder == null) {
+            buyOrder = new BuyOrder();
+        }
+        buyOrder.reset(RIC, quantity, price, lotSize);
+        return buyOrder;
+    }
+
+    /**
+     * @param price price in fixed-point units of 1 / Price.SCALE
+     */
+    public SellOrder acquireSellOrder(String RIC, int quantity, long price, int lotSize) {
+        SellOrder sellOrder = freeSellOrders.poll();
+        if (sellOrder == null) {
+            sellOrder = new SellOrder();
+        }
+        sellOrder.reset(RIC, quantity, price, lotSize);
+        return sellOrder;
+    }
+
+    public void release(BaseOrder order) {
+        order.setCounterParty(null);
+        if (order instanceof BuyOrder) {
+            freeBuyOrders.push((BuyOrder) order);
+        } else {
+            freeSellOrders.push((SellOrder) order);
+        }
+    }
+
+    public int getFreeBuyOrders() {
+        return freeBuyOrders.size();
+    }
+
+    public int getFreeSellOrders() {
+        return freeSellOrders.size();
+    }
+}
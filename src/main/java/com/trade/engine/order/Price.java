@@ -0,0 +1,24 @@
+package com.trade.engine.order;
+
+/**
+ * Fixed-point price helpers. Prices are held as longs scaled by SCALE, so 20.25 is 20_250_000.
+ */
+public final class Price {
+    public static final int DECIMALS = 6;
+    public static final long SCALE = 1_000_000L;
+
+    private Price() {
+    }
+
+    public static long toScaled(double price) {
+        return Math.round(price * SCALE);
+    }
+
+    public static double toDouble(long scaledPrice) {
+        return (double) scaledPrice / SCALE;
+    }
+
+    public static boolean isOnTick(long scaledPrice, long scaledTickSize) {
+        return scaledTickSize <= 1 || scaledPrice % scaledTickSize == 0;
+    }
+}
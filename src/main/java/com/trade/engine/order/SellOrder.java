@@ -9,14 +9,27 @@ public class SellOrder extends BaseOrder {
 		super(symbol, quantity, price, lotSize);
 		orderType = OrderType.SELL;
 	}
+
+	/**
+	 * @param price price in fixed-point units of 1 / Price.SCALE
+	 */
+	public SellOrder(String symbol, int quantity, long price, int lotSize) {
+		super(symbol, quantity, price, lotSize);
+		orderType = OrderType.SELL;
+	}
+
+	SellOrder() {
+		orderType = OrderType.SELL;
+	}
+
 	public int compareTo(BaseOrder o) {
-		int diff =  Double.compare(getPrice() , o.getPrice());
+		int diff =  Long.compare(getScaledPrice() , o.getScaledPrice());
 
-		if(diff != 0.0d) {
+		if(diff != 0) {
 			return diff;
 		}
 
-		diff = getOrderTime().compareTo(o.getOrderTime());
+		diff = Long.compare(getOrderTime(), o.getOrderTime());
 
 		if(diff != 0){
 			return diff;
@@ -0,0 +1,19 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+/**
+ * Told about every change to a book's aggregated depth, on the thread that mutates the book.
+ */
+public interface BookChangeListener {
+
+    /**
+     * Total quantity or order count at one price changed; both are 0 once the level is gone.
+     */
+    void onLevelChange(BaseOrder.OrderType side, long price, long quantity, int orderCount);
+
+    /**
+     * Price or quantity of a side's best level changed; price and quantity are 0 when the side is empty.
+     */
+    void onBestLevelChange(BaseOrder.OrderType side, long price, long quantity);
+}
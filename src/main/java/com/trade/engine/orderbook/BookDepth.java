@@ -0,0 +1,79 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.Price;
+
+/**
+ * Aggregated price levels of a book at one point in time, best first on each side.
+ */
+public class BookDepth {
+    private static final int FIELDS = 3;
+    private final long[] bidLevels;
+    private final int bidLevelCount;
+    private final long[] askLevels;
+    private final int askLevelCount;
+
+    BookDepth(long[] bidLevels, int bidLevelCount, long[] askLevels, int askLevelCount) {
+        this.bidLevels = bidLevels;
+        this.bidLevelCount = bidLevelCount;
+        this.askLevels = askLevels;
+        this.askLevelCount = askLevelCount;
+    }
+
+    public int getBidLevelCount() {
+        return bidLevelCount;
+    }
+
+    /**
+     * Price of the bid level at index, 0 being the best, in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getBidPrice(int index) {
+        return bidLevels[checkIndex(index, bidLevelCount) * FIELDS];
+    }
+
+    public long getBidQuantity(int index) {
+        return bidLevels[checkIndex(index, bidLevelCount) * FIELDS + 1];
+    }
+
+    public int getBidOrderCount(int index) {
+        return (int) bidLevels[checkIndex(index, bidLevelCount) * FIELDS + 2];
+    }
+
+    public int getAskLevelCount() {
+        return askLevelCount;
+    }
+
+    /**
+     * Price of the ask level at index, 0 being the best, in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getAskPrice(int index) {
+        return askLevels[checkIndex(index, askLevelCount) * FIELDS];
+    }
+
+    public long getAskQuantity(int index) {
+        return askLevels[checkIndex(index, askLevelCount) * FIELDS + 1];
+    }
+
+    public int getAskOrderCount(int index) {
+        return (int) askLevels[checkIndex(index, askLevelCount) * FIELDS + 2];
+    }
+
+    private static int checkIndex(int index, int levelCount) {
+        if (index < 0 || index >= levelCount) {
+            throw new IndexOutOfBoundsException("Level " + index + " of " + levelCount);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[bids");
+        for (int i = 0; i < bidLevelCount; i++) {
+            builder.append(' ').append(getBidQuantity(i)).append('@').append(Price.toDouble(getBidPrice(i)));
+        }
+        builder.append(", asks");
+        for (int i = 0; i < askLevelCount; i++) {
+            builder.append(' ').append(getAskQuantity(i)).append('@').append(Price.toDouble(getAskPrice(i)));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Top price levels of both sides of a book, written by the thread that owns the book and read
+ * without locking. The writer makes the version odd, rewrites the levels and makes it even again;
+ * a reader copies the levels between two reads of the same even version and retries otherwise.
+ */
+public class DepthSnapshot {
+    public static final int DEFAULT_LEVELS = 10;
+    // per side: level count, then price, quantity and order count of each level
+    private static final int FIELDS = 3;
+    private final int maxLevels;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray bids;
+    private final AtomicLongArray asks;
+
+    DepthSnapshot(int maxLevels) {
+        if (maxLevels < 1) {
+            throw new IllegalArgumentException("Depth levels must be positive : " + maxLevels);
+        }
+        this.maxLevels = maxLevels;
+        this.bids = new AtomicLongArray(1 + maxLevels * FIELDS);
+        this.asks = new AtomicLongArray(1 + maxLevels * FIELDS);
+    }
+
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+
+    void beginWrite() {
+        version.set(version.get() + 1);
+    }
+
+    void setLevel(BaseOrder.OrderType side, int index, long price, long quantity, int orderCount) {
+        AtomicLongArray levels = side == BaseOrder.OrderType.BUY ? bids : asks;
+        int offset = 1 + index * FIELDS;
+        levels.lazySet(offset, price);
+        levels.lazySet(offset + 1, quantity);
+        levels.lazySet(offset + 2, orderCount);
+    }
+
+    void setLevelCount(BaseOrder.OrderType side, int levelCount) {
+        (side == BaseOrder.OrderType.BUY ? bids : asks).lazySet(0, levelCount);
+    }
+
+    void endWrite() {
+        version.lazySet(version.get() + 1);
+    }
+
+    /**
+     * Consistent copy of up to levels price levels per side, at most getMaxLevels().
+     */
+    public BookDepth read(int levels) {
+        int wanted = Math.max(0, Math.min(levels, maxLevels));
+        long[] bidLevels = new long[wanted * FIELDS];
+        long[] askLevels = new long[wanted * FIELDS];
+        while (true) {
+            long before = version.get();
+            if ((before & 1) == 0) {
+                int bidCount = copy(bids, bidLevels, wanted);
+                int askCount = copy(asks, askLevels, wanted);
+                if (version.get() == before) {
+                    return new BookDepth(bidLevels, bidCount, askLevels, askCount);
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    private static int copy(AtomicLongArray levels, long[] target, int wanted) {
+        // bounded even when torn, a torn copy is thrown away by the version check
+        int levelCount = (int) Math.max(0, Math.min(levels.get(0), wanted));
+        for (int i = 0; i < levelCount * FIELDS; i++) {
+            target[i] = levels.get(1 + i);
+        }
+        return levelCount;
+    }
+}
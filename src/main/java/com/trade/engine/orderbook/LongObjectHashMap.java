@@ -0,0 +1,139 @@
+package com.trade.engine.orderbook;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long to object map, so hot-path lookups by order id or price do not box keys.
+ * Key 0 is reserved as the empty marker. Not thread safe.
+ */
+public class LongObjectHashMap<V> {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongObjectHashMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity * 2 - 1) * 2);
+        allocate(capacity);
+    }
+
+    public LongObjectHashMap() {
+        this(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        size--;
+        // backward shift deletion keeps probe chains intact without tombstones
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = hash(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
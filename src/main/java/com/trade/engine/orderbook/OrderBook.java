@@ -0,0 +1,156 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.SellOrder;
+
+import java.util.Comparator;
+
+/**
+ * Price-level order book for a single RIC. Each side keeps a sorted map of price levels holding
+ * FIFO lists of orders, and an id index gives O(1) lookup and cancel. Not thread safe, callers
+ * are expected to guard it.
+ */
+public class OrderBook {
+    private final OrderBookSide<BuyOrder> buySide;
+    private final OrderBookSide<SellOrder> sellSide;
+    private final LongObjectHashMap<OrderEntry<?>> orderIndex = new LongObjectHashMap<>(1024);
+    private final DepthSnapshot depthSnapshot;
+
+    public OrderBook() {
+        this(DepthSnapshot.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param depthLevels price levels per side kept in the lock-free depth snapshot
+     */
+    public OrderBook(int depthLevels) {
+        this.depthSnapshot = new DepthSnapshot(depthLevels);
+        this.buySide = new OrderBookSide<>(BaseOrder.OrderType.BUY, Comparator.reverseOrder(), depthLevels);
+        this.sellSide = new OrderBookSide<>(BaseOrder.OrderType.SELL, Comparator.naturalOrder(), depthLevels);
+    }
+
+    /**
+     * Receives every level change from now on, null to stop.
+     */
+    public void setBookChangeListener(BookChangeListener listener) {
+        buySide.setBookChangeListener(listener);
+        sellSide.setBookChangeListener(listener);
+    }
+
+    public boolean add(BaseOrder order) {
+        if (orderIndex.containsKey(order.getId())) {
+            return false;
+        }
+        if (order instanceof BuyOrder) {
+            orderIndex.put(order.getId(), buySide.add((BuyOrder) order));
+        } else {
+            orderIndex.put(order.getId(), sellSide.add((SellOrder) order));
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean remove(BaseOrder order) {
+        OrderEntry<?> entry = orderIndex.remove(order.getId());
+        if (entry == null) {
+            return false;
+        }
+        if (entry.order instanceof BuyOrder) {
+            buySide.remove((OrderEntry<BuyOrder>) entry);
+        } else {
+            sellSide.remove((OrderEntry<SellOrder>) entry);
+        }
+        return true;
+    }
+
+    /**
+     * Resting order with the given id, or null.
+     */
+    public BaseOrder get(long orderId) {
+        OrderEntry<?> entry = orderIndex.get(orderId);
+        return entry == null ? null : entry.order;
+    }
+
+    /**
+     * Reduces an order's quantity by a partial fill, keeping the level totals in step. An order
+     * that is not in the book is simply reduced.
+     */
+    @SuppressWarnings("unchecked")
+    public void reduce(BaseOrder order, int quantity) {
+        OrderEntry<?> entry = orderIndex.get(order.getId());
+        if (entry == null) {
+            order.setQuantity(order.getQuantity() - quantity);
+        } else if (entry.order instanceof BuyOrder) {
+            buySide.reduce((OrderEntry<BuyOrder>) entry, quantity);
+        } else {
+            sellSide.reduce((OrderEntry<SellOrder>) entry, quantity);
+        }
+    }
+
+    public boolean contains(BaseOrder order) {
+        return orderIndex.containsKey(order.getId());
+    }
+
+    public BuyOrder peekBuyOrder() {
+        return buySide.peek();
+    }
+
+    public SellOrder peekSellOrder() {
+        return sellSide.peek();
+    }
+
+    public BuyOrder pollBuyOrder() {
+        BuyOrder buyOrder = buySide.peek();
+        if (buyOrder != null) {
+            remove(buyOrder);
+        }
+        return buyOrder;
+    }
+
+    public SellOrder pollSellOrder() {
+        SellOrder sellOrder = sellSide.peek();
+        if (sellOrder != null) {
+            remove(sellOrder);
+        }
+        return sellOrder;
+    }
+
+    /**
+     * Republishes the depth snapshot if a change since the last call touched the top levels. Called
+     * by the book's owner once it has finished a batch of changes, before releasing its lock.
+     */
+    public void publishDepth() {
+        if (buySide.isDepthChanged() || sellSide.isDepthChanged()) {
+            depthSnapshot.beginWrite();
+            buySide.writeDepth(depthSnapshot);
+            sellSide.writeDepth(depthSnapshot);
+            depthSnapshot.endWrite();
+        }
+    }
+
+    /**
+     * Top levels as of the last publishDepth(), safe to call from any thread without locking.
+     */
+    public BookDepth getDepth(int levels) {
+        return depthSnapshot.read(levels);
+    }
+
+    public OrderBookSide<BuyOrder> getBuySide() {
+        return buySide;
+    }
+
+    public OrderBookSide<SellOrder> getSellSide() {
+        return sellSide;
+    }
+
+    public int size() {
+        return orderIndex.size();
+    }
+
+    public void clear() {
+        buySide.clear();
+        sellSide.clear();
+        orderIndex.clear();
+    }
+}
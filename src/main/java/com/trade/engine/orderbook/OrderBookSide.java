@@ -0,0 +1,211 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * One side of the book: price levels sorted best first, with the best level cached. Levels are
+ * found by price through a primitive map, and FIFO entries are recycled through a free list, so
+ * adding to an existing level, filling and cancelling do not allocate. Only a brand new price
+ * level allocates its tree node.
+ */
+public class OrderBookSide<T extends BaseOrder> {
+    private final BaseOrder.OrderType side;
+    private final TreeMap<Long, PriceLevel<T>> levels;
+    private final LongObjectHashMap<PriceLevel<T>> levelByPrice = new LongObjectHashMap<>();
+    private PriceLevel<T> bestLevel;
+    private OrderEntry<T> freeEntries;
+    private int orderCount;
+    private long totalQuantity;
+    private BookChangeListener listener;
+    private final int depthLevels;
+    private int publishedLevels;
+    private long lastPublishedPrice;
+    private boolean depthChanged;
+
+    OrderBookSide(BaseOrder.OrderType side, Comparator<Long> priceOrder, int depthLevels) {
+        this.side = side;
+        this.levels = new TreeMap<>(priceOrder);
+        this.depthLevels = depthLevels;
+    }
+
+    void setBookChangeListener(BookChangeListener listener) {
+        this.listener = listener;
+    }
+
+    OrderEntry<T> add(T order) {
+        PriceLevel<T> previousBest = bestLevel;
+        OrderEntry<T> entry = acquireEntry(order);
+        long price = order.getScaledPrice();
+        PriceLevel<T> level;
+        if (bestLevel != null && bestLevel.getPrice() == price) {
+            level = bestLevel;
+        } else {
+            level = levelByPrice.get(price);
+            if (level == null) {
+                level = new PriceLevel<>(price);
+                levels.put(level.key(), level);
+                levelByPrice.put(price, level);
+                if (bestLevel == null || levels.comparator().compare(level.key(), bestLevel.key()) < 0) {
+                    bestLevel = level;
+                }
+            }
+        }
+        level.append(entry);
+        orderCount++;
+        totalQuantity += order.getQuantity();
+        levelChanged(level, previousBest);
+        return entry;
+    }
+
+    void remove(OrderEntry<T> entry) {
+        PriceLevel<T> level = entry.level;
+        PriceLevel<T> previousBest = bestLevel;
+        totalQuantity -= entry.order.getQuantity();
+        level.unlink(entry);
+        orderCount--;
+        releaseEntry(entry);
+        if (level.isEmpty()) {
+            levels.remove(level.key());
+            levelByPrice.remove(level.getPrice());
+            if (level == bestLevel) {
+                bestLevel = levels.isEmpty() ? null : levelByPrice.get(levels.firstKey());
+            }
+        }
+        levelChanged(level, previousBest);
+    }
+
+    /**
+     * Takes quantity off a resting order in place, keeping its time priority.
+     */
+    void reduce(OrderEntry<T> entry, int quantity) {
+        entry.order.setQuantity(entry.order.getQuantity() - quantity);
+        entry.level.reduce(quantity);
+        totalQuantity -= quantity;
+        levelChanged(entry.level, bestLevel);
+    }
+
+    /**
+     * Tells the listener about the level's new totals, and about the best level when it moved or
+     * when the changed level is (or was) the best.
+     */
+    private void levelChanged(PriceLevel<T> level, PriceLevel<T> previousBest) {
+        if (!depthChanged && isWithinDepth(level.getPrice())) {
+            depthChanged = true;
+        }
+        if (listener == null) {
+            return;
+        }
+        listener.onLevelChange(side, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+        if (level == previousBest || bestLevel != previousBest) {
+            if (bestLevel == null) {
+                listener.onBestLevelChange(side, 0, 0);
+            } else {
+                listener.onBestLevelChange(side, bestLevel.getPrice(), bestLevel.getTotalQuantity());
+            }
+        }
+    }
+
+    /**
+     * Whether a change at price can alter the published top levels: the side had fewer levels
+     * than published, or price is at or better than the last published level.
+     */
+    private boolean isWithinDepth(long price) {
+        if (publishedLevels < depthLevels) {
+            return true;
+        }
+        return side == BaseOrder.OrderType.BUY ? price >= lastPublishedPrice : price <= lastPublishedPrice;
+    }
+
+    boolean isDepthChanged() {
+        return depthChanged;
+    }
+
+    /**
+     * Copies the best levels into the snapshot, walking the level map by key so nothing is allocated.
+     */
+    void writeDepth(DepthSnapshot snapshot) {
+        int count = 0;
+        PriceLevel<T> level = bestLevel;
+        while (level != null && count < depthLevels) {
+            snapshot.setLevel(side, count, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+            lastPublishedPrice = level.getPrice();
+            count++;
+            Long nextKey = levels.higherKey(level.key());
+            level = nextKey == null ? null : levelByPrice.get(nextKey);
+        }
+        snapshot.setLevelCount(side, count);
+        publishedLevels = count;
+        depthChanged = false;
+    }
+
+    private OrderEntry<T> acquireEntry(T order) {
+        OrderEntry<T> entry = freeEntries;
+        if (entry == null) {
+            return new OrderEntry<>(order);
+        }
+        freeEntries = entry.next;
+        entry.next = null;
+        entry.order = order;
+        return entry;
+    }
+
+    private void releaseEntry(OrderEntry<T> entry) {
+        entry.order = null;
+        entry.next = freeEntries;
+        freeEntries = entry;
+    }
+
+    public T peek() {
+        return bestLevel == null ? null : bestLevel.peek();
+    }
+
+    /**
+     * Visits every resting order best level first, in time priority within a level.
+     */
+    public void forEach(Consumer<? super T> action) {
+        for (PriceLevel<T> level : levels.values()) {
+            level.forEach(action);
+        }
+    }
+
+    public PriceLevel<T> getBestLevel() {
+        return bestLevel;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Sum of the remaining quantity of every resting order on this side.
+     */
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    /**
+     * Price levels best first, read only.
+     */
+    public Collection<PriceLevel<T>> getLevels() {
+        return Collections.unmodifiableCollection(levels.values());
+    }
+
+    void clear() {
+        levels.clear();
+        levelByPrice.clear();
+        bestLevel = null;
+        orderCount = 0;
+        totalQuantity = 0;
+        depthChanged = true;
+    }
+}
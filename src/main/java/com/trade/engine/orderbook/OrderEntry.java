@@ -0,0 +1,17 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+/**
+ * Intrusive FIFO node linking a resting order into its price level.
+ */
+class OrderEntry<T extends BaseOrder> {
+    T order;
+    PriceLevel<T> level;
+    OrderEntry<T> prev;
+    OrderEntry<T> next;
+
+    OrderEntry(T order) {
+        this.order = order;
+    }
+}
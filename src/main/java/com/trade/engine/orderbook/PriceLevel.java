@@ -0,0 +1,100 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+import java.util.function.Consumer;
+
+/**
+ * All resting orders at one price, in time priority.
+ */
+public class PriceLevel<T extends BaseOrder> {
+    private final long price;
+    private final Long key;
+    private OrderEntry<T> head;
+    private OrderEntry<T> tail;
+    private int orderCount;
+    private long totalQuantity;
+
+    PriceLevel(long price) {
+        this.price = price;
+        this.key = price;
+    }
+
+    /**
+     * Level price in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Sum of the remaining quantity of the orders at this level.
+     */
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public boolean isEmpty() {
+        return orderCount == 0;
+    }
+
+    public T peek() {
+        return head == null ? null : head.order;
+    }
+
+    /**
+     * Visits the orders at this level in time priority.
+     */
+    public void forEach(Consumer<? super T> action) {
+        for (OrderEntry<T> entry = head; entry != null; entry = entry.next) {
+            action.accept(entry.order);
+        }
+    }
+
+    /**
+     * Boxed price kept for the sorted level map, so removing a level does not box again.
+     */
+    Long key() {
+        return key;
+    }
+
+    void append(OrderEntry<T> entry) {
+        entry.level = this;
+        entry.prev = tail;
+        entry.next = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+        orderCount++;
+        totalQuantity += entry.order.getQuantity();
+    }
+
+    void unlink(OrderEntry<T> entry) {
+        if (entry.prev == null) {
+            head = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.level = null;
+        orderCount--;
+        totalQuantity -= entry.order.getQuantity();
+    }
+
+    void reduce(int quantity) {
+        totalQuantity -= quantity;
+    }
+}
@@ -0,0 +1,146 @@
+package com.trade.engine.orderbook;
+
+import com.trade.engine.order.BaseOrder;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+
+/**
+ * Stop and stop-limit orders of a single RIC waiting for their trigger, grouped into levels by
+ * stop price. Buy stops trigger when a trade prints at or above their stop price and are kept
+ * lowest stop first, sell stops trigger at or below it and are kept highest stop first, so the
+ * next order to trigger is always at the head of a side's first level. Orders at one stop price
+ * trigger in arrival order. Not thread safe, callers are expected to guard it.
+ */
+public class StopBook {
+    private final StopSide buyStops = new StopSide(Comparator.naturalOrder());
+    private final StopSide sellStops = new StopSide(Comparator.reverseOrder());
+    private final LongObjectHashMap<OrderEntry<BaseOrder>> orderIndex = new LongObjectHashMap<>();
+
+    /**
+     * Whether a trade at lastTradePrice triggers the stop order, false before the first trade.
+     *
+     * @param lastTradePrice in fixed-point units of 1 / Price.SCALE, 0 when nothing traded yet
+     */
+    public static boolean isTriggered(BaseOrder order, long lastTradePrice) {
+        if (lastTradePrice == 0) {
+            return false;
+        }
+        return order.getType() == BaseOrder.OrderType.BUY
+                ? lastTradePrice >= order.getScaledStopPrice() : lastTradePrice <= order.getScaledStopPrice();
+    }
+
+    public boolean add(BaseOrder order) {
+        if (orderIndex.containsKey(order.getId())) {
+            return false;
+        }
+        StopSide stops = order.getType() == BaseOrder.OrderType.BUY ? buyStops : sellStops;
+        orderIndex.put(order.getId(), stops.add(order));
+        return true;
+    }
+
+    public boolean remove(BaseOrder order) {
+        OrderEntry<BaseOrder> entry = orderIndex.remove(order.getId());
+        if (entry == null) {
+            return false;
+        }
+        StopSide stops = entry.order.getType() == BaseOrder.OrderType.BUY ? buyStops : sellStops;
+        stops.remove(entry);
+        return true;
+    }
+
+    /**
+     * Reduces a waiting stop order's quantity, keeping its place at its stop price. An order that
+     * is not in the stop book is simply reduced.
+     */
+    public void reduce(BaseOrder order, int quantity) {
+        OrderEntry<BaseOrder> entry = orderIndex.get(order.getId());
+        order.setQuantity(order.getQuantity() - quantity);
+        if (entry != null) {
+            entry.level.reduce(quantity);
+        }
+    }
+
+    public boolean contains(BaseOrder order) {
+        return orderIndex.containsKey(order.getId());
+    }
+
+    /**
+     * Removes and returns the next stop order a trade at lastTradePrice triggers, buy stops first,
+     * or null when none does. Only the first level of each side is looked at, so a trade that
+     * triggers nothing costs two comparisons and each triggered order one removal, however many
+     * stops are waiting.
+     */
+    public BaseOrder pollTriggered(long lastTradePrice) {
+        if (lastTradePrice == 0) {
+            return null;
+        }
+        PriceLevel<BaseOrder> level = buyStops.firstLevel;
+        if (level == null || level.getPrice() > lastTradePrice) {
+            level = sellStops.firstLevel;
+            if (level == null || level.getPrice() < lastTradePrice) {
+                return null;
+            }
+        }
+        BaseOrder order = level.peek();
+        remove(order);
+        return order;
+    }
+
+    public int size() {
+        return orderIndex.size();
+    }
+
+    public void clear() {
+        buyStops.clear();
+        sellStops.clear();
+        orderIndex.clear();
+    }
+
+    /**
+     * Stop orders of one side by stop price, first to trigger first, with that level cached.
+     */
+    private static final class StopSide {
+        private final TreeMap<Long, PriceLevel<BaseOrder>> levels;
+        private final LongObjectHashMap<PriceLevel<BaseOrder>> levelByPrice = new LongObjectHashMap<>();
+        private PriceLevel<BaseOrder> firstLevel;
+
+        StopSide(Comparator<Long> triggerOrder) {
+            this.levels = new TreeMap<>(triggerOrder);
+        }
+
+        OrderEntry<BaseOrder> add(BaseOrder order) {
+            long stopPrice = order.getScaledStopPrice();
+            PriceLevel<BaseOrder> level = levelByPrice.get(stopPrice);
+            if (level == null) {
+                level = new PriceLevel<>(stopPrice);
+                levels.put(level.key(), level);
+                levelByPrice.put(stopPrice, level);
+                if (firstLevel == null || levels.comparator().compare(level.key(), firstLevel.key()) < 0) {
+                    firstLevel = level;
+                }
+            }
+            OrderEntry<BaseOrder> entry = new OrderEntry<>(order);
+            level.append(entry);
+            return entry;
+        }
+
+        void remove(OrderEntry<BaseOrder> entry) {
+            PriceLevel<BaseOrder> level = entry.level;
+            level.unlink(entry);
+            if (level.isEmpty()) {
+                levels.remove(level.key());
+                levelByPrice.remove(level.getPrice());
+                if (level == firstLevel) {
+                    firstLevel = levels.isEmpty() ? null : levelByPrice.get(levels.firstKey());
+                }
+            }
+        }
+
+        void clear() {
+            levels.clear();
+            levelByPrice.clear();
+            firstLevel = null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.trade.engine.orderexecution;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.orderbook.OrderBook;
+import com.trade.engine.orderbook.OrderBookSide;
+import com.trade.engine.orderbook.PriceLevel;
+
+import java.util.Arrays;
+
+/**
+ * Finds the equilibrium price of a crossed auction book. Only the levels inside the cross, bids
+ * at or above the best ask and asks at or below the best bid, can trade, so those levels are
+ * copied into per-side price and cumulative volume arrays and every level price is tried as a
+ * candidate in one merged pass. The cost is linear in the number of crossed levels, not orders,
+ * and the arrays are reused between calls. Not thread safe, called with the processor lock held.
+ *
+ * The price executing the most volume wins. Ties go to the smallest surplus, then to the side
+ * with the surplus (the highest price for a buy surplus, the lowest for a sell surplus), then to
+ * the price closest to the reference price.
+ */
+final class AuctionCalculator {
+    private long[] bidPrices = new long[64];
+    // bid quantity at or above bidPrices[i], levels best (highest) first
+    private long[] bidVolumes = new long[64];
+    private long[] askPrices = new long[64];
+    // ask quantity at or below askPrices[i], levels best (lowest) first
+    private long[] askVolumes = new long[64];
+
+    /**
+     * @param referencePrice tie break of last resort, usually the last trade price, 0 when none
+     */
+    AuctionResult calculate(OrderBook orderBook, long referencePrice) {
+        PriceLevel<?> bestBid = orderBook.getBuySide().getBestLevel();
+        PriceLevel<?> bestAsk = orderBook.getSellSide().getBestLevel();
+        if (bestBid == null || bestAsk == null || bestBid.getPrice() < bestAsk.getPrice()) {
+            return AuctionResult.NO_MATCH;
+        }
+        int bidCount = copyBids(orderBook.getBuySide(), bestAsk.getPrice());
+        int askCount = copyAsks(orderBook.getSellSide(), bestBid.getPrice());
+
+        long bestPrice = 0;
+        long bestVolume = 0;
+        long bestDemand = 0;
+        long bestSupply = 0;
+        // asks at or below the candidate are askVolumes[ask - 1], bids at or above are bidVolumes[bid]
+        int ask = 0;
+        int bid = bidCount - 1;
+        int nextBid = bidCount - 1;
+        while (ask < askCount || nextBid >= 0) {
+            long price = nextBid < 0 || ask < askCount && askPrices[ask] <= bidPrices[nextBid]
+                    ? askPrices[ask] : bidPrices[nextBid];
+            while (ask < askCount && askPrices[ask] <= price) {
+                ask++;
+            }
+            while (nextBid >= 0 && bidPrices[nextBid] <= price) {
+                nextBid--;
+            }
+            while (bid >= 0 && bidPrices[bid] < price) {
+                bid--;
+            }
+            long supply = ask == 0 ? 0 : askVolumes[ask - 1];
+            long demand = bid < 0 ? 0 : bidVolumes[bid];
+            long volume = Math.min(demand, supply);
+            if (volume > 0 && (bestVolume == 0
+                    || isBetter(price, volume, demand, supply, bestPrice, bestVolume, bestDemand, bestSupply,
+                    referencePrice))) {
+                bestPrice = price;
+                bestVolume = volume;
+                bestDemand = demand;
+                bestSupply = supply;
+            }
+        }
+        if (bestVolume == 0) {
+            return AuctionResult.NO_MATCH;
+        }
+        return new AuctionResult(bestPrice, bestVolume, bestDemand - bestVolume, bestSupply - bestVolume);
+    }
+
+    /**
+     * Candidates come in ascending price, so a later candidate only wins a full tie on surplus
+     * when buyers are left over or it is closer to the reference price.
+     */
+    private static boolean isBetter(long price, long volume, long demand, long supply, long bestPrice,
+                                    long bestVolume, long bestDemand, long bestSupply, long referencePrice) {
+        if (volume != bestVolume) {
+            return volume > bestVolume;
+        }
+        long surplus = Math.abs(demand - supply);
+        long bestSurplus = Math.abs(bestDemand - bestSupply);
+        if (surplus != bestSurplus) {
+            return surplus < bestSurplus;
+        }
+        if (demand != supply) {
+            return demand > supply;
+        }
+        return referencePrice > 0 && Math.abs(price - referencePrice) < Math.abs(bestPrice - referencePrice);
+    }
+
+    private int copyBids(OrderBookSide<? extends BaseOrder> buySide, long lowestPrice) {
+        int count = 0;
+        long cumulative = 0;
+        for (PriceLevel<? extends BaseOrder> level : buySide.getLevels()) {
+            if (level.getPrice() < lowestPrice) {
+                break;
+            }
+            if (count == bidPrices.length) {
+                bidPrices = Arrays.copyOf(bidPrices, count * 2);
+                bidVolumes = Arrays.copyOf(bidVolumes, count * 2);
+            }
+            cumulative += level.getTotalQuantity();
+            bidPrices[count] = level.getPrice();
+            bidVolumes[count] = cumulative;
+            count++;
+        }
+        return count;
+    }
+
+    private int copyAsks(OrderBookSide<? extends BaseOrder> sellSide, long highestPrice) {
+        int count = 0;
+        long cumulative = 0;
+        for (PriceLevel<? extends BaseOrder> level : sellSide.getLevels()) {
+            if (level.getPrice() > highestPrice) {
+                break;
+            }
+            if (count == askPrices.length) {
+                askPrices = Arrays.copyOf(askPrices, count * 2);
+                askVolumes = Arrays.copyOf(askVolumes, count * 2);
+            }
+            cumulative += level.getTotalQuantity();
+            askPrices[count] = level.getPrice();
+            askVolumes[count] = cumulative;
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.trade.engine.orderexecution;
+
+import com.trade.engine.order.Price;
+
+/**
+ * Equilibrium of an auction book: the price that executes the most volume and what is left over
+ * at it. Either indicative, while the call is running, or the outcome of the uncross.
+ */
+public class AuctionResult {
+    public static final AuctionResult NO_MATCH = new AuctionResult(0, 0, 0, 0);
+
+    private final long price;
+    private final long volume;
+    private final long buySurplus;
+    private final long sellSurplus;
+
+    /**
+     * @param price in fixed-point units of 1 / Price.SCALE, 0 when the book does not cross
+     * @param buySurplus buy quantity priced at or above price left unfilled
+     * @param sellSurplus sell quantity priced at or below price left unfilled
+     */
+    public AuctionResult(long price, long volume, long buySurplus, long sellSurplus) {
+        this.price = price;
+        this.volume = volume;
+        this.buySurplus = buySurplus;
+        this.sellSurplus = sellSurplus;
+    }
+
+    public boolean isMatch() {
+        return volume > 0;
+    }
+
+    public long getScaledPrice() {
+        return price;
+    }
+
+    public double getPrice() {
+        return Price.toDouble(price);
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public long getBuySurplus() {
+        return buySurplus;
+    }
+
+    public long getSellSurplus() {
+        return sellSurplus;
+    }
+
+    @Override
+    public String toString() {
+        return "AuctionResult{" +
+                "price=" + getPrice() +
+                ", volume=" + volume +
+                ", buySurplus=" + buySurplus +
+                ", sellSurplus=" + sellSurplus +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.trade.engine.orderexecution;
+
+import java.util.BitSet;
+
+/**
+ * Per-order outcome of a batch submit, indexed like the submitted list.
+ */
+public class BatchSubmitResult {
+    private final int size;
+    private final BitSet rejected;
+
+    public BatchSubmitResult(int size) {
+        this.size = size;
+        this.rejected = new BitSet(size);
+    }
+
+    public void reject(int index) {
+        rejected.set(index);
+    }
+
+    public boolean isAccepted(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " of batch size " + size);
+        }
+        return !rejected.get(index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getAcceptedCount() {
+        return size - rejected.cardinality();
+    }
+
+    public int getRejectedCount() {
+        return rejected.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSubmitResult{" +
+                "size=" + size +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
@@ -8,7 +8,7 @@ public class LimitOrderMatchRuleImpl implements OrderMatchRule{
     @Override
     public boolean isOrderMatch(BuyOrder buyOrder, SellOrder sellOrder) {
         if (buyOrder != null && sellOrder != null &&
-                buyOrder.getPrice() <= sellOrder.getPrice()) {
+                buyOrder.getScaledPrice() < sellOrder.getScaledPrice()) {
             return false;
         }
         return true;
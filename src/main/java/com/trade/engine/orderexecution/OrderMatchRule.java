@@ -1,8 +1,22 @@
 package com.trade.engine.orderexecution;
 
+import com.trade.engine.order.BaseOrder;
 import com.trade.engine.order.SellOrder;
 import com.trade.engine.order.BuyOrder;
 
 public interface OrderMatchRule {
      boolean isOrderMatch(BuyOrder buyOrder, SellOrder sellOrder) ;
+
+    /**
+     * Whether an arriving order may trade with a resting order on the other side. Market orders
+     * accept any price, limit orders are priced as in isOrderMatch.
+     */
+    default boolean isImmediateMatch(BaseOrder incomingOrder, BaseOrder restingOrder) {
+        if (incomingOrder.getPriceType() == BaseOrder.PriceType.MARKET) {
+            return true;
+        }
+        return incomingOrder instanceof BuyOrder
+                ? isOrderMatch((BuyOrder) incomingOrder, (SellOrder) restingOrder)
+                : isOrderMatch((BuyOrder) restingOrder, (SellOrder) incomingOrder);
+    }
 }
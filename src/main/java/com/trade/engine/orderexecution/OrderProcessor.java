@@ -4,20 +4,38 @@ import com.trade.engine.order.SellOrder;
 import com.trade.engine.order.BaseOrder;
 import com.trade.engine.order.BuyOrder;
 
-import java.util.Set;
+import com.trade.engine.journal.OrderJournal;
+import com.trade.engine.marketdata.MarketDataChannel;
+import com.trade.engine.metrics.RicMetrics;
+import com.trade.engine.orderbook.BookDepth;
+import com.trade.engine.report.RejectReason;
+import com.trade.engine.report.ExecutionReportListener;
+
+import java.io.File;
+import java.util.List;
 
 public interface OrderProcessor {
     void setRIC(String RIC);
 
     void submitOrder(BaseOrder order);
 
+    /**
+     * Validates, stamps and books a whole batch under a single lock acquisition.
+     */
+    BatchSubmitResult submitOrders(List<BaseOrder> orders);
+
+    boolean validateOrder(BaseOrder order);
+
     boolean isPendingOrder(BaseOrder order);
 
     boolean isOrderMatch();
 
     void executeMatchedOrder();
 
-    Set<BaseOrder> executeAllMatchedOrder();
+    /**
+     * Matches until the book no longer crosses. Returns the number of fills.
+     */
+    int executeAllMatchedOrder();
 
     BuyOrder peekBuyOrder();
 
@@ -27,6 +45,50 @@ public interface OrderProcessor {
 
     public boolean cancelOrder(BaseOrder order);
 
+    /**
+     * Amends a resting order. A smaller quantity at the same price is applied in place and keeps
+     * the order's queue position; a new price or a larger quantity is an atomic cancel-replace
+     * that queues the order behind the orders already at the new price. A stop order still waiting
+     * for its trigger is amended in the stop book the same way and keeps its stop price.
+     *
+     * @param price new price in fixed-point units of 1 / Price.SCALE
+     * @param quantity new quantity in units, a multiple of the lot size
+     * @return false when the order is neither resting nor a waiting stop, or the new price or quantity is invalid
+     */
+    boolean modifyOrder(BaseOrder order, long price, int quantity);
+
+    /**
+     * Rejects an order that failed a check before reaching the processor, reporting the reason in
+     * sequence with the book's other reports.
+     */
+    void rejectOrder(BaseOrder order, RejectReason reason);
+
+    /**
+     * Publishes depth changes, the best bid and ask and trades of this book to the channel, null to stop.
+     */
+    void setMarketDataChannel(MarketDataChannel marketDataChannel);
+
+    /**
+     * Aggregate quantity and order count of the best levels on each side, at most the depth the
+     * processor was created with. Does not take the processor lock.
+     */
+    BookDepth getDepth(int levels);
+
+    /**
+     * Counts orders and reports and records queue and match latency into metrics, null to stop.
+     */
+    void setMetrics(RicMetrics metrics);
+
+    /**
+     * Orders resting in the book, read without the lock so possibly slightly stale.
+     */
+    int getRestingOrderCount();
+
+    /**
+     * Stop orders waiting for their trigger, read without the lock so possibly slightly stale.
+     */
+    int getStopOrderCount();
+
     public BuyOrder popBuyOrder() ;
 
     public SellOrder popSellOrder() ;
@@ -34,4 +96,44 @@ public interface OrderProcessor {
     public void stop();
 
     public void setActive(boolean active);
+
+    SessionState getSessionState();
+
+    /**
+     * Moves the book to the next trading session. Leaving an auction call uncrosses the book at
+     * its equilibrium price first; entering one stops matching until then.
+     *
+     * @return the uncross, NO_MATCH when no call ended or nothing crossed
+     * @throws IllegalStateException when the current state can not move to sessionState
+     */
+    AuctionResult setSessionState(SessionState sessionState);
+
+    /**
+     * Price and volume the book would uncross at now, without trading. Meaningful during an
+     * auction call; a continuous book never stays crossed.
+     */
+    AuctionResult getIndicativeUncross();
+
+    void setExecutionReportListener(ExecutionReportListener executionReportListener);
+
+    /**
+     * Journal receiving every book mutation from now on, or null to stop journaling.
+     */
+    void setOrderJournal(OrderJournal orderJournal);
+
+    /**
+     * Rebuilds the book by applying the journal's records as recorded, without matching or
+     * reporting. Call before the journal is attached and before the processor is started.
+     *
+     * @return number of records replayed
+     */
+    long recover(OrderJournal orderJournal);
+
+    /**
+     * Loads the book from a snapshot, then applies only the journal records written after it.
+     *
+     * @param snapshotFile snapshot to start from, or null to replay the whole journal
+     * @return number of journal records replayed
+     */
+    long recover(File snapshotFile, OrderJournal orderJournal);
 }
@@ -1,37 +1,226 @@
 package com.trade.engine.orderexecution;
 
+import com.trade.engine.journal.BookRebuilder;
+import com.trade.engine.journal.BookSnapshot;
+import com.trade.engine.journal.OrderJournal;
+import com.trade.engine.marketdata.MarketDataChannel;
+import com.trade.engine.metrics.RicMetrics;
 import com.trade.engine.order.SellOrder;
 import com.trade.engine.order.BaseOrder;
 import com.trade.engine.order.BuyOrder;
-
-import java.time.LocalDate;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.PriorityBlockingQueue;
+import com.trade.engine.order.Price;
+import com.trade.engine.orderbook.BookDepth;
+import com.trade.engine.orderbook.DepthSnapshot;
+import com.trade.engine.orderbook.OrderBook;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.orderbook.OrderBookSide;
+import com.trade.engine.orderbook.PriceLevel;
+import com.trade.engine.orderbook.StopBook;
+import com.trade.engine.report.CounterPartyReportListener;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.ExecutionReportListener;
+import com.trade.engine.report.RejectReason;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.io.File;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class OrderProcessorImpl implements OrderProcessor {
+    private static final Logger LOG = LogManager.getLogger(OrderProcessorImpl.class);
 
     private String RIC;
-    private PriorityBlockingQueue<BuyOrder> buyOrderQ;
-    private PriorityBlockingQueue<SellOrder> sellOrderQ;
+    private OrderBook orderBook;
+    private final StopBook stopBook = new StopBook();
+    // price of the last trade, 0 until the first one, and whether stops may have triggered since
+    private long lastTradePrice;
+    private boolean traded;
+    private volatile SessionState sessionState = SessionState.CONTINUOUS;
+    private final AuctionCalculator auctionCalculator = new AuctionCalculator();
     private Lock orderProcessLock;
     private OrderMatchRule orderMatchRule;
     private boolean isActive;
+    private final Instrument instrument;
+    private final ExecutionReport executionReport = new ExecutionReport();
+    private long reportSequence;
+    private ExecutionReportListener executionReportListener = new CounterPartyReportListener();
+    private OrderJournal orderJournal;
+    private MarketDataChannel marketDataChannel;
+    private RicMetrics metrics;
+    // System.nanoTime() at the start of the current locked operation, 0 while metrics are off
+    private long operationTime;
 
     public OrderProcessorImpl(String RIC, OrderMatchRule orderMatchRule) {
-        this.setRIC(RIC);
+        this(RIC, orderMatchRule, 1);
+    }
+
+    /**
+     * @param tickSize minimum price increment in fixed-point units of 1 / Price.SCALE
+     */
+    public OrderProcessorImpl(String RIC, OrderMatchRule orderMatchRule, long tickSize) {
+        this(RIC, orderMatchRule, tickSize, DepthSnapshot.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param tickSize minimum price increment in fixed-point units of 1 / Price.SCALE
+     * @param depthLevels price levels per side served by getDepth
+     */
+    public OrderProcessorImpl(String RIC, OrderMatchRule orderMatchRule, long tickSize, int depthLevels) {
+        this(new Instrument(RIC, tickSize, Instrument.DEFAULT_LOT_SIZE), orderMatchRule, depthLevels);
+    }
+
+    /**
+     * @param instrument tick size, lot size, price band and trading status orders are checked against
+     * @param depthLevels price levels per side served by getDepth
+     */
+    public OrderProcessorImpl(Instrument instrument, OrderMatchRule orderMatchRule, int depthLevels) {
+        this.setRIC(instrument.getRIC());
+        this.instrument = instrument;
         this.orderMatchRule = orderMatchRule;
-        buyOrderQ = new PriorityBlockingQueue<BuyOrder>(100);
-        sellOrderQ = new PriorityBlockingQueue<SellOrder>(100);
-        orderProcessLock = new ReentrantLock(true);
+        orderBook = new OrderBook(depthLevels);
+        orderProcessLock = new ReentrantLock();
     }
 
     @Override
     public void setActive(boolean active){this.isActive=active;}
 
+    @Override
+    public SessionState getSessionState() {
+        return sessionState;
+    }
+
+    @Override
+    public AuctionResult setSessionState(SessionState sessionState) {
+        if (isActive()) {
+            orderProcessLock.lock();
+            try {
+                beginOperation();
+                SessionState current = this.sessionState;
+                if (!current.canMoveTo(sessionState)) {
+                    throw new IllegalStateException("Can not move " + RIC + " from " + current + " to " + sessionState);
+                }
+                AuctionResult result = current.isAuctionCall() ? uncross() : AuctionResult.NO_MATCH;
+                this.sessionState = sessionState;
+                LOG.info("{} session {}", RIC, sessionState);
+                if (sessionState == SessionState.CONTINUOUS) {
+                    releaseTriggeredStops();
+                }
+                return result;
+            } finally {
+                unlock();
+            }
+        }
+        return AuctionResult.NO_MATCH;
+    }
+
+    @Override
+    public AuctionResult getIndicativeUncross() {
+        if (isActive()) {
+            orderProcessLock.lock();
+            try {
+                return auctionCalculator.calculate(orderBook, lastTradePrice);
+            } finally {
+                unlock();
+            }
+        }
+        return AuctionResult.NO_MATCH;
+    }
+
+    /**
+     * Executes the auction book at its equilibrium price: bids and asks are paired best price
+     * first and in time priority within a level, and every fill is at the one price. Called with
+     * the lock held.
+     */
+    private AuctionResult uncross() {
+        AuctionResult result = auctionCalculator.calculate(orderBook, lastTradePrice);
+        long price = result.getScaledPrice();
+        long remaining = result.getVolume();
+        while (remaining > 0) {
+            BuyOrder buyOrder = orderBook.peekBuyOrder();
+            SellOrder sellOrder = orderBook.peekSellOrder();
+            int quantity = (int) Math.min(remaining, Math.min(buyOrder.getQuantity(), sellOrder.getQuantity()));
+            orderStatusUpdate(sellOrder, buyOrder, quantity, price, BaseOrder.OrderStatus.PENDING);
+            orderStatusUpdate(buyOrder, sellOrder, quantity, price, BaseOrder.OrderStatus.PENDING);
+            if (buyOrder.getOrderTime() <= sellOrder.getOrderTime()) {
+                publishTrade(sellOrder, buyOrder, price, quantity);
+            } else {
+                publishTrade(buyOrder, sellOrder, price, quantity);
+            }
+            remaining -= quantity;
+        }
+        if (result.isMatch()) {
+            LOG.info("{} uncrossed {}", RIC, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void setExecutionReportListener(ExecutionReportListener executionReportListener) {
+        this.executionReportListener = executionReportListener;
+    }
+
+    @Override
+    public void setOrderJournal(OrderJournal orderJournal) {
+        orderProcessLock.lock();
+        try {
+            this.orderJournal = orderJournal;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void setMarketDataChannel(MarketDataChannel marketDataChannel) {
+        orderProcessLock.lock();
+        try {
+            this.marketDataChannel = marketDataChannel;
+            orderBook.setBookChangeListener(marketDataChannel);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void setMetrics(RicMetrics metrics) {
+        orderProcessLock.lock();
+        try {
+            this.metrics = metrics;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int getRestingOrderCount() {
+        return orderBook.size();
+    }
+
+    @Override
+    public int getStopOrderCount() {
+        return stopBook.size();
+    }
+
+    @Override
+    public long recover(OrderJournal orderJournal) {
+        return recover(null, orderJournal);
+    }
+
+    @Override
+    public long recover(File snapshotFile, OrderJournal orderJournal) {
+        orderProcessLock.lock();
+        try {
+            BookRebuilder bookRebuilder = new BookRebuilder(RIC, orderBook);
+            if (snapshotFile != null) {
+                BookSnapshot.load(snapshotFile, bookRebuilder);
+            }
+            return orderJournal.replay(bookRebuilder, bookRebuilder.getSequence());
+        } finally {
+            unlock();
+        }
+    }
+
     public String getRIC() {
         return RIC;
     }
@@ -44,62 +233,278 @@ public class OrderProcessorImpl implements OrderProcessor {
     @Override
     public void submitOrder(BaseOrder order) {
         if (isActive()) {
-            order.setOrderTime(LocalDate.now());
-            if (!validateOrder(order)) {
-                orderStatusUpdate(order, 0,  BaseOrder.OrderStatus.REJECTED);
-                return;
-            }
-            if (order instanceof BuyOrder) {
-                buyOrderQ.add((BuyOrder) order);
-            } else {
-                sellOrderQ.add((SellOrder) order);
+            order.setOrderTime(System.nanoTime());
+            orderProcessLock.lock();
+            try {
+                operationTime = metrics == null ? 0 : order.getOrderTime();
+                RejectReason reason = checkOrder(order);
+                if (reason != null) {
+                    reject(order, reason);
+                    return;
+                }
+                if (metrics != null) {
+                    metrics.onOrderAccepted(order);
+                }
+                acceptOrder(order);
+                releaseTriggeredStops();
+            } finally {
+                unlock();
             }
         }
     }
 
-    public boolean removeOrder(BaseOrder order) {
+    @Override
+    public BatchSubmitResult submitOrders(List<BaseOrder> orders) {
+        BatchSubmitResult result = new BatchSubmitResult(orders.size());
         if (isActive()) {
+            long orderTime = System.nanoTime();
+            orderProcessLock.lock();
+            try {
+                operationTime = metrics == null ? 0 : orderTime;
+                for (int i = 0; i < orders.size(); i++) {
+                    BaseOrder order = orders.get(i);
+                    order.setOrderTime(orderTime);
+                    RejectReason reason = checkOrder(order);
+                    if (reason != null) {
+                        result.reject(i);
+                        reject(order, reason);
+                        continue;
+                    }
+                    if (metrics != null) {
+                        metrics.onOrderAccepted(order);
+                    }
+                    acceptOrder(order);
+                }
+                releaseTriggeredStops();
+            } finally {
+                unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Books or trades a validated order, or parks it in the stop book when it is a stop order the
+     * last trade has not triggered yet. Called with the lock held.
+     */
+    private void acceptOrder(BaseOrder order) {
+        if (order.isStopOrder() && !StopBook.isTriggered(order, lastTradePrice)) {
+            stopBook.add(order);
+        } else if (order.isRestingOrder()) {
+            addToBook(order);
+        } else {
+            executeImmediateOrder(order);
+        }
+    }
+
+    /**
+     * Releases every stop order triggered by the trades since the last call into the book, in
+     * trigger order, and matches each as it arrives. Trades of a released order can trigger
+     * further stops, which are released in the same pass. Called with the lock held.
+     *
+     * @return number of fills of the released orders
+     */
+    private int releaseTriggeredStops() {
+        int fillCount = 0;
+        // stops triggered by an uncross wait for continuous trading
+        while (traded && sessionState == SessionState.CONTINUOUS) {
+            traded = false;
+            BaseOrder order;
+            while ((order = stopBook.pollTriggered(lastTradePrice)) != null) {
+                order.setOrderTime(System.nanoTime());
+                if (order.isRestingOrder()) {
+                    addToBook(order);
+                    fillCount += matchRestingOrders();
+                } else {
+                    fillCount += executeImmediateOrder(order);
+                }
+            }
+        }
+        return fillCount;
+    }
 
-            if (!isPendingOrder(order)) {
+    /**
+     * Matches an IOC, FOK or market order against the resting contra orders best first and
+     * cancels whatever is left, so it never rests. Called with the lock held.
+     *
+     * @return number of fills, including those of resting orders matched first
+     */
+    private int executeImmediateOrder(BaseOrder order) {
+        // resting orders booked before this one trade first
+        int fillCount = matchRestingOrders();
+        OrderBookSide<? extends BaseOrder> contraSide = order instanceof BuyOrder
+                ? orderBook.getSellSide() : orderBook.getBuySide();
+        if (order.getTimeInForce() != BaseOrder.TimeInForce.FOK || isFillable(order, contraSide)) {
+            fillCount += sweep(order, contraSide);
+            if (order.getOrderStatus() == BaseOrder.OrderStatus.EXECUTED) {
+                return fillCount;
+            }
+        }
+        order.setOrderStatus(BaseOrder.OrderStatus.CANCELLED);
+        report(order, null, 0, 0, 0);
+        return fillCount;
+    }
+
+    /**
+     * Whether the contra side can fill the whole order. Rejected straight away when the side's
+     * total is too small, otherwise only the levels the order would trade with are visited.
+     */
+    private boolean isFillable(BaseOrder order, OrderBookSide<? extends BaseOrder> contraSide) {
+        long wanted = order.getQuantity();
+        if (contraSide.getTotalQuantity() < wanted || orderMatchRule == null) {
+            return false;
+        }
+        long available = 0;
+        for (PriceLevel<? extends BaseOrder> level : contraSide.getLevels()) {
+            if (!orderMatchRule.isImmediateMatch(order, level.peek())) {
                 return false;
             }
-            if (order instanceof BuyOrder) {
-                buyOrderQ.remove(order);
-            } else {
-                sellOrderQ.remove(order);
+            available += level.getTotalQuantity();
+            if (available >= wanted) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            return true;
+    private void addToBook(BaseOrder order) {
+        if (orderBook.add(order) && orderJournal != null) {
+            orderJournal.appendSubmit(order);
+        }
+    }
+
+    private boolean removeFromBook(BaseOrder order) {
+        if (!orderBook.remove(order)) {
+            // an untriggered stop was never journaled
+            return stopBook.remove(order);
+        }
+        if (orderJournal != null) {
+            orderJournal.appendCancel(order);
+        }
+        return true;
+    }
 
+    public boolean removeOrder(BaseOrder order) {
+        if (isActive()) {
+            orderProcessLock.lock();
+            try {
+                beginOperation();
+                return removeFromBook(order);
+            } finally {
+                unlock();
+            }
         }
         return false;
     }
 
     public boolean cancelOrder(BaseOrder order) {
         if (isActive()) {
-
-            if (!isPendingOrder(order)) {
-                return false;
-            }
-            if (order instanceof BuyOrder) {
-                buyOrderQ.remove(order);
-            } else {
-                sellOrderQ.remove(order);
+            orderProcessLock.lock();
+            try {
+                beginOperation();
+                if (!removeFromBook(order)) {
+                    return false;
+                }
+                order.setOrderStatus(BaseOrder.OrderStatus.CANCELLED);
+                report(order, null, 0, 0, 0);
+            } finally {
+                unlock();
             }
-            order.setOrderStatus(BaseOrder.OrderStatus.CANCELLED);
             return true;
+        }
+        return false;
+    }
 
+    @Override
+    public boolean modifyOrder(BaseOrder order, long price, int quantity) {
+        if (isActive()) {
+            orderProcessLock.lock();
+            try {
+                beginOperation();
+                if (quantity <= 0 || quantity % order.getLotSize() != 0
+                        || !Price.isOnTick(price, instrument.getTickSize())
+                        || !instrument.isWithinPriceBand(price)) {
+                    return false;
+                }
+                if (stopBook.contains(order)) {
+                    modifyStopOrder(order, price, quantity);
+                    return true;
+                }
+                if (!orderBook.contains(order)) {
+                    return false;
+                }
+                if (price == order.getScaledPrice() && quantity <= order.getQuantity()) {
+                    orderBook.reduce(order, order.getQuantity() - quantity);
+                } else {
+                    orderBook.remove(order);
+                    order.setScaledPrice(price);
+                    order.setQuantity(quantity);
+                    order.setOrderTime(System.nanoTime());
+                    orderBook.add(order);
+                }
+                if (orderJournal != null) {
+                    orderJournal.appendModify(order);
+                }
+                report(order, null, 0, 0, quantity);
+            } finally {
+                unlock();
+            }
+            return true;
         }
         return false;
     }
 
+    /**
+     * Amends a stop order still waiting for its trigger. The stop price is kept, so the amend can
+     * not trigger it, and like a resting order a smaller quantity at the same price keeps its place
+     * among the stops at that price while anything else queues it behind them. Nothing is journaled,
+     * the order is only once it is released into the book. Called with the lock held.
+     */
+    private void modifyStopOrder(BaseOrder order, long price, int quantity) {
+        if (price == order.getScaledPrice() && quantity <= order.getQuantity()) {
+            stopBook.reduce(order, order.getQuantity() - quantity);
+        } else {
+            stopBook.remove(order);
+            order.setScaledPrice(price);
+            order.setQuantity(quantity);
+            order.setOrderTime(System.nanoTime());
+            stopBook.add(order);
+        }
+        report(order, null, 0, 0, quantity);
+    }
+
+    @Override
+    public void rejectOrder(BaseOrder order, RejectReason reason) {
+        if (isActive()) {
+            orderProcessLock.lock();
+            try {
+                beginOperation();
+                reject(order, reason);
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private void reject(BaseOrder order, RejectReason reason) {
+        order.setOrderStatus(BaseOrder.OrderStatus.REJECTED);
+        executionReport.set(++reportSequence, order, 0, 0, 0, order.getQuantity());
+        executionReport.setRejectReason(reason);
+        publishReport();
+    }
+
+    private void beginOperation() {
+        operationTime = metrics == null ? 0 : System.nanoTime();
+    }
+
     @Override
     public boolean isPendingOrder(BaseOrder order) {
         if (isActive()) {
-            if (order instanceof BuyOrder) {
-                return buyOrderQ.contains(order);
-            } else {
-                return sellOrderQ.contains(order);
+            orderProcessLock.lock();
+            try {
+                return orderBook.contains(order) || stopBook.contains(order);
+            } finally {
+                unlock();
             }
         }
         return false;
@@ -108,17 +513,20 @@ public class OrderProcessorImpl implements OrderProcessor {
     @Override
     public boolean isOrderMatch() {
         if (isActive()) {
-            if (buyOrderQ.size() == 0 || sellOrderQ.size() == 0) {
-                return false;
+            orderProcessLock.lock();
+            try {
+                return isOrderMatch(orderBook.peekBuyOrder(), orderBook.peekSellOrder());
+            } finally {
+                unlock();
             }
-            BuyOrder buyOrder = buyOrderQ.peek();
-            SellOrder sellOrder = sellOrderQ.peek();
-            return isOrderMatch(buyOrder, sellOrder);
         }
         return false;
     }
 
     private boolean isOrderMatch(BuyOrder buyOrder, SellOrder sellOrder) {
+        if (buyOrder == null || sellOrder == null) {
+            return false;
+        }
         return orderMatchRule != null ? orderMatchRule.isOrderMatch(buyOrder, sellOrder) : false;
     }
 
@@ -126,18 +534,20 @@ public class OrderProcessorImpl implements OrderProcessor {
     @Override
     public void executeMatchedOrder() {
         if (isActive()) {
-            if (!isOrderMatch()) {
+            if (sessionState != SessionState.CONTINUOUS || !isOrderMatch()) {
                 return;
             }
             orderProcessLock.lock();
             try {
-                BuyOrder buyOrder = buyOrderQ.peek();
-                SellOrder sellOrder = sellOrderQ.peek();
-                if (isOrderMatch(buyOrder, sellOrder)) {
+                beginOperation();
+                BuyOrder buyOrder = orderBook.peekBuyOrder();
+                SellOrder sellOrder = orderBook.peekSellOrder();
+                if (sessionState == SessionState.CONTINUOUS && isOrderMatch(buyOrder, sellOrder)) {
                     processOrder(buyOrder, sellOrder);
+                    releaseTriggeredStops();
                 }
             } finally {
-                orderProcessLock.unlock();
+                unlock();
             }
 
         }
@@ -145,85 +555,258 @@ public class OrderProcessorImpl implements OrderProcessor {
     }
 
     @Override
-    public Set<BaseOrder> executeAllMatchedOrder() {
+    public int executeAllMatchedOrder() {
         if (isActive()) {
-            if (!isOrderMatch()) {
-                return Collections.emptySet();
-            }
             orderProcessLock.lock();
             try {
-                Set<BaseOrder> executedOrders = new HashSet<>();
-                BuyOrder buyOrder = buyOrderQ.peek();
-                SellOrder sellOrder = sellOrderQ.peek();
-                while (isOrderMatch(buyOrder, sellOrder)) {
-                    processOrder(buyOrder, sellOrder);
-                    executedOrders.add(buyOrder);
-                    executedOrders.add(sellOrder);
-                    buyOrder = buyOrderQ.peek();
-                    sellOrder = sellOrderQ.peek();
+                if (sessionState != SessionState.CONTINUOUS) {
+                    // an auction book stays crossed until the uncross
+                    return 0;
                 }
-                return executedOrders;
+                beginOperation();
+                int executedCount = matchRestingOrders();
+                return executedCount + releaseTriggeredStops();
             } finally {
-                orderProcessLock.unlock();
+                unlock();
+            }
+        }
+        return 0;
+    }
+
+    private int matchRestingOrders() {
+        int executedCount = 0;
+        BuyOrder buyOrder = orderBook.peekBuyOrder();
+        SellOrder sellOrder = orderBook.peekSellOrder();
+        while (isOrderMatch(buyOrder, sellOrder)) {
+            // the later of the two crossing orders is the aggressor
+            if (buyOrder.getOrderTime() <= sellOrder.getOrderTime()) {
+                executedCount += sweep(sellOrder, orderBook.getBuySide());
+            } else {
+                executedCount += sweep(buyOrder, orderBook.getSellSide());
+            }
+            buyOrder = orderBook.peekBuyOrder();
+            sellOrder = orderBook.peekSellOrder();
+        }
+        return executedCount;
+    }
+
+    /**
+     * Trades the aggressor against the contra side level by level, best first, at each resting
+     * order's price. Every resting order gets its own report, the aggressor gets one report and
+     * one journal record per level with the quantity it took there. Called with the lock held.
+     *
+     * @return number of resting orders traded with
+     */
+    private int sweep(BaseOrder aggressor, OrderBookSide<? extends BaseOrder> contraSide) {
+        int fillCount = 0;
+        PriceLevel<? extends BaseOrder> level = contraSide.getBestLevel();
+        while (level != null && orderMatchRule != null && orderMatchRule.isImmediateMatch(aggressor, level.peek())) {
+            if (fillCount == 0 && metrics != null) {
+                metrics.onMatch(aggressor, operationTime);
+            }
+            long levelPrice = level.getPrice();
+            int levelQuantity = 0;
+            BaseOrder restingOrder = level.peek();
+            BaseOrder lastRestingOrder = null;
+            boolean aggressorFilled = false;
+            while (restingOrder != null && !aggressorFilled) {
+                int quantity = Math.min(aggressor.getQuantity(), restingOrder.getQuantity());
+                orderStatusUpdate(restingOrder, aggressor, quantity, levelPrice, BaseOrder.OrderStatus.PENDING);
+                publishTrade(aggressor, restingOrder, levelPrice, quantity);
+                aggressorFilled = takeQuantity(aggressor, quantity);
+                levelQuantity += quantity;
+                lastRestingOrder = restingOrder;
+                fillCount++;
+                // an emptied level is unlinked from the side and peeks null
+                restingOrder = level.peek();
+            }
+            if (orderJournal != null && aggressor.isRestingOrder()) {
+                orderJournal.appendFill(aggressor, lastRestingOrder, levelPrice, levelQuantity);
+            }
+            report(aggressor, lastRestingOrder, levelPrice, levelQuantity, aggressorFilled ? 0 : aggressor.getQuantity());
+            if (aggressorFilled) {
+                break;
             }
+            level = contraSide.getBestLevel();
         }
-        return Collections.emptySet();
+        return fillCount;
+    }
+
+    /**
+     * Applies one fill to the aggressor without reporting it.
+     *
+     * @return true when the aggressor is completely filled
+     */
+    private boolean takeQuantity(BaseOrder aggressor, int quantity) {
+        aggressor.setOrderStatus(BaseOrder.OrderStatus.PENDING);
+        if (quantity == aggressor.getQuantity()) {
+            aggressor.setOrderStatus(BaseOrder.OrderStatus.EXECUTED);
+            orderBook.remove(aggressor);
+            return true;
+        }
+        orderBook.reduce(aggressor, quantity);
+        return false;
     }
 
     private void processOrder(BuyOrder buyOrder, SellOrder sellOrder) {
-        //buy order
         int quantity = Math.min(buyOrder.getQuantity(), sellOrder.getQuantity());
-        orderStatusUpdate(sellOrder, quantity, BaseOrder.OrderStatus.PENDING);
-        orderStatusUpdate(buyOrder, quantity,BaseOrder.OrderStatus.PENDING);
+        // trades at the price of whichever order was resting first
+        long fillPrice = buyOrder.getOrderTime() <= sellOrder.getOrderTime()
+                ? buyOrder.getScaledPrice() : sellOrder.getScaledPrice();
+        orderStatusUpdate(sellOrder, buyOrder, quantity, fillPrice, BaseOrder.OrderStatus.PENDING);
+        orderStatusUpdate(buyOrder, sellOrder, quantity, fillPrice, BaseOrder.OrderStatus.PENDING);
+        if (buyOrder.getOrderTime() <= sellOrder.getOrderTime()) {
+            publishTrade(sellOrder, buyOrder, fillPrice, quantity);
+        } else {
+            publishTrade(buyOrder, sellOrder, fillPrice, quantity);
+        }
     }
 
-    private void orderStatusUpdate(BaseOrder order, int quantity,  BaseOrder.OrderStatus status) {
+    private void publishTrade(BaseOrder aggressor, BaseOrder restingOrder, long price, int quantity) {
+        lastTradePrice = price;
+        traded = true;
+        if (marketDataChannel != null) {
+            marketDataChannel.onTrade(aggressor, restingOrder, price, quantity);
+        }
+    }
+
+    /**
+     * Applies a fill (or a zero quantity rejection) and reports it. Called with the lock held.
+     */
+    private void orderStatusUpdate(BaseOrder order, BaseOrder contraOrder, int quantity, long fillPrice,
+                                   BaseOrder.OrderStatus status) {
         order.setOrderStatus(status);
+        // only book state is journaled, an IOC, FOK or market order never rests
+        if (quantity > 0 && orderJournal != null && order.isRestingOrder()) {
+            orderJournal.appendFill(order, contraOrder, fillPrice, quantity);
+        }
+        int leavesQuantity;
         if (quantity == order.getQuantity()) {
             order.setOrderStatus(BaseOrder.OrderStatus.EXECUTED);
-            removeOrder(order);
+            orderBook.remove(order);
+            leavesQuantity = 0;
         } else {
-            order.setQuantity(order.getQuantity() - quantity);
+            leavesQuantity = order.getQuantity() - quantity;
+            orderBook.reduce(order, quantity);
         }
-        StringBuilder orderStatusMessage = new StringBuilder(" ORDER STATE: ").append(order);
-        if (order.getCounterParty() != null) {
-            order.getCounterParty().orderStatusCallBack(order, quantity, orderStatusMessage.toString());
+        report(order, contraOrder, fillPrice, quantity, leavesQuantity);
+    }
+
+    private void report(BaseOrder order, BaseOrder contraOrder, long fillPrice, int quantity, int leavesQuantity) {
+        long contraOrderId = contraOrder == null ? 0 : contraOrder.getId();
+        executionReport.set(++reportSequence, order, contraOrderId, fillPrice, quantity, leavesQuantity);
+        publishReport();
+    }
+
+    private void publishReport() {
+        executionReport.setInstrumentId(instrument.getId());
+        executionReport.setMatchTime(operationTime);
+        if (metrics != null) {
+            metrics.onReport(executionReport);
         }
-        ;
+        executionReportListener.onExecutionReport(executionReport);
+        executionReport.clear();
     }
 
     @Override
     public BuyOrder peekBuyOrder() {
-        return buyOrderQ.peek();
+        orderProcessLock.lock();
+        try {
+            return orderBook.peekBuyOrder();
+        } finally {
+            unlock();
+        }
     }
 
     public BuyOrder popBuyOrder() {
-        BuyOrder buyOrder = buyOrderQ.poll();
-        return buyOrder;
+        orderProcessLock.lock();
+        try {
+            beginOperation();
+            BuyOrder buyOrder = orderBook.peekBuyOrder();
+            if (buyOrder != null) {
+                removeFromBook(buyOrder);
+            }
+            return buyOrder;
+        } finally {
+            unlock();
+        }
     }
 
     @Override
     public SellOrder peekSellOrder() {
-        return sellOrderQ.peek();
+        orderProcessLock.lock();
+        try {
+            return orderBook.peekSellOrder();
+        } finally {
+            unlock();
+        }
     }
 
     public SellOrder popSellOrder() {
-        SellOrder sellOrder = sellOrderQ.poll();
-        return sellOrder;
+        orderProcessLock.lock();
+        try {
+            beginOperation();
+            SellOrder sellOrder = orderBook.peekSellOrder();
+            if (sellOrder != null) {
+                removeFromBook(sellOrder);
+            }
+            return sellOrder;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public BookDepth getDepth(int levels) {
+        return orderBook.getDepth(levels);
+    }
+
+    /**
+     * Publishes the depth changed under the lock for lock-free readers, then releases the lock.
+     */
+    private void unlock() {
+        orderBook.publishDepth();
+        orderProcessLock.unlock();
     }
 
     @Override
     public void stop() {
         orderProcessLock.lock();
         isActive = false;
-        sellOrderQ.clear();
-        buyOrderQ.clear();
-        orderProcessLock.unlock();
-        System.out.println("Order procesor stopped and clear queue for :" + RIC);
+        orderBook.clear();
+        stopBook.clear();
+        unlock();
+        LOG.info("Order procesor stopped and clear queue for :{}", RIC);
+    }
+
+    @Override
+    public boolean validateOrder(BaseOrder order) {
+        return checkOrder(order) == null;
     }
 
-    private boolean validateOrder(BaseOrder order) {
-        return order.getLotSize() == 100;
+    /**
+     * Checks an order against the instrument's reference data, null when it may be booked.
+     */
+    private RejectReason checkOrder(BaseOrder order) {
+        if (!instrument.isTrading() || sessionState == SessionState.CLOSED) {
+            return RejectReason.NOT_TRADING;
+        }
+        if (sessionState.isAuctionCall() && !order.isRestingOrder()) {
+            return RejectReason.AUCTION_CALL;
+        }
+        if (order.getLotSize() != instrument.getLotSize()) {
+            return RejectReason.INVALID_ORDER;
+        }
+        if (order.isStopOrder() && !Price.isOnTick(order.getScaledStopPrice(), instrument.getTickSize())) {
+            return RejectReason.INVALID_ORDER;
+        }
+        if (order.getPriceType() == BaseOrder.PriceType.MARKET) {
+            return null;
+        }
+        if (!Price.isOnTick(order.getScaledPrice(), instrument.getTickSize())) {
+            return RejectReason.INVALID_ORDER;
+        }
+        return instrument.isWithinPriceBand(order.getScaledPrice()) ? null : RejectReason.PRICE_BAND;
     }
 
     private boolean isActive() {
@@ -0,0 +1,35 @@
+package com.trade.engine.orderexecution;
+
+/**
+ * Trading session of one RIC's book. During an auction call orders are collected without
+ * matching; leaving the call uncrosses the book at a single price. The day runs
+ * PRE_OPEN, CONTINUOUS, PRE_CLOSE, CLOSED and back to PRE_OPEN, and CONTINUOUS may also drop back
+ * to PRE_OPEN for an intraday auction.
+ */
+public enum SessionState {
+    /** opening auction call */
+    PRE_OPEN,
+    /** continuous matching, the state a processor starts in */
+    CONTINUOUS,
+    /** closing auction call */
+    PRE_CLOSE,
+    /** after the closing uncross, new orders are rejected until the next opening call */
+    CLOSED;
+
+    public boolean isAuctionCall() {
+        return this == PRE_OPEN || this == PRE_CLOSE;
+    }
+
+    public boolean canMoveTo(SessionState next) {
+        switch (this) {
+            case PRE_OPEN:
+                return next == CONTINUOUS;
+            case CONTINUOUS:
+                return next == PRE_CLOSE || next == PRE_OPEN;
+            case PRE_CLOSE:
+                return next == CLOSED;
+            default:
+                return next == PRE_OPEN;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.trade.engine.refdata;
+
+import com.trade.engine.order.Price;
+
+/**
+ * Reference data of a tradable RIC. Prices are in fixed-point units of 1 / Price.SCALE; a price
+ * band bound of 0 means that side is unbounded. Everything but the trading status is fixed.
+ */
+public class Instrument {
+    public static final int DEFAULT_LOT_SIZE = 100;
+
+    private final String RIC;
+    private final long tickSize;
+    private final int lotSize;
+    private final long lowPrice;
+    private final long highPrice;
+    private volatile TradingStatus tradingStatus;
+    private int id;
+
+    public Instrument(String RIC, long tickSize, int lotSize) {
+        this(RIC, tickSize, lotSize, 0, 0, TradingStatus.TRADING);
+    }
+
+    public Instrument(String RIC, long tickSize, int lotSize, long lowPrice, long highPrice,
+                      TradingStatus tradingStatus) {
+        if (tickSize <= 0 || lotSize <= 0) {
+            throw new ReferenceDataException("Tick size and lot size must be positive for " + RIC);
+        }
+        if (highPrice != 0 && highPrice < lowPrice) {
+            throw new ReferenceDataException("Price band upper bound below the lower bound for " + RIC);
+        }
+        this.RIC = RIC;
+        this.tickSize = tickSize;
+        this.lotSize = lotSize;
+        this.lowPrice = lowPrice;
+        this.highPrice = highPrice;
+        this.tradingStatus = tradingStatus;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Dense id assigned when the RIC is first registered, 0 before that.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    public long getTickSize() {
+        return tickSize;
+    }
+
+    public int getLotSize() {
+        return lotSize;
+    }
+
+    public long getLowPrice() {
+        return lowPrice;
+    }
+
+    public long getHighPrice() {
+        return highPrice;
+    }
+
+    public boolean isWithinPriceBand(long price) {
+        return price >= lowPrice && (highPrice == 0 || price <= highPrice);
+    }
+
+    public TradingStatus getTradingStatus() {
+        return tradingStatus;
+    }
+
+    /**
+     * Orders are rejected while the status is anything but TRADING; resting orders stay in the book.
+     */
+    public void setTradingStatus(TradingStatus tradingStatus) {
+        this.tradingStatus = tradingStatus;
+    }
+
+    public boolean isTrading() {
+        return tradingStatus == TradingStatus.TRADING;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + RIC + ",id=" + id + ",tick=" + Price.toDouble(tickSize) + ",lot=" + lotSize
+                + ",band=" + Price.toDouble(lowPrice) + "-" + Price.toDouble(highPrice) + "," + tradingStatus + "]";
+    }
+}
@@ -0,0 +1,97 @@
+package com.trade.engine.refdata;
+
+import com.trade.engine.order.Price;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instrument definitions by RIC and the dense ids handed out when RICs are registered. A RIC
+ * keeps its id for the life of the registry, so ids can index arrays that outlive an unregister.
+ *
+ * Definitions are loaded from a CSV file, one instrument per line:
+ * <pre>
+ * # RIC,tickSize,lotSize[,lowPrice,highPrice[,status]]
+ * .N225,0.05,100,18000,22000,TRADING
+ * </pre>
+ */
+public class InstrumentRegistry {
+    private final Map<String, Instrument> definitions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idByRIC = new HashMap<>();
+    private int nextId = 1;
+
+    /**
+     * Adds or replaces the definitions in file.
+     *
+     * @return number of instruments read
+     */
+    public int load(File file) {
+        int count = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                define(parse(line));
+                count++;
+            }
+        } catch (IOException exception) {
+            throw new ReferenceDataException("Can not read reference data " + file, exception);
+        } catch (IllegalArgumentException | ReferenceDataException exception) {
+            throw new ReferenceDataException("Bad reference data at " + file + ":" + lineNumber, exception);
+        }
+        return count;
+    }
+
+    private static Instrument parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 3) {
+            throw new ReferenceDataException("Expected RIC,tickSize,lotSize but got " + line);
+        }
+        TradingStatus tradingStatus = fields.length > 5 ? TradingStatus.valueOf(fields[5].trim()) : TradingStatus.TRADING;
+        return new Instrument(fields[0].trim(), price(fields, 1), Integer.parseInt(fields[2].trim()),
+                price(fields, 3), price(fields, 4), tradingStatus);
+    }
+
+    private static long price(String[] fields, int index) {
+        if (index >= fields.length || fields[index].trim().isEmpty()) {
+            return 0;
+        }
+        return Price.toScaled(Double.parseDouble(fields[index].trim()));
+    }
+
+    /**
+     * Adds or replaces a definition. A RIC that is already registered keeps its current one until
+     * it is registered again.
+     */
+    public void define(Instrument instrument) {
+        definitions.put(instrument.getRIC(), instrument);
+    }
+
+    public Instrument getDefinition(String RIC) {
+        return definitions.get(RIC);
+    }
+
+    /**
+     * Gives the instrument the id of its RIC, assigning the next free one the first time the RIC is seen.
+     */
+    public synchronized int assignId(Instrument instrument) {
+        Integer id = idByRIC.get(instrument.getRIC());
+        if (id == null) {
+            id = nextId++;
+            idByRIC.put(instrument.getRIC(), id);
+        }
+        instrument.setId(id);
+        return id;
+    }
+}
@@ -0,0 +1,11 @@
+package com.trade.engine.refdata;
+
+public class ReferenceDataException extends RuntimeException {
+    public ReferenceDataException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public ReferenceDataException(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.trade.engine.refdata;
+
+/**
+ * Whether an instrument currently accepts new orders.
+ */
+public enum TradingStatus {
+    TRADING,
+    HALTED,
+    CLOSED
+}
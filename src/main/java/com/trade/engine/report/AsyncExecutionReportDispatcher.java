@@ -0,0 +1,207 @@
+package com.trade.engine.report;
+
+import com.trade.engine.concurrent.ParkingWaitStrategy;
+import com.trade.engine.concurrent.RingBuffer;
+import com.trade.engine.concurrent.WaitStrategy;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decouples report listeners from the matcher. Publishing copies the report into a preallocated
+ * bounded ring buffer and returns; a background thread delivers it to every registered listener.
+ * Publishers hold their order processor's lock, so they never wait for room: every report changes
+ * an order's state, and when the buffer is full it is copied into an unbounded overflow queue
+ * instead, counted by getOverflowedReports(). While anything is queued there later reports queue
+ * behind it, and the dispatcher delivers an overflowed report only after the buffered reports
+ * published before it, so each RIC's reports arrive in sequence. Only reports published once the
+ * dispatcher thread has ended, with the buffer full, are dropped and counted.
+ */
+public class AsyncExecutionReportDispatcher implements ExecutionReportListener, Runnable {
+    private static final Logger LOG = LogManager.getLogger(AsyncExecutionReportDispatcher.class);
+    private static final long DELIVERY_POLL_NANOS = 50_000L;
+    private final RingBuffer<ExecutionReport> ringBuffer;
+    private final WaitStrategy waitStrategy = new ParkingWaitStrategy();
+    private final List<ExecutionReportListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedReports = new AtomicLong();
+    private final Queue<Overflowed> overflow = new ConcurrentLinkedQueue<>();
+    // reports queued in overflow and not yet delivered
+    private final AtomicLong overflowSize = new AtomicLong();
+    private final AtomicLong overflowedReports = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread dispatcherThread;
+
+    public AsyncExecutionReportDispatcher(int bufferSize) {
+        this.ringBuffer = new RingBuffer<>(bufferSize, ExecutionReport::new);
+    }
+
+    public void addListener(ExecutionReportListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean removeListener(ExecutionReportListener listener) {
+        return listeners.remove(listener);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcherThread = new Thread(this, "ExecutionReportDispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Stops the dispatcher thread once it has delivered every report already published.
+     */
+    public synchronized void stop() {
+        running = false;
+        waitStrategy.signal();
+    }
+
+    /**
+     * Waits for the dispatcher thread to finish delivering after stop().
+     *
+     * @return false when it is still running after the timeout
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = dispatcherThread;
+        }
+        if (thread != null) {
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+            return !thread.isAlive();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every report published before the call has been handed to the listeners.
+     *
+     * @return false when some are still undelivered after the timeout
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) {
+        long published = ringBuffer.getCursor();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (ringBuffer.getConsumerSequence() < published || overflowSize.get() > 0) {
+            if (!running || System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(DELIVERY_POLL_NANOS);
+        }
+        return true;
+    }
+
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        long sequence = overflowSize.get() > 0 ? -1 : ringBuffer.tryNext(1);
+        if (sequence < 0) {
+            if (!isDispatching()) {
+                droppedReports.incrementAndGet();
+                LOG.warn("execution report dropped, dispatcher stopped : {}", report);
+                return;
+            }
+            ExecutionReport copy = new ExecutionReport();
+            copy.copyFrom(report);
+            overflowSize.incrementAndGet();
+            overflow.offer(new Overflowed(copy, ringBuffer.getCursor()));
+            if (overflowedReports.getAndIncrement() == 0) {
+                LOG.warn("execution report buffer of {} full, queueing reports in overflow",
+                        ringBuffer.getBufferSize());
+            }
+            waitStrategy.signal();
+            return;
+        }
+        ringBuffer.get(sequence).copyFrom(report);
+        ringBuffer.publish(sequence);
+        waitStrategy.signal();
+    }
+
+    private boolean isDispatching() {
+        Thread thread = dispatcherThread;
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Reports dropped because they were published with the buffer full after the dispatcher
+     * thread had ended.
+     */
+    public long getDroppedReports() {
+        return droppedReports.get();
+    }
+
+    /**
+     * Reports that found the buffer full and were queued in overflow, delivered or not.
+     */
+    public long getOverflowedReports() {
+        return overflowedReports.get();
+    }
+
+    public long getPendingReports() {
+        return ringBuffer.size() + overflowSize.get();
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = ringBuffer.getConsumerSequence() + 1;
+        int idleCount = 0;
+        while (true) {
+            long available = ringBuffer.getHighestPublished(nextSequence);
+            if (available >= nextSequence) {
+                idleCount = 0;
+                for (long sequence = nextSequence; sequence <= available; sequence++) {
+                    ExecutionReport report = ringBuffer.get(sequence);
+                    deliver(report);
+                    report.clear();
+                }
+                ringBuffer.release(available);
+                nextSequence = available + 1;
+                continue;
+            }
+            Overflowed overflowed = overflow.peek();
+            // buffered reports it follows may be claimed but not yet published
+            if (overflowed != null && overflowed.afterSequence < nextSequence) {
+                idleCount = 0;
+                overflow.poll();
+                deliver(overflowed.report);
+                overflowSize.decrementAndGet();
+                continue;
+            }
+            if (!running && overflowed == null) {
+                break;
+            }
+            idleCount = waitStrategy.idle(idleCount, ringBuffer, nextSequence);
+        }
+    }
+
+    private void deliver(ExecutionReport report) {
+        for (ExecutionReportListener listener : listeners) {
+            try {
+                listener.onExecutionReport(report);
+            } catch (RuntimeException ex) {
+                LOG.error("execution report listener failed for :{}", listener, ex);
+            }
+        }
+    }
+
+    private static final class Overflowed {
+        final ExecutionReport report;
+        // highest buffer sequence claimed when it overflowed
+        final long afterSequence;
+
+        Overflowed(ExecutionReport report, long afterSequence) {
+            this.report = report;
+            this.afterSequence = afterSequence;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.trade.engine.report;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+/**
+ * Logs reports for orders with a counterparty, in the engine's original order state format.
+ * Runs on the report dispatcher thread; the log writer does the console I/O.
+ */
+public class ConsoleExecutionReportListener implements ExecutionReportListener {
+    private static final Logger LOG = LogManager.getLogger(ConsoleExecutionReportListener.class);
+
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        if (report.getCounterParty() != null) {
+            LOG.info(" ORDER STATE: {} - executed qty : {} - status :{}", report.toString(),
+                    report.getExecutedQuantity(), report.getStatus());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.trade.engine.report;
+
+import com.trade.engine.order.CounterParty;
+
+/**
+ * Forwards each report to the order's counterparty callback.
+ */
+public class CounterPartyReportListener implements ExecutionReportListener {
+
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        CounterParty counterParty = report.getCounterParty();
+        if (counterParty != null) {
+            counterParty.orderStatusCallBack(report);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.trade.engine.report;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.order.Price;
+
+/**
+ * Status change of one order: a fill, a rejection or a cancel. Instances are reused by the
+ * publisher, so a listener must copy whatever it needs before returning.
+ */
+public class ExecutionReport {
+    private BaseOrder order;
+    private long sequenceNumber;
+    private long orderId;
+    private long contraOrderId;
+    private String RIC;
+    private int instrumentId;
+    private BaseOrder.OrderType side;
+    private long price;
+    private long fillPrice;
+    private int executedQuantity;
+    private int leavesQuantity;
+    private BaseOrder.OrderStatus status;
+    private CounterParty counterParty;
+    private RejectReason rejectReason;
+    private long matchTime;
+
+    /**
+     * @param contraOrderId id of the order filled against, 0 when there was no fill
+     * @param fillPrice execution price in fixed-point units of 1 / Price.SCALE, 0 when there was no fill
+     */
+    public void set(long sequenceNumber, BaseOrder order, long contraOrderId, long fillPrice, int executedQuantity,
+                    int leavesQuantity) {
+        this.sequenceNumber = sequenceNumber;
+        this.order = order;
+        this.orderId = order.getId();
+        this.contraOrderId = contraOrderId;
+        this.fillPrice = fillPrice;
+        this.RIC = order.getRIC();
+        this.instrumentId = 0;
+        this.side = order.getType();
+        this.price = order.getScaledPrice();
+        this.executedQuantity = executedQuantity;
+        this.leavesQuantity = leavesQuantity;
+        this.status = order.getOrderStatus();
+        this.counterParty = order.getCounterParty();
+        this.rejectReason = null;
+        this.matchTime = 0;
+    }
+
+    public void setMatchTime(long matchTime) {
+        this.matchTime = matchTime;
+    }
+
+    public void setInstrumentId(int instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+
+    public void setRejectReason(RejectReason rejectReason) {
+        this.rejectReason = rejectReason;
+    }
+
+    public void copyFrom(ExecutionReport report) {
+        this.sequenceNumber = report.sequenceNumber;
+        this.order = report.order;
+        this.orderId = report.orderId;
+        this.contraOrderId = report.contraOrderId;
+        this.RIC = report.RIC;
+        this.instrumentId = report.instrumentId;
+        this.side = report.side;
+        this.price = report.price;
+        this.fillPrice = report.fillPrice;
+        this.executedQuantity = report.executedQuantity;
+        this.leavesQuantity = report.leavesQuantity;
+        this.status = report.status;
+        this.counterParty = report.counterParty;
+        this.rejectReason = report.rejectReason;
+        this.matchTime = report.matchTime;
+    }
+
+    public void clear() {
+        this.order = null;
+        this.counterParty = null;
+    }
+
+    public BaseOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Per-RIC report sequence, increasing in the order the book produced the reports.
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getContraOrderId() {
+        return contraOrderId;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Id of the instrument whose book produced the report, 0 for a book with no registered instrument.
+     */
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    public BaseOrder.OrderType getSide() {
+        return side;
+    }
+
+    /**
+     * Order price in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Execution price in fixed-point units of 1 / Price.SCALE, 0 when the report is not a fill.
+     */
+    public long getFillPrice() {
+        return fillPrice;
+    }
+
+    public int getExecutedQuantity() {
+        return executedQuantity;
+    }
+
+    public int getLeavesQuantity() {
+        return leavesQuantity;
+    }
+
+    public BaseOrder.OrderStatus getStatus() {
+        return status;
+    }
+
+    public CounterParty getCounterParty() {
+        return counterParty;
+    }
+
+    /**
+     * Why the order was rejected, null unless the status is REJECTED.
+     */
+    public RejectReason getRejectReason() {
+        return rejectReason;
+    }
+
+    /**
+     * System.nanoTime() at which the book started the operation that produced this report, 0 when
+     * not measured.
+     */
+    public long getMatchTime() {
+        return matchTime;
+    }
+
+    @Override
+    public String toString() {
+        String counterPartyName = counterParty == null ? "NA" : counterParty.getName();
+        return "[" + counterPartyName + "," + RIC + "," + side + "," + leavesQuantity + "," + Price.toDouble(price)
+                + "," + status + "," + orderId + "]";
+    }
+}
@@ -0,0 +1,8 @@
+package com.trade.engine.report;
+
+/**
+ * Receives execution reports. The report object is only valid for the duration of the call.
+ */
+public interface ExecutionReportListener {
+    void onExecutionReport(ExecutionReport report);
+}
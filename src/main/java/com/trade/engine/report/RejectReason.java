@@ -0,0 +1,29 @@
+package com.trade.engine.report;
+
+/**
+ * Why an order was rejected before it reached the book.
+ */
+public enum RejectReason {
+    /** failed the book's own validation: lot size or tick size */
+    INVALID_ORDER,
+    /** the instrument is halted or closed */
+    NOT_TRADING,
+    /** limit price outside the instrument's price band */
+    PRICE_BAND,
+    /** order quantity above the per-order maximum */
+    MAX_QUANTITY,
+    /** limit price too far from the last trade */
+    PRICE_COLLAR,
+    /** counterparty's open order notional would exceed its limit */
+    NOTIONAL_LIMIT,
+    /** counterparty's position in the RIC would exceed its limit if the order filled */
+    POSITION_LIMIT,
+    /** counterparty sent too many orders this second */
+    THROTTLE,
+    /** no room left to track another counterparty's limits */
+    TOO_MANY_COUNTERPARTIES,
+    /** cancel or amend of an order that is not open */
+    UNKNOWN_ORDER,
+    /** IOC, FOK and market orders can not join an auction call */
+    AUCTION_CALL
+}
@@ -0,0 +1,342 @@
+package com.trade.engine.risk;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.ExecutionReportListener;
+import com.trade.engine.report.RejectReason;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pre-trade checks run on the submitting thread before an order is handed to its book. Each
+ * counterparty gets a dense slot in preallocated atomic arrays, padded so that counterparties
+ * submitting from different threads do not share cache lines, and limits are taken with CAS
+ * rather than a lock. Open notional and positions follow the book through its execution reports,
+ * so the stage must see every report of the RICs it checks.
+ */
+public class PreTradeRisk implements ExecutionReportListener {
+    private static final Logger LOG = LogManager.getLogger(PreTradeRisk.class);
+    // longs per counterparty slot, one cache line
+    private static final int STRIDE = 8;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int NO_SLOT = -1;
+    private final RiskLimits limits;
+    private final Map<String, Integer> slotByCounterParty = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicLongArray openNotional;
+    // per slot: second of the current window in the high half, orders counted in it in the low half
+    private final AtomicLongArray orderRate;
+    private final Map<String, InstrumentRisk> instrumentByRIC = new ConcurrentHashMap<>();
+    // by instrument id, so orders and reports of registered instruments are not looked up by RIC
+    private volatile InstrumentRisk[] instruments = new InstrumentRisk[16];
+
+    /**
+     * Last trade and counterparty positions of one RIC. Positions are only written by the RIC's
+     * matching thread.
+     */
+    private static class InstrumentRisk {
+        private final String RIC;
+        private final int instrumentId;
+        private final AtomicLong lastTradePrice = new AtomicLong();
+        private final AtomicLongArray positions;
+
+        InstrumentRisk(String RIC, int instrumentId, int maxCounterParties) {
+            this.RIC = RIC;
+            this.instrumentId = instrumentId;
+            this.positions = new AtomicLongArray(maxCounterParties);
+        }
+    }
+
+    public PreTradeRisk(RiskLimits limits) {
+        this.limits = limits;
+        this.openNotional = new AtomicLongArray(limits.getMaxCounterParties() * STRIDE);
+        this.orderRate = new AtomicLongArray(limits.getMaxCounterParties() * STRIDE);
+    }
+
+    public RiskLimits getLimits() {
+        return limits;
+    }
+
+    public void addInstrument(String RIC) {
+        addInstrument(0, RIC);
+    }
+
+    /**
+     * @param instrumentId dense id of the RIC, 0 when it has none and must be looked up by RIC
+     */
+    public synchronized void addInstrument(int instrumentId, String RIC) {
+        if (instrumentByRIC.containsKey(RIC)) {
+            return;
+        }
+        InstrumentRisk instrument = new InstrumentRisk(RIC, instrumentId, limits.getMaxCounterParties());
+        instrumentByRIC.put(RIC, instrument);
+        if (instrumentId > 0) {
+            InstrumentRisk[] grown = Arrays.copyOf(instruments, Math.max(instruments.length, instrumentId + 1));
+            grown[instrumentId] = instrument;
+            instruments = grown;
+        }
+    }
+
+    public synchronized void removeInstrument(String RIC) {
+        InstrumentRisk instrument = instrumentByRIC.remove(RIC);
+        if (instrument != null && instrument.instrumentId > 0) {
+            InstrumentRisk[] shrunk = instruments.clone();
+            shrunk[instrument.instrumentId] = null;
+            instruments = shrunk;
+        }
+    }
+
+    /**
+     * By instrument id, falling back to the RIC for orders and books without one.
+     */
+    private InstrumentRisk instrument(int instrumentId, String RIC) {
+        InstrumentRisk[] current = instruments;
+        if (instrumentId > 0 && instrumentId < current.length) {
+            InstrumentRisk instrument = current[instrumentId];
+            if (instrument != null && instrument.RIC.equals(RIC)) {
+                return instrument;
+            }
+        }
+        return instrumentByRIC.get(RIC);
+    }
+
+    /**
+     * Runs every check and, when they all pass, reserves the order's notional against its
+     * counterparty. Orders without a counterparty only get the quantity and price checks.
+     *
+     * @return null when the order may go to the book, otherwise why it must be rejected
+     */
+    public RejectReason check(BaseOrder order) {
+        if (order.getQuantity() > limits.getMaxOrderQuantity()) {
+            return RejectReason.MAX_QUANTITY;
+        }
+        InstrumentRisk instrument = instrument(order.getInstrumentId(), order.getRIC());
+        long lastTradePrice = instrument == null ? 0 : instrument.lastTradePrice.get();
+        if (order.getPriceType() == BaseOrder.PriceType.LIMIT && !isWithinCollar(order.getScaledPrice(), lastTradePrice)) {
+            return RejectReason.PRICE_COLLAR;
+        }
+        CounterParty counterParty = order.getCounterParty();
+        if (counterParty == null) {
+            return null;
+        }
+        int slot = slotOf(counterParty.getName());
+        if (slot == NO_SLOT) {
+            return RejectReason.TOO_MANY_COUNTERPARTIES;
+        }
+        if (!tryCountOrder(slot)) {
+            return RejectReason.THROTTLE;
+        }
+        if (instrument != null && !isWithinPosition(instrument.positions.get(slot), order)) {
+            return RejectReason.POSITION_LIMIT;
+        }
+        long notional = notionalOf(order, lastTradePrice);
+        if (!tryReserve(slot, notional)) {
+            return RejectReason.NOTIONAL_LIMIT;
+        }
+        order.setReservedNotional(notional);
+        return null;
+    }
+
+    /**
+     * Checks an amend of a resting order against the quantity, price and notional limits, and
+     * reserves any notional increase straight away so concurrent amends of one counterparty can not
+     * pass the limit together. The increase is folded into the order's reservation when the book
+     * reports the amend; releaseAmend gives it back when the book refuses it.
+     */
+    public RejectReason checkAmend(BaseOrder order, long price, int quantity) {
+        if (quantity > limits.getMaxOrderQuantity()) {
+            return RejectReason.MAX_QUANTITY;
+        }
+        InstrumentRisk instrument = instrument(order.getInstrumentId(), order.getRIC());
+        if (instrument != null && !isWithinCollar(price, instrument.lastTradePrice.get())) {
+            return RejectReason.PRICE_COLLAR;
+        }
+        long reserved = order.getReservedNotional();
+        if (reserved == 0 || order.getCounterParty() == null) {
+            return null;
+        }
+        int slot = slotOf(order.getCounterParty().getName());
+        long increase = price * quantity - reserved - order.getAmendReservation();
+        if (slot == NO_SLOT || increase <= 0) {
+            return null;
+        }
+        if (!tryReserve(slot, increase)) {
+            return RejectReason.NOTIONAL_LIMIT;
+        }
+        order.addAmendReservation(increase);
+        return null;
+    }
+
+    /**
+     * Gives back what checkAmend reserved for an amend the book refused or never got.
+     */
+    public void releaseAmend(BaseOrder order) {
+        release(order, order.takeAmendReservation());
+    }
+
+    /**
+     * Gives back everything held for an order that left the book, or never reached it, without a
+     * report saying so.
+     */
+    public void release(BaseOrder order) {
+        long reserved = order.getReservedNotional();
+        order.setReservedNotional(0);
+        release(order, reserved + order.takeAmendReservation());
+    }
+
+    private void release(BaseOrder order, long notional) {
+        CounterParty counterParty = order.getCounterParty();
+        if (notional == 0 || counterParty == null) {
+            return;
+        }
+        int slot = slotOf(counterParty.getName());
+        if (slot != NO_SLOT) {
+            openNotional.addAndGet(slot * STRIDE, -notional);
+        }
+    }
+
+    /**
+     * Follows fills, amends, cancels and rejects of checked orders: moves positions and the last
+     * trade price, and resizes or releases the order's notional reservation. Called on the
+     * matching thread, before the reports are handed to the report dispatcher.
+     */
+    @Override
+    public void onExecutionReport(ExecutionReport report) {
+        CounterParty counterParty = report.getCounterParty();
+        int slot = counterParty == null ? NO_SLOT : slotOf(counterParty.getName());
+        if (report.getExecutedQuantity() > 0) {
+            InstrumentRisk instrument = instrument(report.getInstrumentId(), report.getRIC());
+            if (instrument != null) {
+                instrument.lastTradePrice.lazySet(report.getFillPrice());
+                if (slot != NO_SLOT) {
+                    int executed = report.getExecutedQuantity();
+                    instrument.positions.lazySet(slot, instrument.positions.get(slot)
+                            + (report.getSide() == BaseOrder.OrderType.BUY ? executed : -executed));
+                }
+            }
+        }
+        BaseOrder order = report.getOrder();
+        long reserved = order.getReservedNotional();
+        if (reserved == 0 || slot == NO_SLOT) {
+            return;
+        }
+        long target;
+        BaseOrder.OrderStatus status = report.getStatus();
+        boolean done = status == BaseOrder.OrderStatus.EXECUTED || status == BaseOrder.OrderStatus.CANCELLED
+                || status == BaseOrder.OrderStatus.REJECTED;
+        if (done || report.getExecutedQuantity() == 0) {
+            // the end of the order or an amend, either settles what its amends reserved; fills keep it
+            reserved += order.takeAmendReservation();
+        }
+        if (done) {
+            target = 0;
+        } else if (order.getPriceType() == BaseOrder.PriceType.MARKET) {
+            // a market order never rests, its reservation is held until it is done
+            target = reserved;
+        } else {
+            target = report.getPrice() * report.getLeavesQuantity();
+        }
+        order.setReservedNotional(target);
+        if (target != reserved) {
+            openNotional.addAndGet(slot * STRIDE, target - reserved);
+        }
+    }
+
+    /**
+     * Notional of the counterparty's working orders, in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getOpenNotional(String counterPartyName) {
+        Integer slot = slotByCounterParty.get(counterPartyName);
+        return slot == null ? 0 : openNotional.get(slot * STRIDE);
+    }
+
+    /**
+     * Net executed quantity of the counterparty in the RIC, buys positive.
+     */
+    public long getPosition(String RIC, String counterPartyName) {
+        InstrumentRisk instrument = instrumentByRIC.get(RIC);
+        Integer slot = slotByCounterParty.get(counterPartyName);
+        return instrument == null || slot == null ? 0 : instrument.positions.get(slot);
+    }
+
+    private boolean isWithinCollar(long price, long lastTradePrice) {
+        int collarBps = limits.getPriceCollarBps();
+        if (collarBps <= 0 || lastTradePrice <= 0) {
+            return true;
+        }
+        return Math.abs(price - lastTradePrice) * 10_000 <= lastTradePrice * collarBps;
+    }
+
+    private boolean isWithinPosition(long position, BaseOrder order) {
+        long after = order.getType() == BaseOrder.OrderType.BUY
+                ? position + order.getQuantity() : position - order.getQuantity();
+        return Math.abs(after) <= limits.getMaxPosition();
+    }
+
+    /**
+     * Market orders are valued at the last trade, or at their own price before the RIC has traded.
+     */
+    private static long notionalOf(BaseOrder order, long lastTradePrice) {
+        long price = order.getPriceType() == BaseOrder.PriceType.MARKET && lastTradePrice > 0
+                ? lastTradePrice : order.getScaledPrice();
+        return price * order.getQuantity();
+    }
+
+    private boolean tryReserve(int slot, long notional) {
+        int index = slot * STRIDE;
+        while (true) {
+            long current = openNotional.get(index);
+            if (current + notional > limits.getMaxOpenNotional()) {
+                return false;
+            }
+            if (openNotional.compareAndSet(index, current, current + notional)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryCountOrder(int slot) {
+        int maxOrdersPerSecond = limits.getMaxOrdersPerSecond();
+        if (maxOrdersPerSecond <= 0) {
+            return true;
+        }
+        long second = (System.nanoTime() / NANOS_PER_SECOND) & 0xFFFFFFFFL;
+        int index = slot * STRIDE;
+        while (true) {
+            long current = orderRate.get(index);
+            long next;
+            if (current >>> 32 != second) {
+                next = second << 32 | 1;
+            } else if ((int) current >= maxOrdersPerSecond) {
+                return false;
+            } else {
+                next = current + 1;
+            }
+            if (orderRate.compareAndSet(index, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private int slotOf(String counterPartyName) {
+        Integer slot = slotByCounterParty.get(counterPartyName);
+        if (slot == null) {
+            slot = slotByCounterParty.computeIfAbsent(counterPartyName, name -> nextSlot.getAndIncrement());
+        }
+        if (slot >= limits.getMaxCounterParties()) {
+            if (slot == limits.getMaxCounterParties()) {
+                LOG.warn("counterparty limits full, rejecting orders of new counterparty {}", counterPartyName);
+            }
+            return NO_SLOT;
+        }
+        return slot;
+    }
+}
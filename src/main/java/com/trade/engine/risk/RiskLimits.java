@@ -0,0 +1,84 @@
+package com.trade.engine.risk;
+
+import com.trade.engine.order.Price;
+
+/**
+ * Limits enforced by PreTradeRisk. Every limit is off until it is set.
+ */
+public class RiskLimits {
+    private int maxOrderQuantity = Integer.MAX_VALUE;
+    private int priceCollarBps;
+    private long maxOpenNotional = Long.MAX_VALUE;
+    private long maxPosition = Long.MAX_VALUE;
+    private int maxOrdersPerSecond;
+    private int maxCounterParties = 1024;
+
+    public int getMaxOrderQuantity() {
+        return maxOrderQuantity;
+    }
+
+    /**
+     * Largest order quantity in units, not lots.
+     */
+    public void setMaxOrderQuantity(int maxOrderQuantity) {
+        this.maxOrderQuantity = maxOrderQuantity;
+    }
+
+    public int getPriceCollarBps() {
+        return priceCollarBps;
+    }
+
+    /**
+     * Furthest a limit price may be from the RIC's last trade, in basis points. 0 turns the collar off.
+     */
+    public void setPriceCollarBps(int priceCollarBps) {
+        this.priceCollarBps = priceCollarBps;
+    }
+
+    /**
+     * Open order notional allowed per counterparty, in fixed-point units of 1 / Price.SCALE.
+     */
+    public long getMaxOpenNotional() {
+        return maxOpenNotional;
+    }
+
+    /**
+     * Open order notional allowed per counterparty across all RICs, price times quantity in units.
+     */
+    public void setMaxOpenNotional(double maxOpenNotional) {
+        this.maxOpenNotional = Price.toScaled(maxOpenNotional);
+    }
+
+    public long getMaxPosition() {
+        return maxPosition;
+    }
+
+    /**
+     * Largest net position in units a counterparty may reach in one RIC if an order filled completely.
+     */
+    public void setMaxPosition(long maxPosition) {
+        this.maxPosition = maxPosition;
+    }
+
+    public int getMaxOrdersPerSecond() {
+        return maxOrdersPerSecond;
+    }
+
+    /**
+     * Orders accepted per counterparty per second. 0 turns the throttle off.
+     */
+    public void setMaxOrdersPerSecond(int maxOrdersPerSecond) {
+        this.maxOrdersPerSecond = maxOrdersPerSecond;
+    }
+
+    public int getMaxCounterParties() {
+        return maxCounterParties;
+    }
+
+    /**
+     * Counterparties whose limits can be tracked, their counters are preallocated.
+     */
+    public void setMaxCounterParties(int maxCounterParties) {
+        this.maxCounterParties = maxCounterParties;
+    }
+}
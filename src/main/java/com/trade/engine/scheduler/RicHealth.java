@@ -0,0 +1,80 @@
+package com.trade.engine.scheduler;
+
+/**
+ * Point in time supervision figures for one RIC's matching.
+ */
+public class RicHealth {
+
+    public enum Status {
+        RUNNING,
+        // failed and waiting out its restart backoff
+        RESTARTING,
+        // the engine shut down, no more restarts
+        STOPPED
+    }
+
+    private final String RIC;
+    private final Status status;
+    private final long restarts;
+    private final int consecutiveFailures;
+    private final Throwable lastFailure;
+    private final long lastFailureMillis;
+
+    RicHealth(String RIC, Status status, long restarts, int consecutiveFailures, Throwable lastFailure,
+              long lastFailureMillis) {
+        this.RIC = RIC;
+        this.status = status;
+        this.restarts = restarts;
+        this.consecutiveFailures = consecutiveFailures;
+        this.lastFailure = lastFailure;
+        this.lastFailureMillis = lastFailureMillis;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isHealthy() {
+        return status == Status.RUNNING;
+    }
+
+    public long getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Failures since the matching last stayed up for the longest backoff, 0 when healthy.
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Null when the matching never failed.
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Wall clock time of the last failure, 0 when the matching never failed.
+     */
+    public long getLastFailureMillis() {
+        return lastFailureMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RicHealth{" +
+                "RIC=" + RIC +
+                ", status=" + status +
+                ", restarts=" + restarts +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", lastFailure=" + lastFailure +
+                '}';
+    }
+}
@@ -0,0 +1,307 @@
+package com.trade.engine.scheduler;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs any number of RicTasks on a fixed set of worker threads. Each RIC is pinned to a home
+ * worker by consistent hashing, and only occupies a thread while it has work. Idle workers steal
+ * queued tasks from busy ones, and a stolen task moves its home to the thief, so hot instruments
+ * spread themselves over the pool.
+ */
+public class RicScheduler {
+    private static final Logger LOG = LogManager.getLogger(RicScheduler.class);
+    private static final int VIRTUAL_NODES = 64;
+
+    private final Worker[] workers;
+    private final TreeMap<Integer, Integer> hashRing = new TreeMap<>();
+    private final AtomicInteger parkedWorkers = new AtomicInteger();
+    private volatile boolean running;
+
+    public RicScheduler(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Scheduler needs at least one worker : " + workerCount);
+        }
+        workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                hashRing.put(mix(i * 31 + v * 1_000_003), i);
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the workers once they finish their current task. Queued tasks are not run.
+     */
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            worker.join(remaining);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Pins the task to its consistent-hash home worker.
+     */
+    public void register(RicTask task) {
+        task.homeWorker = homeWorkerOf(task.getRIC());
+    }
+
+    public int homeWorkerOf(String RIC) {
+        Map.Entry<Integer, Integer> node = hashRing.ceilingEntry(mix(RIC.hashCode()));
+        return node != null ? node.getValue() : hashRing.firstEntry().getValue();
+    }
+
+    /**
+     * Makes the task run once more on some worker. Cheap when it is already queued or running.
+     */
+    public void signal(RicTask task) {
+        while (true) {
+            int state = task.state.get();
+            if (state == RicTask.IDLE) {
+                if (task.state.compareAndSet(RicTask.IDLE, RicTask.SCHEDULED)) {
+                    enqueue(task);
+                    return;
+                }
+            } else if (state == RicTask.RUNNING) {
+                if (task.state.compareAndSet(RicTask.RUNNING, RicTask.RUNNING_SIGNALLED)) {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the task from being scheduled again. A run already in progress is waited for, so the
+     * task does not touch its RIC once this returns; must not be called from the task itself.
+     */
+    public void cancel(RicTask task) {
+        while (true) {
+            int state = task.state.get();
+            if (state == RicTask.RUNNING || state == RicTask.RUNNING_SIGNALLED) {
+                Thread.yield();
+            } else if (state == RicTask.CANCELLED || task.state.compareAndSet(state, RicTask.CANCELLED)) {
+                return;
+            }
+        }
+    }
+
+    public List<WorkerStats> getWorkerStats() {
+        List<WorkerStats> stats = new ArrayList<>(workers.length);
+        long now = System.nanoTime();
+        for (Worker worker : workers) {
+            long elapsed = worker.startNanos == 0 ? 0 : now - worker.startNanos;
+            stats.add(new WorkerStats(worker.index, worker.busyNanos.get(), elapsed, worker.runs.get(),
+                    worker.steals.get(), worker.queued.get()));
+        }
+        return stats;
+    }
+
+    private static void notifyFailure(RicTask task, Throwable failure) {
+        try {
+            task.onFailure(failure);
+        } catch (RuntimeException ex) {
+            LOG.error("failure callback failed for :{}", task.getRIC(), ex);
+        }
+    }
+
+    private void enqueue(RicTask task) {
+        int home = task.homeWorker;
+        if (home < 0) {
+            home = homeWorkerOf(task.getRIC());
+            task.homeWorker = home;
+        }
+        Worker worker = workers[home];
+        worker.push(task);
+        if (worker.parked) {
+            LockSupport.unpark(worker);
+        } else if (parkedWorkers.get() > 0) {
+            wakeParkedWorker();
+        }
+    }
+
+    private boolean hasQueuedTasks() {
+        for (Worker worker : workers) {
+            if (worker.queued.get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void wakeParkedWorker() {
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    private static int mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        h *= 0xc2b2ae35;
+        h ^= (h >>> 16);
+        return h;
+    }
+
+    private class Worker extends Thread {
+        private final int index;
+        private final ConcurrentLinkedDeque<RicTask> queue = new ConcurrentLinkedDeque<>();
+        // queue length, as ConcurrentLinkedDeque.size() walks the whole deque
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong steals = new AtomicLong();
+        private volatile boolean parked;
+        private volatile long startNanos;
+
+        Worker(int index) {
+            super("RicScheduler-worker-" + index);
+            this.index = index;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            startNanos = System.nanoTime();
+            while (running) {
+                RicTask task = pollFirst();
+                if (task == null) {
+                    task = steal();
+                }
+                if (task == null) {
+                    park();
+                    continue;
+                }
+                execute(task);
+            }
+        }
+
+        private RicTask steal() {
+            Worker victim = null;
+            int victimSize = 0;
+            for (Worker worker : workers) {
+                if (worker != this) {
+                    int size = worker.queued.get();
+                    if (size > victimSize) {
+                        victim = worker;
+                        victimSize = size;
+                    }
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            RicTask task = victim.pollLast();
+            if (task != null) {
+                task.homeWorker = index;
+                steals.incrementAndGet();
+            }
+            return task;
+        }
+
+        private void park() {
+            parked = true;
+            parkedWorkers.incrementAndGet();
+            try {
+                // any queue, not just its own: enqueue only wakes a worker already counted as parked
+                if (running && !hasQueuedTasks()) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                parkedWorkers.decrementAndGet();
+                parked = false;
+            }
+        }
+
+        private void execute(RicTask task) {
+            if (!task.state.compareAndSet(RicTask.SCHEDULED, RicTask.RUNNING)) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                task.failure = ex;
+                task.state.set(RicTask.FAILED);
+                LOG.error("order processing failed for :{}", task.getRIC(), ex);
+                notifyFailure(task, ex);
+                return;
+            } finally {
+                busyNanos.addAndGet(System.nanoTime() - start);
+                runs.incrementAndGet();
+            }
+            if (!task.state.compareAndSet(RicTask.RUNNING, RicTask.IDLE)
+                    && task.state.compareAndSet(RicTask.RUNNING_SIGNALLED, RicTask.SCHEDULED)) {
+                push(task);
+            }
+        }
+
+        void push(RicTask task) {
+            // counted first, so the count never drops below the tasks actually queued
+            queued.incrementAndGet();
+            queue.offerLast(task);
+        }
+
+        private RicTask pollFirst() {
+            RicTask task = queue.pollFirst();
+            if (task != null) {
+                queued.decrementAndGet();
+            }
+            return task;
+        }
+
+        private RicTask pollLast() {
+            RicTask task = queue.pollLast();
+            if (task != null) {
+                queued.decrementAndGet();
+            }
+            return task;
+        }
+    }
+}
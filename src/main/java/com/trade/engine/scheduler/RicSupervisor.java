@@ -0,0 +1,153 @@
+package com.trade.engine.scheduler;
+
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restarts the matching of a RIC when it dies. Whatever runs the matching reports its own failure
+ * through onFailure from the failing thread, so nothing polls and a healthy RIC costs nothing. The
+ * first failure restarts straight away on the calling thread; each further failure within the
+ * longest backoff of the last restart doubles the wait, so a RIC that keeps failing cannot spin.
+ * Delayed restarts run on one daemon thread, created on the first of them.
+ */
+public class RicSupervisor {
+    private static final Logger LOG = LogManager.getLogger(RicSupervisor.class);
+
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Map<String, Supervised> supervisedByRIC = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService restartExecutor;
+    private volatile boolean running = true;
+
+    public RicSupervisor(long initialBackoff, long maxBackoff, TimeUnit unit) {
+        if (initialBackoff <= 0 || maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("Invalid restart backoff : " + initialBackoff + " to " + maxBackoff);
+        }
+        this.initialBackoffNanos = unit.toNanos(initialBackoff);
+        this.maxBackoffNanos = unit.toNanos(maxBackoff);
+        this.restartExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RicSupervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param restart brings the RIC's matching back after a failure; may throw, which counts as
+     *                another failure
+     */
+    public void supervise(String RIC, Runnable restart) {
+        supervisedByRIC.put(RIC, new Supervised(RIC, restart));
+    }
+
+    public void unsupervise(String RIC) {
+        supervisedByRIC.remove(RIC);
+    }
+
+    /**
+     * Stops restarting anything, including restarts still waiting out their backoff.
+     */
+    public void shutdown() {
+        running = false;
+        restartExecutor.shutdownNow();
+    }
+
+    /**
+     * Completion callback of a failed run. Does nothing for a RIC that is not supervised.
+     */
+    public void onFailure(String RIC, Throwable failure) {
+        Supervised supervised = supervisedByRIC.get(RIC);
+        if (supervised == null || !running) {
+            return;
+        }
+        long backoffNanos;
+        synchronized (supervised) {
+            long now = System.nanoTime();
+            if (now - supervised.lastRestartNanos >= maxBackoffNanos) {
+                supervised.consecutiveFailures = 0;
+            }
+            supervised.consecutiveFailures++;
+            supervised.lastFailure = failure;
+            supervised.lastFailureMillis = System.currentTimeMillis();
+            supervised.status = RicHealth.Status.RESTARTING;
+            backoffNanos = backoffNanos(supervised.consecutiveFailures);
+        }
+        if (backoffNanos == 0) {
+            restart(supervised);
+            return;
+        }
+        LOG.warn("restarting order processing for :{} in {} us", RIC,
+                TimeUnit.NANOSECONDS.toMicros(backoffNanos));
+        try {
+            restartExecutor.schedule(() -> restart(supervised), backoffNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException exception) {
+            // shut down in the meantime
+            LOG.warn("not restarting order processing for :{} : {}", RIC, exception.getMessage());
+        }
+    }
+
+    private long backoffNanos(int consecutiveFailures) {
+        if (consecutiveFailures <= 1) {
+            return 0;
+        }
+        return Math.min(initialBackoffNanos << Math.min(consecutiveFailures - 2, 30), maxBackoffNanos);
+    }
+
+    private void restart(Supervised supervised) {
+        if (!running || supervisedByRIC.get(supervised.RIC) != supervised) {
+            return;
+        }
+        synchronized (supervised) {
+            supervised.restarts++;
+            supervised.lastRestartNanos = System.nanoTime();
+            supervised.status = RicHealth.Status.RUNNING;
+        }
+        try {
+            supervised.restart.run();
+            LOG.info("restarted order processing for :{}", supervised.RIC);
+        } catch (RuntimeException exception) {
+            LOG.error("restart of order processing failed for :{}", supervised.RIC, exception);
+            onFailure(supervised.RIC, exception);
+        }
+    }
+
+    /**
+     * Null when the RIC is not supervised.
+     */
+    public RicHealth getHealth(String RIC) {
+        Supervised supervised = supervisedByRIC.get(RIC);
+        if (supervised == null) {
+            return null;
+        }
+        synchronized (supervised) {
+            RicHealth.Status status = running ? supervised.status : RicHealth.Status.STOPPED;
+            int consecutiveFailures = status == RicHealth.Status.RUNNING
+                    && System.nanoTime() - supervised.lastRestartNanos >= maxBackoffNanos
+                    ? 0 : supervised.consecutiveFailures;
+            return new RicHealth(RIC, status, supervised.restarts, consecutiveFailures, supervised.lastFailure,
+                    supervised.lastFailureMillis);
+        }
+    }
+
+    private static final class Supervised {
+        final String RIC;
+        final Runnable restart;
+        RicHealth.Status status = RicHealth.Status.RUNNING;
+        long restarts;
+        int consecutiveFailures;
+        long lastRestartNanos = System.nanoTime();
+        Throwable lastFailure;
+        long lastFailureMillis;
+
+        Supervised(String RIC, Runnable restart) {
+            this.RIC = RIC;
+            this.restart = restart;
+        }
+    }
+}
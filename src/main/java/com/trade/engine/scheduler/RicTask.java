@@ -0,0 +1,57 @@
+package com.trade.engine.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit of work for one RIC, run by a RicScheduler worker whenever it is signalled. A task is
+ * queued at most once at a time; signals that arrive while it runs make it run once more.
+ */
+public abstract class RicTask {
+    static final int IDLE = 0;
+    static final int SCHEDULED = 1;
+    static final int RUNNING = 2;
+    static final int RUNNING_SIGNALLED = 3;
+    static final int FAILED = 4;
+    static final int CANCELLED = 5;
+
+    private final String RIC;
+    final AtomicInteger state = new AtomicInteger(IDLE);
+    volatile int homeWorker = -1;
+    volatile Throwable failure;
+
+    protected RicTask(String RIC) {
+        this.RIC = RIC;
+    }
+
+    public String getRIC() {
+        return RIC;
+    }
+
+    /**
+     * Does the work for one signal. Must not block.
+     */
+    protected abstract void run();
+
+    /**
+     * Completion callback of a run that threw, called on the worker once the task is FAILED. A
+     * failed task never runs again, so this is where a replacement gets started.
+     */
+    protected void onFailure(Throwable failure) {
+    }
+
+    public boolean isFailed() {
+        return state.get() == FAILED;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public int getHomeWorker() {
+        return homeWorker;
+    }
+}
@@ -0,0 +1,64 @@
+package com.trade.engine.scheduler;
+
+/**
+ * Point in time utilization figures for one scheduler worker.
+ */
+public class WorkerStats {
+    private final int worker;
+    private final long busyNanos;
+    private final long elapsedNanos;
+    private final long runs;
+    private final long steals;
+    private final int queuedTasks;
+
+    WorkerStats(int worker, long busyNanos, long elapsedNanos, long runs, long steals, int queuedTasks) {
+        this.worker = worker;
+        this.busyNanos = busyNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.runs = runs;
+        this.steals = steals;
+        this.queuedTasks = queuedTasks;
+    }
+
+    public int getWorker() {
+        return worker;
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Fraction of wall time since the worker started spent running tasks, between 0 and 1.
+     */
+    public double getUtilization() {
+        return elapsedNanos <= 0 ? 0 : (double) busyNanos / elapsedNanos;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getSteals() {
+        return steals;
+    }
+
+    public int getQueuedTasks() {
+        return queuedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerStats{" +
+                "worker=" + worker +
+                ", utilization=" + String.format("%.4f", getUtilization()) +
+                ", runs=" + runs +
+                ", steals=" + steals +
+                ", queuedTasks=" + queuedTasks +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.trade.engine.sequencer;
+
+import com.trade.engine.order.BaseOrder;
+
+/**
+ * Preallocated ring buffer slot describing one command against a RIC's book.
+ */
+public class OrderCommand {
+    public static enum CommandType {NEW, CANCEL, AMEND};
+
+    private CommandType type;
+    private BaseOrder order;
+    private long price;
+    private int quantity;
+
+    void set(CommandType type, BaseOrder order, long price, int quantity) {
+        this.type = type;
+        this.order = order;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    void clear() {
+        this.order = null;
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public BaseOrder getOrder() {
+        return order;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,242 @@
+package com.trade.engine.sequencer;
+
+import com.trade.engine.concurrent.RingBuffer;
+import com.trade.engine.concurrent.WaitStrategy;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.orderexecution.OrderProcessor;
+import com.trade.engine.orderexecution.OrderProcessorNotActiveException;
+import com.trade.engine.log.LogManager;
+import com.trade.engine.log.Logger;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Single-writer front end of an OrderProcessor. Any thread may publish commands into the ring
+ * buffer; one dedicated consumer thread applies them to the book in sequence order and runs the
+ * matcher once per drained batch, so producers never contend on the processor lock.
+ */
+public class OrderSequencer implements Runnable {
+    private static final Logger LOG = LogManager.getLogger(OrderSequencer.class);
+    private final String RIC;
+    private final OrderProcessor orderProcessor;
+    private final RingBuffer<OrderCommand> ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private volatile boolean running;
+    private final BooleanSupplier isRunning = () -> running;
+    private Thread consumerThread;
+    private volatile Throwable failure;
+    // read by the consumer it starts, so visible through Thread.start
+    private boolean restarted;
+    private volatile Consumer<Throwable> failureHandler;
+
+    public OrderSequencer(String RIC, OrderProcessor orderProcessor, int bufferSize, WaitStrategy waitStrategy) {
+        this.RIC = RIC;
+        this.orderProcessor = orderProcessor;
+        this.ringBuffer = new RingBuffer<>(bufferSize, OrderCommand::new);
+        this.waitStrategy = waitStrategy;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startConsumer();
+    }
+
+    /**
+     * Reactivates the processor and starts a new consumer after the previous one died from an
+     * exception. It carries on from the first command the dead one had not released, so nothing
+     * already published is lost.
+     *
+     * @return false when stopped or the consumer did not fail
+     */
+    public synchronized boolean restart() {
+        if (!running || failure == null) {
+            return false;
+        }
+        failure = null;
+        orderProcessor.setActive(true);
+        restarted = true;
+        startConsumer();
+        return true;
+    }
+
+    private void startConsumer() {
+        consumerThread = new Thread(this, "OrderSequencer-" + RIC);
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    /**
+     * Called on the consumer thread when it dies from an exception, after which restart() brings
+     * up a new one.
+     */
+    public void setFailureHandler(Consumer<Throwable> failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Stops the consumer once it has applied every command already claimed. Publishing after it
+     * stopped throws OrderProcessorNotActiveException.
+     */
+    public synchronized void stop() {
+        running = false;
+        waitStrategy.signal();
+    }
+
+    /**
+     * Waits for the consumer to finish draining after stop().
+     *
+     * @return false when it is still running after the timeout
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = consumerThread;
+        }
+        if (thread != null) {
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+            return !thread.isAlive();
+        }
+        return true;
+    }
+
+    public void submit(BaseOrder order) {
+        publish(OrderCommand.CommandType.NEW, order, 0, 0);
+    }
+
+    /**
+     * Publishes the orders as one or more contiguous runs of ring slots, one signal per run.
+     */
+    public void submitAll(List<BaseOrder> orders) {
+        int published = 0;
+        while (published < orders.size()) {
+            int batchSize = Math.min(orders.size() - published, ringBuffer.getBufferSize());
+            long hi = claim(batchSize);
+            long lo = hi - batchSize + 1;
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                ringBuffer.get(sequence).set(OrderCommand.CommandType.NEW, orders.get(published++), 0, 0);
+            }
+            ringBuffer.publish(lo, hi);
+            waitStrategy.signal();
+        }
+    }
+
+    public void cancel(BaseOrder order) {
+        publish(OrderCommand.CommandType.CANCEL, order, 0, 0);
+    }
+
+    public void amend(BaseOrder order, long price, int quantity) {
+        publish(OrderCommand.CommandType.AMEND, order, price, quantity);
+    }
+
+    private void publish(OrderCommand.CommandType type, BaseOrder order, long price, int quantity) {
+        long sequence = claim(1);
+        ringBuffer.get(sequence).set(type, order, price, quantity);
+        ringBuffer.publish(sequence);
+        waitStrategy.signal();
+    }
+
+    public long getPendingCommands() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Claims n slots, waiting for room only while the consumer is running. A claim that raced
+     * with stop() is published empty, so a consumer still draining does not wait for it, and
+     * refused.
+     */
+    private long claim(int n) {
+        long hi = ringBuffer.next(n, isRunning);
+        if (hi < 0) {
+            throw new OrderProcessorNotActiveException("Order sequencer stopped for RIC :" + RIC);
+        }
+        if (!running) {
+            ringBuffer.publish(hi - n + 1, hi);
+            waitStrategy.signal();
+            throw new OrderProcessorNotActiveException("Order sequencer stopped for RIC :" + RIC);
+        }
+        return hi;
+    }
+
+    @Override
+    public void run() {
+        LOG.info("start sequenced order processing for:{}", RIC);
+        try {
+            consume();
+        } catch (RuntimeException | Error ex) {
+            LOG.error("sequenced order processing failed for :{}", RIC, ex);
+            failure = ex;
+            Consumer<Throwable> handler = failureHandler;
+            if (handler != null) {
+                handler.accept(ex);
+            }
+            return;
+        }
+        LOG.info("stop sequenced order processing for:{}", RIC);
+    }
+
+    private void consume() {
+        if (restarted) {
+            // the consumer that died may have left the book crossed
+            matchOrders();
+        }
+        long nextSequence = ringBuffer.getConsumerSequence() + 1;
+        int idleCount = 0;
+        while (true) {
+            long available = ringBuffer.getHighestPublished(nextSequence);
+            if (available < nextSequence) {
+                // a claim made before stop() is still to be published
+                if (!running && ringBuffer.getCursor() < nextSequence) {
+                    break;
+                }
+                idleCount = waitStrategy.idle(idleCount, ringBuffer, nextSequence);
+                continue;
+            }
+            idleCount = 0;
+            for (long sequence = nextSequence; sequence <= available; sequence++) {
+                OrderCommand command = ringBuffer.get(sequence);
+                if (command.getOrder() == null) {
+                    // refused after stop()
+                    continue;
+                }
+                try {
+                    apply(command);
+                } catch (RuntimeException ex) {
+                    LOG.error("error applying command for :{}", RIC, ex);
+                } finally {
+                    command.clear();
+                }
+            }
+            ringBuffer.release(available);
+            nextSequence = available + 1;
+            matchOrders();
+        }
+    }
+
+    private void matchOrders() {
+        int executedCount = orderProcessor.executeAllMatchedOrder();
+        if (executedCount > 0) {
+            LOG.info("end order processing for :{}, executed fills : {}", RIC, executedCount);
+        }
+    }
+
+    private void apply(OrderCommand command) {
+        BaseOrder order = command.getOrder();
+        switch (command.getType()) {
+            case NEW:
+                orderProcessor.submitOrder(order);
+                break;
+            case CANCEL:
+                orderProcessor.cancelOrder(order);
+                break;
+            case AMEND:
+                orderProcessor.modifyOrder(order, command.getPrice(), command.getQuantity());
+                break;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.AuctionResult;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.orderexecution.SessionState;
+import com.trade.engine.report.RejectReason;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * During an auction call orders collect in a crossed book, and leaving the call uncrosses it at
+ * the single price that executes the most volume.
+ */
+public class AuctionTest {
+
+    static final String RIC = ".N225";
+
+    private OrderProcessorImpl orderProcessor;
+    private Set<Double> fillPrices;
+    private long filledQuantity;
+    private List<RejectReason> rejects;
+
+    @Before
+    public void setup() {
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        fillPrices = new HashSet<>();
+        rejects = new ArrayList<>();
+        orderProcessor.setExecutionReportListener(report -> {
+            if (report.getExecutedQuantity() > 0) {
+                fillPrices.add(Price.toDouble(report.getFillPrice()));
+                filledQuantity += report.getExecutedQuantity();
+            }
+            if (report.getRejectReason() != null) {
+                rejects.add(report.getRejectReason());
+            }
+        });
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void openingUncrossExecutesTheMostVolumeAtOnePrice() {
+        orderProcessor.setSessionState(SessionState.PRE_OPEN);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 3, 10.10, 100));
+        BuyOrder bidAt1005 = new BuyOrder(RIC, 2, 10.05, 100);
+        orderProcessor.submitOrder(bidAt1005);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 10.00, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 2, 9.95, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 2, 10.05, 100));
+        SellOrder askAt1010 = new SellOrder(RIC, 3, 10.10, 100);
+        orderProcessor.submitOrder(askAt1010);
+        Assert.assertEquals(0, orderProcessor.executeAllMatchedOrder());
+
+        AuctionResult indicative = orderProcessor.getIndicativeUncross();
+        Assert.assertEquals(Price.toScaled(10.05), indicative.getScaledPrice());
+        Assert.assertEquals(400, indicative.getVolume());
+        Assert.assertEquals(100, indicative.getBuySurplus());
+        Assert.assertEquals(0, indicative.getSellSurplus());
+        Assert.assertTrue(fillPrices.isEmpty());
+
+        AuctionResult uncross = orderProcessor.setSessionState(SessionState.CONTINUOUS);
+        Assert.assertEquals(indicative.getScaledPrice(), uncross.getScaledPrice());
+        Assert.assertEquals(SessionState.CONTINUOUS, orderProcessor.getSessionState());
+        Assert.assertEquals(Collections.singleton(10.05), fillPrices);
+        Assert.assertEquals(800, filledQuantity);
+        // time priority within the level: the 10.05 bid keeps what the uncross did not need
+        Assert.assertEquals(bidAt1005, orderProcessor.peekBuyOrder());
+        Assert.assertEquals(100, bidAt1005.getQuantity());
+        Assert.assertEquals(askAt1010, orderProcessor.peekSellOrder());
+        Assert.assertFalse(orderProcessor.getIndicativeUncross().isMatch());
+    }
+
+    @Test
+    public void tieOnVolumeAndSurplusGoesToTheSideWithTheSurplus() {
+        orderProcessor.setSessionState(SessionState.PRE_OPEN);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 2, 10.10, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 1, 10.00, 100));
+
+        Assert.assertEquals(Price.toScaled(10.10), orderProcessor.getIndicativeUncross().getScaledPrice());
+    }
+
+    @Test
+    public void fullTieGoesToThePriceClosestToTheLastTrade() {
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 10.10, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 1, 10.10, 100));
+        orderProcessor.executeAllMatchedOrder();
+
+        orderProcessor.setSessionState(SessionState.PRE_CLOSE);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 10.10, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 1, 9.90, 100));
+        AuctionResult uncross = orderProcessor.setSessionState(SessionState.CLOSED);
+
+        Assert.assertEquals(Price.toScaled(10.10), uncross.getScaledPrice());
+        Assert.assertEquals(100, uncross.getVolume());
+        Assert.assertNull(orderProcessor.peekBuyOrder());
+    }
+
+    @Test
+    public void callOnlyAcceptsOrdersThatCanRest() {
+        orderProcessor.setSessionState(SessionState.PRE_OPEN);
+        BuyOrder ioc = new BuyOrder(RIC, 1, 10.10, 100);
+        ioc.setTimeInForce(BaseOrder.TimeInForce.IOC);
+        orderProcessor.submitOrder(ioc);
+        SellOrder market = new SellOrder(RIC, 1, 10.10, 100);
+        market.setPriceType(BaseOrder.PriceType.MARKET);
+        orderProcessor.submitOrder(market);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.REJECTED, ioc.getOrderStatus());
+        Assert.assertEquals(BaseOrder.OrderStatus.REJECTED, market.getOrderStatus());
+        Assert.assertEquals(RejectReason.AUCTION_CALL, rejects.get(0));
+        Assert.assertFalse(orderProcessor.setSessionState(SessionState.CONTINUOUS).isMatch());
+    }
+
+    @Test
+    public void closedSessionRejectsOrdersUntilTheNextOpeningCall() {
+        orderProcessor.setSessionState(SessionState.PRE_CLOSE);
+        orderProcessor.setSessionState(SessionState.CLOSED);
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 10.10, 100);
+        orderProcessor.submitOrder(buyOrder);
+        Assert.assertEquals(RejectReason.NOT_TRADING, rejects.get(0));
+
+        try {
+            orderProcessor.setSessionState(SessionState.CONTINUOUS);
+            Assert.fail("CLOSED can only move to PRE_OPEN");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals(SessionState.CLOSED, orderProcessor.getSessionState());
+        }
+        orderProcessor.setSessionState(SessionState.PRE_OPEN);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 10.10, 100));
+        Assert.assertEquals(1, orderProcessor.getRestingOrderCount());
+    }
+}
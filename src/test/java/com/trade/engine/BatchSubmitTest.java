@@ -0,0 +1,102 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.BatchSubmitResult;
+import com.trade.engine.report.ExecutionReport;
+import com.trade.engine.report.RejectReason;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A batch is checked order by order, and the whole accepted batch is booked before the one
+ * matching pass that follows it.
+ */
+public class BatchSubmitTest {
+
+    static final String RIC = ".N225";
+
+    private TradeBookingEngineImpl engine;
+    // contra order id of each filled order, reject reason of each rejected one
+    private final Map<Long, Long> contraOrderIds = new ConcurrentHashMap<>();
+    private final Map<Long, RejectReason> rejectReasons = new ConcurrentHashMap<>();
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void mixedBatchInEveryMatchingMode() throws InterruptedException {
+        for (MatchingMode matchingMode : MatchingMode.values()) {
+            start(matchingMode);
+            SellOrder firstSell = new SellOrder(RIC, 1, 20.30, 100);
+            BuyOrder buy = new BuyOrder(RIC, 1, 20.35, 100);
+            SellOrder betterSell = new SellOrder(RIC, 1, 20.25, 100);
+            BuyOrder offTick = new BuyOrder(RIC, 1, 20.32, 100);
+            BuyOrder oddLot = new BuyOrder(RIC, 1, 20.00, 50);
+            List<BaseOrder> batch = Arrays.asList(firstSell, buy, betterSell, offTick, oddLot);
+
+            BatchSubmitResult result = engine.submitOrders(RIC, batch);
+
+            Assert.assertEquals(5, result.size());
+            Assert.assertEquals(3, result.getAcceptedCount());
+            Assert.assertTrue(result.isAccepted(0));
+            Assert.assertTrue(result.isAccepted(1));
+            Assert.assertTrue(result.isAccepted(2));
+            Assert.assertFalse(result.isAccepted(3));
+            Assert.assertFalse(result.isAccepted(4));
+
+            await(() -> contraOrderIds.containsKey(buy.getId()) && rejectReasons.size() == 2);
+            // matched once the whole batch was in: order by order the buy would have taken the first sell
+            Assert.assertEquals(matchingMode.name(), betterSell.getId(), contraOrderIds.get(buy.getId()).longValue());
+            Assert.assertSame(firstSell, engine.peekSellOrder(RIC));
+            Assert.assertEquals(RejectReason.INVALID_ORDER, rejectReasons.get(offTick.getId()));
+            Assert.assertEquals(RejectReason.INVALID_ORDER, rejectReasons.get(oddLot.getId()));
+            engine.shutdown();
+            engine = null;
+        }
+    }
+
+    private void start(MatchingMode matchingMode) {
+        contraOrderIds.clear();
+        rejectReasons.clear();
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(1);
+        config.setMatchingMode(matchingMode);
+        config.setConsoleReports(false);
+        engine = new TradeBookingEngineImpl(config);
+        engine.addExecutionReportListener(this::onExecutionReport);
+        engine.start();
+        engine.register(RIC, 0.05);
+    }
+
+    private void onExecutionReport(ExecutionReport report) {
+        if (report.getExecutedQuantity() > 0) {
+            contraOrderIds.put(report.getOrderId(), report.getContraOrderId());
+        }
+        if (report.getRejectReason() != null) {
+            rejectReasons.put(report.getOrderId(), report.getRejectReason());
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
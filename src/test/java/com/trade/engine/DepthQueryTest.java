@@ -0,0 +1,102 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderbook.BookDepth;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Depth queries read the published top levels without the processor lock.
+ */
+public class DepthQueryTest {
+
+    static final String RIC = ".N225";
+
+    private OrderProcessorImpl orderProcessor;
+
+    @Before
+    public void setup() {
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05), 3);
+        orderProcessor.setExecutionReportListener(report -> { });
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void aggregatesLevelsBestFirst() {
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.10, 100));
+        orderProcessor.submitOrder(new BuyOrder(RIC, 2, 20.15, 100));
+        orderProcessor.submitOrder(new BuyOrder(RIC, 3, 20.15, 100));
+        SellOrder sellOrder = new SellOrder(RIC, 4, 20.30, 100);
+        orderProcessor.submitOrder(sellOrder);
+
+        BookDepth depth = orderProcessor.getDepth(5);
+        Assert.assertEquals(2, depth.getBidLevelCount());
+        Assert.assertEquals(Price.toScaled(20.15), depth.getBidPrice(0));
+        Assert.assertEquals(500, depth.getBidQuantity(0));
+        Assert.assertEquals(2, depth.getBidOrderCount(0));
+        Assert.assertEquals(Price.toScaled(20.10), depth.getBidPrice(1));
+        Assert.assertEquals(1, depth.getAskLevelCount());
+        Assert.assertEquals(400, depth.getAskQuantity(0));
+
+        orderProcessor.cancelOrder(sellOrder);
+        Assert.assertEquals(0, orderProcessor.getDepth(5).getAskLevelCount());
+    }
+
+    @Test
+    public void fillsAndLevelsBeyondTheDepthAreTracked() {
+        for (int i = 0; i < 5; i++) {
+            orderProcessor.submitOrder(new SellOrder(RIC, 1, 20.30 + i * 0.05, 100));
+        }
+        BookDepth depth = orderProcessor.getDepth(10);
+        Assert.assertEquals(3, depth.getAskLevelCount());
+        Assert.assertEquals(Price.toScaled(20.40), depth.getAskPrice(2));
+
+        orderProcessor.submitOrder(new BuyOrder(RIC, 2, 20.35, 100));
+        orderProcessor.executeAllMatchedOrder();
+        depth = orderProcessor.getDepth(10);
+        Assert.assertEquals(3, depth.getAskLevelCount());
+        Assert.assertEquals(Price.toScaled(20.40), depth.getAskPrice(0));
+        Assert.assertEquals(Price.toScaled(20.50), depth.getAskPrice(2));
+        Assert.assertEquals(0, depth.getBidLevelCount());
+    }
+
+    @Test
+    public void readersNeverSeeATornSnapshot() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            BuyOrder[] orders = new BuyOrder[20];
+            int i = 0;
+            while (running.get()) {
+                int slot = i++ % orders.length;
+                if (orders[slot] != null) {
+                    orderProcessor.cancelOrder(orders[slot]);
+                }
+                orders[slot] = new BuyOrder(RIC, 1, 20.00 + (slot % 5) * 0.05, 100);
+                orderProcessor.submitOrder(orders[slot]);
+            }
+        });
+        writer.start();
+        try {
+            long deadline = System.currentTimeMillis() + 500;
+            while (System.currentTimeMillis() < deadline) {
+                BookDepth depth = orderProcessor.getDepth(3);
+                for (int level = 0; level < depth.getBidLevelCount(); level++) {
+                    Assert.assertEquals(depth.getBidOrderCount(level) * 100L, depth.getBidQuantity(level));
+                    if (level > 0) {
+                        Assert.assertTrue(depth.getBidPrice(level) < depth.getBidPrice(level - 1));
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.RicNotRegisteredException;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.concurrent.WaitStrategyType;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.orderexecution.OrderProcessorNotActiveException;
+import com.trade.engine.risk.RiskLimits;
+import com.trade.engine.sequencer.OrderSequencer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unregister and shutdown apply what was already submitted and deliver its reports before they
+ * return, and a RIC can be registered again straight away.
+ */
+public class EngineLifecycleTest {
+
+    static final String RIC = ".N225";
+
+    private TradeBookingEngineImpl engine;
+    private RiskLimits riskLimits;
+    private final AtomicInteger executedReports = new AtomicInteger();
+
+    private void start(MatchingMode matchingMode) {
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(2);
+        config.setMatchingMode(matchingMode);
+        config.setConsoleReports(false);
+        config.setJmxMetrics(false);
+        config.setRiskLimits(riskLimits);
+        engine = new TradeBookingEngineImpl(config);
+        engine.addExecutionReportListener(report -> {
+            if (report.getStatus() == BaseOrder.OrderStatus.EXECUTED) {
+                executedReports.incrementAndGet();
+            }
+        });
+        engine.start();
+        engine.register(RIC, 0.05);
+    }
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void unregisterAppliesQueuedCommandsAndDeliversTheirReports() {
+        start(MatchingMode.SEQUENCED);
+        int pairs = 5_000;
+        submitCrossingPairs(pairs);
+        Assert.assertTrue(engine.unregister(RIC));
+
+        Assert.assertEquals(2 * pairs, executedReports.get());
+        try {
+            engine.submitOrder(RIC, new BuyOrder(RIC, 1, 20.30, 100));
+            Assert.fail("unregistered RIC accepted an order");
+        } catch (RicNotRegisteredException expected) {
+            Assert.assertFalse(engine.unregister(RIC));
+        }
+    }
+
+    @Test
+    public void reRegisteredRicMatchesAgain() {
+        for (MatchingMode matchingMode : new MatchingMode[]{MatchingMode.SIGNAL, MatchingMode.SEQUENCED}) {
+            start(matchingMode);
+            int instrumentId = engine.getInstrumentId(RIC);
+            Assert.assertTrue(engine.unregister(RIC));
+            Assert.assertTrue(engine.register(RIC, 0.05));
+            Assert.assertEquals(instrumentId, engine.getInstrumentId(RIC));
+            Assert.assertTrue(engine.getHealth(RIC).isHealthy());
+            Assert.assertEquals(0, engine.getHealth(RIC).getRestarts());
+
+            executedReports.set(0);
+            submitCrossingPairs(1);
+            engine.shutdown();
+            Assert.assertEquals(matchingMode + " reports", 2, executedReports.get());
+        }
+    }
+
+    @Test
+    public void shutdownReturnsOnceDrained() {
+        start(MatchingMode.SIGNAL);
+        engine.register(".SPX", 0.05);
+        submitCrossingPairs(100);
+        long startTime = System.nanoTime();
+        engine.shutdown();
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        Assert.assertEquals(200, executedReports.get());
+        Assert.assertTrue("shutdown took " + elapsedMillis + " ms", elapsedMillis < 1_000);
+    }
+
+    @Test
+    public void submitAfterShutdownFailsFast() {
+        for (MatchingMode matchingMode : MatchingMode.values()) {
+            start(matchingMode);
+            engine.shutdown();
+            try {
+                engine.submitOrder(RIC, new BuyOrder(RIC, 1, 20.30, 100));
+                Assert.fail(matchingMode + " accepted an order after shutdown");
+            } catch (OrderProcessorNotActiveException expected) {
+                Assert.assertNull(engine.peekBuyOrder(RIC));
+            }
+        }
+    }
+
+    @Test
+    public void ordersThatNeverReachTheBookGiveBackTheirNotional() {
+        riskLimits = new RiskLimits();
+        for (MatchingMode matchingMode : MatchingMode.values()) {
+            start(matchingMode);
+            BuyOrder popped = new BuyOrder(RIC, 1, 20.30, 100);
+            popped.setCounterParty(new CounterParty("CP1"));
+            engine.submitOrder(RIC, popped);
+            while (engine.peekBuyOrder(RIC) == null) {
+                Thread.yield();
+            }
+            Assert.assertEquals(Price.toScaled(2_030), engine.getOpenNotional("CP1"));
+            Assert.assertSame(popped, engine.popBuyOrder(RIC));
+            Assert.assertEquals(matchingMode.name(), 0, engine.getOpenNotional("CP1"));
+
+            engine.shutdown();
+            BuyOrder refused = new BuyOrder(RIC, 1, 20.30, 100);
+            refused.setCounterParty(new CounterParty("CP1"));
+            try {
+                engine.submitOrder(RIC, refused);
+                Assert.fail(matchingMode + " accepted an order after shutdown");
+            } catch (OrderProcessorNotActiveException expected) {
+                Assert.assertEquals(matchingMode.name(), 0, engine.getOpenNotional("CP1"));
+            }
+        }
+    }
+
+    @Test
+    public void stoppedSequencerRefusesCommandsEvenWhenFull() throws InterruptedException {
+        OrderProcessorImpl orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(),
+                Price.toScaled(0.05));
+        orderProcessor.setActive(true);
+        OrderSequencer sequencer = new OrderSequencer(RIC, orderProcessor, 4, WaitStrategyType.PARK.newWaitStrategy());
+        sequencer.start();
+        sequencer.stop();
+        Assert.assertTrue(sequencer.awaitTermination(1, TimeUnit.SECONDS));
+
+        int refused = 0;
+        for (int i = 0; i < 8; i++) {
+            try {
+                sequencer.submit(new BuyOrder(RIC, 1, 20.30, 100));
+            } catch (OrderProcessorNotActiveException expected) {
+                refused++;
+            }
+        }
+        Assert.assertEquals(8, refused);
+        Assert.assertEquals(0, orderProcessor.getRestingOrderCount());
+    }
+
+    private void submitCrossingPairs(int pairs) {
+        for (int i = 0; i < pairs; i++) {
+            engine.submitOrder(RIC, new SellOrder(RIC, 1, 20.30, 100));
+            engine.submitOrder(RIC, new BuyOrder(RIC, 1, 20.30, 100));
+        }
+    }
+}
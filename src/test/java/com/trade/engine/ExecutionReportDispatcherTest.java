@@ -0,0 +1,118 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.report.AsyncExecutionReportDispatcher;
+import com.trade.engine.report.ExecutionReport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full report buffer overflows instead of holding the publisher back or losing order state.
+ */
+public class ExecutionReportDispatcherTest {
+
+    static final String RIC = ".N225";
+
+    private final AsyncExecutionReportDispatcher dispatcher = new AsyncExecutionReportDispatcher(4);
+    private final List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    public void fullBufferOverflowsWithoutHoldingThePublisherBack() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.addListener(report -> {
+            awaitQuietly(release);
+            delivered.add(report.getSequenceNumber());
+        });
+        dispatcher.start();
+        int reports = 100;
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < reports; i++) {
+                dispatcher.onExecutionReport(report(i));
+            }
+        });
+        publisher.start();
+        publisher.join(1_000);
+        Assert.assertFalse("publisher never waits for the stuck listener", publisher.isAlive());
+        Assert.assertTrue(dispatcher.getOverflowedReports() > 0);
+
+        release.countDown();
+        Assert.assertTrue(dispatcher.awaitDelivery(1, TimeUnit.SECONDS));
+        assertDeliveredInSequence(reports);
+        Assert.assertEquals(0, dispatcher.getDroppedReports());
+        Assert.assertEquals(0, dispatcher.getPendingReports());
+    }
+
+    @Test
+    public void listenerPublishingOnTheDispatcherThreadKeepsTheSequence() throws InterruptedException {
+        int reports = 100;
+        dispatcher.addListener(report -> {
+            delivered.add(report.getSequenceNumber());
+            // like a listener reacting to a fill with an order of its own
+            if (report.getSequenceNumber() < reports - 1) {
+                dispatcher.onExecutionReport(report(reports));
+                dispatcher.onExecutionReport(report(report.getSequenceNumber() + 1));
+                dispatcher.onExecutionReport(report(reports));
+            }
+        });
+        dispatcher.start();
+        dispatcher.onExecutionReport(report(0));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (delivered.size() < 3 * reports - 2 && System.nanoTime() < deadline) {
+            Assert.assertTrue(dispatcher.awaitDelivery(1, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(3 * reports - 2, delivered.size());
+        Assert.assertTrue(dispatcher.getOverflowedReports() > 0);
+        long last = -1;
+        for (long sequence : delivered) {
+            if (sequence < reports) {
+                Assert.assertEquals(last + 1, sequence);
+                last = sequence;
+            }
+        }
+    }
+
+    @Test
+    public void fullBufferAfterStopIsDroppedAndCounted() throws InterruptedException {
+        dispatcher.start();
+        dispatcher.stop();
+        Assert.assertTrue(dispatcher.awaitTermination(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 6; i++) {
+            dispatcher.onExecutionReport(report(i));
+        }
+        Assert.assertEquals(2, dispatcher.getDroppedReports());
+    }
+
+    private void assertDeliveredInSequence(int reports) {
+        Assert.assertEquals(reports, delivered.size());
+        for (int i = 0; i < reports; i++) {
+            Assert.assertEquals(i, delivered.get(i).longValue());
+        }
+    }
+
+    private static ExecutionReport report(long sequenceNumber) {
+        ExecutionReport report = new ExecutionReport();
+        report.set(sequenceNumber, new BuyOrder(RIC, 1, 20.30, 100), 0, 0, 0, 100);
+        return report;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IOC, FOK and market orders trade against the book on arrival and never rest in it.
+ */
+public class ImmediateOrderTest {
+
+    static final String RIC = ".N225";
+
+    private OrderProcessorImpl orderProcessor;
+    private List<String> fills;
+    private SellOrder askAt2030;
+    private SellOrder askAt2040;
+
+    @Before
+    public void setup() {
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        fills = new ArrayList<>();
+        orderProcessor.setExecutionReportListener(report -> {
+            if (report.getExecutedQuantity() > 0) {
+                fills.add(report.getOrderId() + ":" + report.getExecutedQuantity() + "@" + Price.toDouble(report.getFillPrice()));
+            }
+        });
+        orderProcessor.setActive(true);
+        askAt2030 = new SellOrder(RIC, 2, 20.30, 100);
+        askAt2040 = new SellOrder(RIC, 3, 20.40, 100);
+        orderProcessor.submitOrder(askAt2030);
+        orderProcessor.submitOrder(askAt2040);
+    }
+
+    @Test
+    public void iocFillsWhatItCanAndCancelsTheRest() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 4, 20.35, 100);
+        buyOrder.setTimeInForce(BaseOrder.TimeInForce.IOC);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.CANCELLED, buyOrder.getOrderStatus());
+        Assert.assertFalse(orderProcessor.isPendingOrder(buyOrder));
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, askAt2030.getOrderStatus());
+        Assert.assertTrue(fills.contains(buyOrder.getId() + ":200@20.3"));
+        Assert.assertEquals(askAt2040, orderProcessor.peekSellOrder());
+    }
+
+    @Test
+    public void fokWithoutEnoughLiquidityLeavesTheBookUntouched() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 6, 20.45, 100);
+        buyOrder.setTimeInForce(BaseOrder.TimeInForce.FOK);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.CANCELLED, buyOrder.getOrderStatus());
+        Assert.assertTrue(fills.isEmpty());
+        Assert.assertEquals(200, askAt2030.getQuantity());
+        Assert.assertEquals(300, askAt2040.getQuantity());
+        Assert.assertEquals(askAt2030, orderProcessor.peekSellOrder());
+    }
+
+    @Test
+    public void fokBeyondItsLimitIsKilled() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 3, 20.35, 100);
+        buyOrder.setTimeInForce(BaseOrder.TimeInForce.FOK);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.CANCELLED, buyOrder.getOrderStatus());
+        Assert.assertTrue(fills.isEmpty());
+    }
+
+    @Test
+    public void fokFillsAcrossLevels() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 4, 20.45, 100);
+        buyOrder.setTimeInForce(BaseOrder.TimeInForce.FOK);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, buyOrder.getOrderStatus());
+        Assert.assertEquals(100, askAt2040.getQuantity());
+        Assert.assertTrue(fills.contains(buyOrder.getId() + ":200@20.3"));
+        Assert.assertTrue(fills.contains(buyOrder.getId() + ":200@20.4"));
+    }
+
+    @Test
+    public void marketOrderSweepsRegardlessOfPrice() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 9, 1.0, 100);
+        buyOrder.setPriceType(BaseOrder.PriceType.MARKET);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.CANCELLED, buyOrder.getOrderStatus());
+        Assert.assertNull(orderProcessor.peekSellOrder());
+        Assert.assertNull(orderProcessor.peekBuyOrder());
+        Assert.assertEquals(2, fills.stream().filter(fill -> fill.startsWith(buyOrder.getId() + ":")).count());
+    }
+}
@@ -0,0 +1,107 @@
+package com.trade.engine;
+
+import com.trade.engine.orderbook.LongObjectHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The primitive map behind the order and level indexes: key 0 is reserved, it grows past its
+ * initial capacity, and removing from a probe chain keeps the rest of the chain reachable.
+ */
+public class LongObjectHashMapTest {
+
+    @Test
+    public void keyZeroIsReserved() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        try {
+            map.put(0, "zero");
+            Assert.fail("key 0 accepted");
+        } catch (IllegalArgumentException expected) {
+            // key 0 marks an empty slot
+        }
+        Assert.assertNull(map.get(0));
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertNull(map.remove(0));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(1);
+        for (long key = 1; key <= 10_000; key++) {
+            Assert.assertNull(map.put(key, key * 10));
+        }
+        Assert.assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            Assert.assertEquals(Long.valueOf(key * 10), map.get(key));
+        }
+        Assert.assertEquals(Long.valueOf(10), map.put(1, 11L));
+        Assert.assertEquals(10_000, map.size());
+        Assert.assertFalse(map.containsKey(10_001));
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        // capacity 32: keys sharing a home slot probe into one chain
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(1);
+        List<Long> chain = collidingKeys(31, 5);
+        for (long key : chain) {
+            map.put(key, key);
+        }
+
+        Assert.assertEquals(chain.get(0), map.remove(chain.get(0)));
+        Assert.assertEquals(chain.get(2), map.remove(chain.get(2)));
+        Assert.assertEquals(chain.get(4), map.remove(chain.get(4)));
+
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals(chain.get(1), map.get(chain.get(1)));
+        Assert.assertEquals(chain.get(3), map.get(chain.get(3)));
+        Assert.assertFalse(map.containsKey(chain.get(0)));
+        Assert.assertNull(map.remove(chain.get(0)));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomPutsAndRemoves() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(500);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            } else {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 500; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    /**
+     * First count keys whose hash lands on the same slot of a table with the given mask.
+     */
+    private static List<Long> collidingKeys(int mask, int count) {
+        List<Long> keys = new ArrayList<>();
+        int slot = hash(1) & mask;
+        for (long key = 1; keys.size() < count; key++) {
+            if ((hash(key) & mask) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // same mix as LongObjectHashMap
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,116 @@
+package com.trade.engine;
+
+import com.trade.engine.marketdata.DepthUpdate;
+import com.trade.engine.marketdata.MarketDataDispatcher;
+import com.trade.engine.marketdata.MarketDataListener;
+import com.trade.engine.marketdata.TopOfBook;
+import com.trade.engine.marketdata.Trade;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Depth updates, ticker and trades published by an order processor through the conflating dispatcher.
+ */
+public class MarketDataTest {
+
+    static final String RIC = ".N225";
+
+    private MarketDataDispatcher dispatcher;
+    private OrderProcessorImpl orderProcessor;
+    private final List<String> depthUpdates = new CopyOnWriteArrayList<>();
+    private final List<String> tickers = new CopyOnWriteArrayList<>();
+    private final List<String> trades = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        dispatcher = new MarketDataDispatcher(1024, 0);
+        dispatcher.addListener(new MarketDataListener() {
+            @Override
+            public void onDepthUpdate(DepthUpdate update) {
+                depthUpdates.add(update.getSide() + " " + Price.toDouble(update.getPrice()) + " "
+                        + update.getQuantity() + "/" + update.getOrderCount());
+            }
+
+            @Override
+            public void onTopOfBook(TopOfBook topOfBook) {
+                tickers.add(topOfBook.getBidQuantity() + "@" + Price.toDouble(topOfBook.getBidPrice()) + " "
+                        + topOfBook.getAskQuantity() + "@" + Price.toDouble(topOfBook.getAskPrice()));
+            }
+
+            @Override
+            public void onTrade(Trade trade) {
+                trades.add(trade.getQuantity() + "@" + Price.toDouble(trade.getPrice()) + " "
+                        + trade.getAggressorSide() + " " + trade.getBuyOrderId() + "/" + trade.getSellOrderId());
+            }
+        });
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        orderProcessor.setExecutionReportListener(report -> { });
+        orderProcessor.setMarketDataChannel(dispatcher.addChannel(RIC));
+        orderProcessor.setActive(true);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    public void changesMadeBeforeDeliveryAreConflated() {
+        for (int i = 0; i < 10; i++) {
+            orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.15, 100));
+        }
+        orderProcessor.submitOrder(new SellOrder(RIC, 2, 20.30, 100));
+        dispatcher.start();
+
+        await(() -> tickers.size() == 1 && depthUpdates.size() == 2);
+        Assert.assertEquals("BUY 20.15 1000/10", depthUpdates.get(0));
+        Assert.assertEquals("SELL 20.3 200/1", depthUpdates.get(1));
+        Assert.assertEquals("1000@20.15 200@20.3", tickers.get(0));
+    }
+
+    @Test
+    public void tradesAreTapedAndEmptiedLevelsRemoved() {
+        SellOrder sellOrder = new SellOrder(RIC, 1, 20.30, 100);
+        orderProcessor.submitOrder(sellOrder);
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.35, 100);
+        buyOrder.setTimeInForce(BaseOrder.TimeInForce.IOC);
+        orderProcessor.submitOrder(buyOrder);
+        dispatcher.start();
+
+        await(() -> trades.size() == 1 && depthUpdates.contains("SELL 20.3 0/0"));
+        Assert.assertEquals("100@20.3 BUY " + buyOrder.getId() + "/" + sellOrder.getId(), trades.get(0));
+        Assert.assertEquals(1, depthUpdates.size());
+        await(() -> tickers.contains("0@0.0 0@0.0"));
+    }
+
+    @Test
+    public void onlyBestLevelChangesMoveTheTicker() {
+        dispatcher.start();
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.15, 100));
+        await(() -> tickers.contains("100@20.15 0@0.0"));
+        int tickerCount = tickers.size();
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.10, 100));
+        await(() -> depthUpdates.contains("BUY 20.1 100/1"));
+        Assert.assertEquals(tickerCount, tickers.size());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+}
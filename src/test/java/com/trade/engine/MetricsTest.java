@@ -0,0 +1,149 @@
+package com.trade.engine;
+
+import com.trade.engine.metrics.LatencyHistogram;
+import com.trade.engine.metrics.LatencySummary;
+import com.trade.engine.metrics.MetricsRegistry;
+import com.trade.engine.metrics.RicMetrics;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.report.ExecutionReport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per-RIC counters and latency histograms kept by an order processor.
+ */
+public class MetricsTest {
+
+    static final String RIC = ".N225";
+
+    private MetricsRegistry metricsRegistry;
+    private RicMetrics metrics;
+    private OrderProcessorImpl orderProcessor;
+
+    @Before
+    public void setup() {
+        metricsRegistry = new MetricsRegistry(false);
+        metrics = metricsRegistry.register(RIC);
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        orderProcessor.setExecutionReportListener(metricsRegistry);
+        orderProcessor.setMetrics(metrics);
+        metrics.setRestingOrders(orderProcessor::getRestingOrderCount);
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(100_000, histogram.getCount());
+        Assert.assertEquals(100_000, histogram.getMax());
+        LatencySummary summary = histogram.getSummary();
+        Assert.assertEquals(50_000, summary.getP50(), 50_000 * 0.035);
+        Assert.assertEquals(99_000, summary.getP99(), 99_000 * 0.035);
+        Assert.assertEquals(99_900, summary.getP999(), 99_900 * 0.035);
+        Assert.assertTrue(summary.getP9999() <= summary.getMax());
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void countsOrdersFillsCancelsAndRejects() {
+        SellOrder sellOrder = submit(new SellOrder(RIC, 1, 20.30, 100));
+        submit(new SellOrder(RIC, 1, 20.35, 100));
+        submit(new SellOrder(RIC, 1, 20.30, 50));
+        BuyOrder buyOrder = submit(new BuyOrder(RIC, 1, 20.30, 100));
+        Assert.assertEquals(3, metrics.getRestingOrders());
+
+        orderProcessor.executeAllMatchedOrder();
+        orderProcessor.cancelOrder(orderProcessor.peekSellOrder());
+
+        Assert.assertEquals(3, metrics.getOrders());
+        Assert.assertEquals(2, metrics.getFills());
+        Assert.assertEquals(1, metrics.getCancels());
+        Assert.assertEquals(1, metrics.getRejects());
+        Assert.assertEquals(0, metrics.getRestingOrders());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, sellOrder.getOrderStatus());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, buyOrder.getOrderStatus());
+
+        Assert.assertEquals(3, metrics.getQueueLatency().getCount());
+        Assert.assertEquals(1, metrics.getMatchLatency().getCount());
+        Assert.assertEquals(4, metrics.getReportLatency().getCount());
+        Assert.assertTrue(metrics.getMatchLatency().getMax() > 0);
+    }
+
+    @Test
+    public void detachedProcessorStopsRecording() {
+        orderProcessor.setMetrics(null);
+        submit(new SellOrder(RIC, 1, 20.30, 100));
+        Assert.assertEquals(0, metrics.getOrders());
+
+        metrics.reset();
+        metricsRegistry.unregister(RIC);
+        Assert.assertNull(metricsRegistry.get(RIC));
+    }
+
+    @Test
+    public void reportsAreMatchedToTheirMetricsByInstrumentId() {
+        MetricsRegistry registry = new MetricsRegistry(false);
+        RicMetrics byId = registry.register(7, "7203.T");
+        RicMetrics byRIC = registry.register("6758.T");
+        registry.onExecutionReport(report(7, "7203.T"));
+        // an id that does not belong to the RIC falls back to the RIC
+        registry.onExecutionReport(report(7, "6758.T"));
+        Assert.assertEquals(1, byId.getReportLatency().getCount());
+        Assert.assertEquals(1, byRIC.getReportLatency().getCount());
+
+        registry.unregister("7203.T");
+        registry.onExecutionReport(report(7, "7203.T"));
+        Assert.assertEquals(1, byId.getReportLatency().getCount());
+    }
+
+    @Test
+    public void enginesInOneJvmKeepTheirOwnMXBeans() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        MetricsRegistry first = new MetricsRegistry(true);
+        MetricsRegistry second = new MetricsRegistry(true);
+        try {
+            first.register(RIC);
+            second.register(RIC);
+            Assert.assertTrue(server.isRegistered(first.objectName(RIC)));
+            Assert.assertTrue(server.isRegistered(second.objectName(RIC)));
+
+            second.unregister(RIC);
+            Assert.assertFalse(server.isRegistered(second.objectName(RIC)));
+            Assert.assertTrue(server.isRegistered(first.objectName(RIC)));
+        } finally {
+            first.unregisterAll();
+            second.unregisterAll();
+        }
+    }
+
+    private <T extends BaseOrder> T submit(T order) {
+        order.setSubmitTime(System.nanoTime());
+        orderProcessor.submitOrder(order);
+        return order;
+    }
+
+    private static ExecutionReport report(int instrumentId, String RIC) {
+        ExecutionReport report = new ExecutionReport();
+        report.set(1, new BuyOrder(RIC, 1, 20.30, 100), 0, 0, 0, 100);
+        report.setInstrumentId(instrumentId);
+        report.setMatchTime(System.nanoTime());
+        return report;
+    }
+}
@@ -0,0 +1,115 @@
+package com.trade.engine;
+
+import com.trade.engine.journal.MappedOrderJournal;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A smaller quantity keeps an order's place in the queue, a price change sends it to the back.
+ */
+public class ModifyOrderTest {
+
+    static final String RIC = ".N225";
+    static final long TICK_SIZE = Price.toScaled(0.05);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OrderProcessorImpl orderProcessor;
+
+    @Before
+    public void setup() {
+        orderProcessor = newProcessor();
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void quantityDecreaseKeepsPriority() {
+        BuyOrder first = new BuyOrder(RIC, 3, 20.15, 100);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.15, 100);
+        orderProcessor.submitOrder(first);
+        orderProcessor.submitOrder(second);
+
+        Assert.assertTrue(orderProcessor.modifyOrder(first, Price.toScaled(20.15), 100));
+        Assert.assertEquals(100, first.getQuantity());
+        Assert.assertEquals(first, orderProcessor.peekBuyOrder());
+    }
+
+    @Test
+    public void priceChangeLosesPriority() {
+        BuyOrder first = new BuyOrder(RIC, 1, 20.15, 100);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.10, 100);
+        orderProcessor.submitOrder(first);
+        orderProcessor.submitOrder(second);
+
+        Assert.assertTrue(orderProcessor.modifyOrder(first, Price.toScaled(20.10), 100));
+        Assert.assertEquals(second, orderProcessor.popBuyOrder());
+        Assert.assertEquals(first, orderProcessor.popBuyOrder());
+    }
+
+    @Test
+    public void invalidAmendsAreRejected() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.15, 100);
+        Assert.assertFalse(orderProcessor.modifyOrder(buyOrder, Price.toScaled(20.15), 100));
+        orderProcessor.submitOrder(buyOrder);
+        Assert.assertFalse(orderProcessor.modifyOrder(buyOrder, Price.toScaled(20.17), 100));
+        Assert.assertFalse(orderProcessor.modifyOrder(buyOrder, Price.toScaled(20.15), 150));
+        Assert.assertFalse(orderProcessor.modifyOrder(buyOrder, Price.toScaled(20.15), 0));
+        Assert.assertEquals(100, buyOrder.getQuantity());
+    }
+
+    @Test
+    public void amendedCrossingPriceTrades() {
+        SellOrder sellOrder = new SellOrder(RIC, 1, 20.30, 100);
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.15, 100);
+        orderProcessor.submitOrder(sellOrder);
+        orderProcessor.submitOrder(buyOrder);
+        Assert.assertEquals(0, orderProcessor.executeAllMatchedOrder());
+
+        Assert.assertTrue(orderProcessor.modifyOrder(buyOrder, Price.toScaled(20.30), 100));
+        Assert.assertEquals(1, orderProcessor.executeAllMatchedOrder());
+        Assert.assertNull(orderProcessor.peekBuyOrder());
+    }
+
+    @Test
+    public void journaledAmendsReplay() throws Exception {
+        MappedOrderJournal journal = new MappedOrderJournal(temporaryFolder.newFolder("journal"), RIC, TICK_SIZE, 1 << 20);
+        OrderProcessorImpl journaled = newProcessor();
+        journaled.setOrderJournal(journal);
+        journaled.setActive(true);
+        BuyOrder first = new BuyOrder(RIC, 3, 20.15, 100);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.15, 100);
+        BuyOrder third = new BuyOrder(RIC, 1, 20.15, 100);
+        journaled.submitOrder(first);
+        journaled.submitOrder(second);
+        journaled.submitOrder(third);
+        journaled.modifyOrder(first, Price.toScaled(20.15), 200);
+        journaled.modifyOrder(second, Price.toScaled(20.15), 200);
+
+        OrderProcessorImpl recovered = newProcessor();
+        Assert.assertEquals(5, recovered.recover(journal));
+        journal.close();
+        recovered.setActive(true);
+        BuyOrder buyOrder = recovered.popBuyOrder();
+        Assert.assertEquals(first.getId(), buyOrder.getId());
+        Assert.assertEquals(200, buyOrder.getQuantity());
+        Assert.assertEquals(third.getId(), recovered.popBuyOrder().getId());
+        buyOrder = recovered.popBuyOrder();
+        Assert.assertEquals(second.getId(), buyOrder.getId());
+        Assert.assertEquals(200, buyOrder.getQuantity());
+    }
+
+    private OrderProcessorImpl newProcessor() {
+        OrderProcessorImpl processor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), TICK_SIZE);
+        processor.setExecutionReportListener(report -> { });
+        return processor;
+    }
+}
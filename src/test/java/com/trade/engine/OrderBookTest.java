@@ -0,0 +1,120 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderbook.OrderBook;
+import com.trade.engine.orderbook.OrderBookSide;
+import com.trade.engine.orderbook.PriceLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Removing an order unlinks it from its level's FIFO wherever it sits, and a level left empty
+ * is dropped from its side.
+ */
+public class OrderBookTest {
+
+    static final String RIC = ".N225";
+
+    private final OrderBook orderBook = new OrderBook();
+
+    @Test
+    public void removesTheFirstOrderOfALevel() {
+        BuyOrder[] orders = restThreeBuys();
+
+        Assert.assertTrue(orderBook.remove(orders[0]));
+
+        assertLevel(orders[1], orders[2]);
+    }
+
+    @Test
+    public void removesAMiddleOrderOfALevel() {
+        BuyOrder[] orders = restThreeBuys();
+
+        Assert.assertTrue(orderBook.remove(orders[1]));
+
+        assertLevel(orders[0], orders[2]);
+    }
+
+    @Test
+    public void removesTheLastOrderOfALevel() {
+        BuyOrder[] orders = restThreeBuys();
+
+        Assert.assertTrue(orderBook.remove(orders[2]));
+        assertLevel(orders[0], orders[1]);
+
+        // the tail moved back, so a new order still joins the end of the level
+        BuyOrder next = new BuyOrder(RIC, 4, 20.15, 100);
+        orderBook.add(next);
+        assertLevel(orders[0], orders[1], next);
+    }
+
+    @Test
+    public void emptiedLevelIsRemovedFromItsSide() {
+        SellOrder best = new SellOrder(RIC, 1, 20.25, 100);
+        SellOrder secondBest = new SellOrder(RIC, 1, 20.25, 100);
+        SellOrder worse = new SellOrder(RIC, 2, 20.30, 100);
+        orderBook.add(best);
+        orderBook.add(secondBest);
+        orderBook.add(worse);
+        OrderBookSide<SellOrder> sellSide = orderBook.getSellSide();
+        Assert.assertEquals(2, sellSide.getLevelCount());
+
+        orderBook.remove(best);
+        Assert.assertEquals(2, sellSide.getLevelCount());
+        orderBook.remove(secondBest);
+
+        Assert.assertEquals(1, sellSide.getLevelCount());
+        Assert.assertEquals(Price.toScaled(20.30), sellSide.getBestLevel().getPrice());
+        Assert.assertSame(worse, sellSide.peek());
+        Assert.assertEquals(1, sellSide.getOrderCount());
+        Assert.assertEquals(200, sellSide.getTotalQuantity());
+        for (PriceLevel<SellOrder> level : sellSide.getLevels()) {
+            Assert.assertNotEquals(Price.toScaled(20.25), level.getPrice());
+        }
+
+        orderBook.remove(worse);
+        Assert.assertEquals(0, sellSide.getLevelCount());
+        Assert.assertNull(sellSide.getBestLevel());
+        Assert.assertNull(sellSide.peek());
+
+        // the emptied price can be used again
+        SellOrder again = new SellOrder(RIC, 1, 20.25, 100);
+        orderBook.add(again);
+        Assert.assertSame(again, sellSide.peek());
+        Assert.assertEquals(1, sellSide.getBestLevel().getOrderCount());
+    }
+
+    private BuyOrder[] restThreeBuys() {
+        BuyOrder[] orders = {
+                new BuyOrder(RIC, 1, 20.15, 100),
+                new BuyOrder(RIC, 2, 20.15, 100),
+                new BuyOrder(RIC, 3, 20.15, 100)
+        };
+        for (BuyOrder order : orders) {
+            Assert.assertTrue(orderBook.add(order));
+        }
+        return orders;
+    }
+
+    private void assertLevel(BuyOrder... expected) {
+        PriceLevel<BuyOrder> level = orderBook.getBuySide().getBestLevel();
+        List<BuyOrder> orders = new ArrayList<>();
+        level.forEach(orders::add);
+        Assert.assertEquals(Arrays.asList(expected), orders);
+        Assert.assertSame(expected[0], level.peek());
+        Assert.assertEquals(expected.length, level.getOrderCount());
+        long quantity = 0;
+        for (BuyOrder order : expected) {
+            quantity += order.getQuantity();
+        }
+        Assert.assertEquals(quantity, level.getTotalQuantity());
+        Assert.assertEquals(quantity, orderBook.getBuySide().getTotalQuantity());
+        Assert.assertEquals(1, orderBook.getBuySide().getLevelCount());
+    }
+}
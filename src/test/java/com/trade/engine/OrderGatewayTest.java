@@ -0,0 +1,175 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.gateway.GatewayClient;
+import com.trade.engine.gateway.MessageCodec;
+import com.trade.engine.gateway.OrderGateway;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.report.RejectReason;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders entered over the binary gateway on loopback reach the book, and their reports come back
+ * on the same connection.
+ */
+public class OrderGatewayTest {
+
+    static final String RIC = ".N225";
+
+    private TradeBookingEngineImpl engine;
+    private OrderGateway gateway;
+    private InetSocketAddress address;
+    private int instrumentId;
+    private final List<String> messages = new ArrayList<>();
+    private final GatewayClient.Handler handler = new GatewayClient.Handler() {
+        @Override
+        public void onExecutionReport(long clientOrderId, long orderId, BaseOrder.OrderStatus status,
+                                      RejectReason rejectReason, long fillPrice, int executedQuantity,
+                                      int leavesQuantity) {
+            messages.add(clientOrderId + " " + status + (rejectReason == null ? "" : " " + rejectReason)
+                    + " " + executedQuantity + "@" + Price.toDouble(fillPrice) + " leaves " + leavesQuantity);
+        }
+
+        @Override
+        public void onRequestReject(byte requestType, long clientOrderId, RejectReason reason) {
+            messages.add(clientOrderId + " " + (char) requestType + " rejected " + reason);
+        }
+    };
+
+    @Before
+    public void setup() throws IOException {
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(1);
+        config.setConsoleReports(false);
+        config.setJmxMetrics(false);
+        config.setMatchingMode(MatchingMode.INLINE);
+        engine = new TradeBookingEngineImpl(config);
+        engine.start();
+        engine.register(RIC, 0.05);
+        instrumentId = engine.getInstrumentId(RIC);
+        gateway = new OrderGateway(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        gateway.start();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), gateway.getPort());
+    }
+
+    @After
+    public void tearDown() {
+        gateway.stop();
+        engine.shutdown();
+    }
+
+    @Test
+    public void crossingOrdersAreFilledAndReported() throws IOException {
+        try (GatewayClient client = new GatewayClient(address)) {
+            client.logon("CP1");
+            client.newOrder(1, instrumentId, BaseOrder.OrderType.SELL, BaseOrder.TimeInForce.GTC,
+                    BaseOrder.PriceType.LIMIT, Price.toScaled(20.30), 200);
+            client.newOrder(2, instrumentId, BaseOrder.OrderType.BUY, BaseOrder.TimeInForce.GTC,
+                    BaseOrder.PriceType.LIMIT, Price.toScaled(20.35), 100);
+            client.flush();
+            readMessages(client, 2);
+            Assert.assertTrue(messages.contains("1 PENDING 100@20.3 leaves 100"));
+            Assert.assertTrue(messages.contains("2 EXECUTED 100@20.3 leaves 0"));
+
+            client.amend(1, Price.toScaled(20.40), 100);
+            client.cancel(1);
+            client.cancel(2);
+            client.flush();
+            readMessages(client, 5);
+            // request rejects are written by the gateway thread and may overtake the reports
+            Assert.assertTrue(messages.contains("2 C rejected UNKNOWN_ORDER"));
+            int amended = messages.indexOf("1 PENDING 0@0.0 leaves 100");
+            Assert.assertTrue(amended > 1);
+            Assert.assertTrue(messages.indexOf("1 CANCELLED 0@0.0 leaves 0") > amended);
+        }
+        Assert.assertEquals(0, engine.getDepth(RIC, 1).getAskLevelCount());
+    }
+
+    @Test
+    public void invalidRequestsAreRejected() throws IOException {
+        try (GatewayClient client = new GatewayClient(address)) {
+            client.logon("CP1");
+            // not a lot multiple, off tick, unknown instrument
+            client.newOrder(1, instrumentId, BaseOrder.OrderType.BUY, BaseOrder.TimeInForce.GTC,
+                    BaseOrder.PriceType.LIMIT, Price.toScaled(20.15), 150);
+            client.newOrder(2, instrumentId, BaseOrder.OrderType.BUY, BaseOrder.TimeInForce.GTC,
+                    BaseOrder.PriceType.LIMIT, Price.toScaled(20.17), 100);
+            client.newOrder(3, instrumentId + 1, BaseOrder.OrderType.BUY, BaseOrder.TimeInForce.GTC,
+                    BaseOrder.PriceType.LIMIT, Price.toScaled(20.15), 100);
+            client.amend(4, Price.toScaled(20.15), 100);
+            client.flush();
+            readMessages(client, 4);
+            Assert.assertTrue(messages.contains("1 N rejected INVALID_ORDER"));
+            Assert.assertTrue(messages.contains("2 REJECTED INVALID_ORDER 0@0.0 leaves 100"));
+            Assert.assertTrue(messages.contains("3 N rejected INVALID_ORDER"));
+            Assert.assertTrue(messages.contains("4 A rejected UNKNOWN_ORDER"));
+        }
+    }
+
+    @Test
+    public void recycledOrdersReportTheirOwnClientOrderIds() throws IOException {
+        try (GatewayClient client = new GatewayClient(address)) {
+            client.logon("CP1");
+            // each round's orders are pooled again once the next round's reports arrive
+            for (int round = 0; round < 50; round++) {
+                long sellId = 2 * round + 1;
+                long buyId = 2 * round + 2;
+                client.newOrder(sellId, instrumentId, BaseOrder.OrderType.SELL, BaseOrder.TimeInForce.GTC,
+                        BaseOrder.PriceType.LIMIT, Price.toScaled(20.30), 100);
+                client.newOrder(buyId, instrumentId, BaseOrder.OrderType.BUY, BaseOrder.TimeInForce.GTC,
+                        BaseOrder.PriceType.LIMIT, Price.toScaled(20.30), 100);
+                client.flush();
+                readMessages(client, 2 * round + 2);
+                Assert.assertTrue(messages.toString(), messages.contains(sellId + " EXECUTED 100@20.3 leaves 0"));
+                Assert.assertTrue(messages.toString(), messages.contains(buyId + " EXECUTED 100@20.3 leaves 0"));
+            }
+        }
+        Assert.assertEquals(100, messages.size());
+    }
+
+    @Test
+    public void sessionNamesAreUnique() throws Exception {
+        try (GatewayClient first = new GatewayClient(address);
+             GatewayClient second = new GatewayClient(address)) {
+            first.logon("CP1");
+            awaitSessionCount(1);
+            second.logon("CP1");
+            Assert.assertEquals(-1, second.read(handler));
+            Assert.assertEquals(1, gateway.getSessionCount());
+        }
+        awaitSessionCount(0);
+    }
+
+    @Test
+    public void messageLengthsMatchTheLayouts() {
+        Assert.assertEquals(MessageCodec.NEW_ORDER_QUANTITY + 4, MessageCodec.messageLength(MessageCodec.NEW_ORDER));
+        Assert.assertEquals(MessageCodec.AMEND_QUANTITY + 4, MessageCodec.messageLength(MessageCodec.AMEND));
+        Assert.assertEquals(MessageCodec.REPORT_SEQUENCE + 8, MessageCodec.messageLength(MessageCodec.EXECUTION_REPORT));
+        Assert.assertEquals(-1, MessageCodec.messageLength((byte) 'X'));
+    }
+
+    private void awaitSessionCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (gateway.getSessionCount() != count) {
+            Assert.assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private void readMessages(GatewayClient client, int count) throws IOException {
+        while (messages.size() < count) {
+            Assert.assertTrue("connection closed", client.read(handler) >= 0);
+        }
+    }
+}
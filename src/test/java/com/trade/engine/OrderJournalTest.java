@@ -0,0 +1,215 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.journal.BookRebuilder;
+import com.trade.engine.journal.BookSnapshot;
+import com.trade.engine.journal.BookSnapshotter;
+import com.trade.engine.journal.JournalException;
+import com.trade.engine.journal.MappedOrderJournal;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderbook.OrderBook;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Rebuilds books from the journal and snapshots written by an earlier processor or engine.
+ */
+public class OrderJournalTest {
+
+    static final String RIC = ".N225";
+    static final long TICK_SIZE = Price.toScaled(0.05);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File journalDir;
+    private MappedOrderJournal journal;
+
+    @Before
+    public void setup() throws Exception {
+        journalDir = temporaryFolder.newFolder("journal");
+    }
+
+    @After
+    public void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void recoversRestingOrdersFillsAndCancels() {
+        OrderProcessorImpl orderProcessor = newProcessor(1 << 20);
+        SellOrder partiallyFilled = new SellOrder(RIC, 3, 20.30, 100);
+        partiallyFilled.setCounterParty(new CounterParty("CP1"));
+        BuyOrder filled = new BuyOrder(RIC, 1, 20.35, 100);
+        BuyOrder cancelled = new BuyOrder(RIC, 1, 20.10, 100);
+        BuyOrder resting = new BuyOrder(RIC, 2, 20.15, 100);
+        orderProcessor.submitOrder(partiallyFilled);
+        orderProcessor.submitOrder(filled);
+        orderProcessor.submitOrder(cancelled);
+        orderProcessor.submitOrder(resting);
+        Assert.assertEquals(1, orderProcessor.executeAllMatchedOrder());
+        Assert.assertTrue(orderProcessor.cancelOrder(cancelled));
+        long sequence = journal.getSequence();
+        journal.close();
+
+        OrderProcessorImpl recovered = newProcessor(1 << 20);
+        Assert.assertEquals(sequence, journal.getSequence());
+        SellOrder sellOrder = recovered.peekSellOrder();
+        Assert.assertEquals(partiallyFilled.getId(), sellOrder.getId());
+        Assert.assertEquals(200, sellOrder.getQuantity());
+        Assert.assertEquals(Price.toScaled(20.30), sellOrder.getScaledPrice());
+        Assert.assertEquals("CP1", sellOrder.getCounterParty().getName());
+        BuyOrder buyOrder = recovered.peekBuyOrder();
+        Assert.assertEquals(resting.getId(), buyOrder.getId());
+        Assert.assertEquals(200, buyOrder.getQuantity());
+        recovered.popBuyOrder();
+        Assert.assertNull(recovered.peekBuyOrder());
+        // new orders never reuse a recovered id
+        Assert.assertTrue(new BuyOrder(RIC, 1, 20.15, 100).getId() > resting.getId());
+    }
+
+    @Test
+    public void replaysAcrossSegments() {
+        OrderProcessorImpl orderProcessor = newProcessor(4096);
+        for (int i = 0; i < 1_000; i++) {
+            BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.00, 100);
+            orderProcessor.submitOrder(buyOrder);
+            if (i % 2 == 0) {
+                orderProcessor.cancelOrder(buyOrder);
+            }
+        }
+        journal.close();
+        Assert.assertTrue(new File(journalDir, RIC + "-000001.journal").exists());
+
+        OrderProcessorImpl recovered = newProcessor(4096);
+        Assert.assertEquals(1_500, journal.getSequence());
+        int resting = 0;
+        while (recovered.popBuyOrder() != null) {
+            resting++;
+        }
+        Assert.assertEquals(500, resting);
+    }
+
+    @Test
+    public void engineRebuildsJournaledRicsOnStart() {
+        TradeBookingEngineImpl engine = newEngine();
+        engine.start();
+        engine.register(RIC, 0.05);
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.15, 100);
+        engine.submitOrder(RIC, buyOrder);
+        engine.shutdown();
+
+        TradeBookingEngineImpl restarted = newEngine();
+        restarted.start();
+        BuyOrder recovered = restarted.peekBuyOrder(RIC);
+        Assert.assertEquals(buyOrder.getId(), recovered.getId());
+        Assert.assertEquals(BaseOrder.OrderType.BUY, recovered.getType());
+        restarted.shutdown();
+        // the first shutdown snapshotted the book
+        Assert.assertEquals(1, BookSnapshot.list(journalDir, RIC).size());
+    }
+
+    @Test
+    public void recoversFromSnapshotPlusJournalTail() {
+        OrderProcessorImpl orderProcessor = newProcessor(1 << 20);
+        BookSnapshotter bookSnapshotter = new BookSnapshotter(journalDir, 60_000, 2);
+        bookSnapshotter.add(RIC, journal);
+        BuyOrder first = new BuyOrder(RIC, 1, 20.15, 100);
+        BuyOrder second = new BuyOrder(RIC, 2, 20.15, 100);
+        orderProcessor.submitOrder(first);
+        orderProcessor.submitOrder(second);
+        bookSnapshotter.stop();
+        List<File> snapshots = bookSnapshotter.getSnapshots(RIC);
+        Assert.assertEquals(1, snapshots.size());
+        // journal tail after the snapshot
+        orderProcessor.submitOrder(new SellOrder(RIC, 1, 20.10, 100));
+        Assert.assertEquals(1, orderProcessor.executeAllMatchedOrder());
+        journal.close();
+
+        OrderProcessorImpl recovered = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), TICK_SIZE);
+        journal = new MappedOrderJournal(journalDir, RIC, TICK_SIZE, 1 << 20);
+        Assert.assertEquals(3, recovered.recover(snapshots.get(0), journal));
+        recovered.setActive(true);
+        Assert.assertEquals(second.getId(), recovered.popBuyOrder().getId());
+        Assert.assertNull(recovered.popBuyOrder());
+    }
+
+    @Test
+    public void snapshotterTailsAcrossFlushedSegments() {
+        OrderProcessorImpl orderProcessor = newProcessor(4096);
+        BookSnapshotter bookSnapshotter = new BookSnapshotter(journalDir, 60_000, 2);
+        bookSnapshotter.add(RIC, journal);
+        for (int i = 0; i < 1_000; i++) {
+            orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.00, 100));
+            if (i % 100 == 0) {
+                // releases the segments filled so far while the snapshotter still follows them
+                journal.flush();
+            }
+        }
+        bookSnapshotter.stop();
+
+        BookRebuilder bookRebuilder = new BookRebuilder(RIC, new OrderBook());
+        BookSnapshot.load(bookSnapshotter.getSnapshots(RIC).get(0), bookRebuilder);
+        Assert.assertEquals(1_000, bookRebuilder.getOrderBook().size());
+        Assert.assertEquals(1_000, journaledBook().size());
+    }
+
+    @Test
+    public void damagedSnapshotLeavesBookUntouched() throws Exception {
+        OrderProcessorImpl orderProcessor = newProcessor(1 << 20);
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.15, 100));
+        File snapshot = BookSnapshot.write(journalDir, RIC, journal.getSequence(), journaledBook());
+        byte[] content = Files.readAllBytes(snapshot.toPath());
+        content[20] ^= 1;
+        Files.write(snapshot.toPath(), content);
+
+        BookRebuilder bookRebuilder = new BookRebuilder(RIC, new OrderBook());
+        try {
+            BookSnapshot.load(snapshot, bookRebuilder);
+            Assert.fail("corrupt snapshot loaded");
+        } catch (JournalException expected) {
+            Assert.assertEquals(0, bookRebuilder.getOrderBook().size());
+            Assert.assertEquals(0, bookRebuilder.getSequence());
+        }
+    }
+
+    private OrderBook journaledBook() {
+        BookRebuilder bookRebuilder = new BookRebuilder(RIC, new OrderBook());
+        journal.replay(bookRebuilder, 0);
+        return bookRebuilder.getOrderBook();
+    }
+
+    private OrderProcessorImpl newProcessor(int segmentSize) {
+        OrderProcessorImpl orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), TICK_SIZE);
+        orderProcessor.setExecutionReportListener(report -> { });
+        journal = new MappedOrderJournal(journalDir, RIC, TICK_SIZE, segmentSize);
+        orderProcessor.recover(journal);
+        orderProcessor.setOrderJournal(journal);
+        orderProcessor.setActive(true);
+        return orderProcessor;
+    }
+
+    private TradeBookingEngineImpl newEngine() {
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(1);
+        config.setConsoleReports(false);
+        config.setJournalDir(journalDir.getPath());
+        return new TradeBookingEngineImpl(config);
+    }
+}
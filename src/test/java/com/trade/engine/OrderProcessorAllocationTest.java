@@ -0,0 +1,123 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.OrderPool;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the steady-state hot path does not allocate: booking into an existing price level,
+ * cancelling, and matching crossed orders. Creating a brand new price level is allowed to allocate.
+ */
+public class OrderProcessorAllocationTest {
+
+    static final String RIC = ".N225";
+    static final int WARM_UP_ROUNDS = 50_000;
+    static final int MEASURED_ROUNDS = 10_000;
+    static final int MEASURED_WINDOWS = 3;
+    static final long BID = Price.toScaled(20.15);
+    static final long ASK = Price.toScaled(20.30);
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private OrderProcessorImpl orderProcessor;
+    private OrderPool orderPool;
+    private BuyOrder crossingBuyOrder;
+    private SellOrder crossingSellOrder;
+
+    @Before
+    public void setup() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl());
+        orderProcessor.setActive(true);
+        orderPool = new OrderPool(1024);
+        // resting levels that stay in the book for the whole test
+        orderProcessor.submitOrder(orderPool.acquireBuyOrder(RIC, 1, BID, 100));
+        orderProcessor.submitOrder(orderPool.acquireSellOrder(RIC, 1, ASK, 100));
+    }
+
+    @Test
+    public void submitAndCancelAtExistingLevelDoesNotAllocate() {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            submitAndCancel();
+        }
+        long overhead = measurementOverhead();
+        // a late recompilation can rematerialize a scalar-replaced object once, so the best of a
+        // few windows is checked; anything allocated per operation shows up in all of them
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < MEASURED_WINDOWS && allocated > 0; window++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                submitAndCancel();
+            }
+            allocated = Math.min(allocated, allocatedBytes() - before - overhead);
+        }
+        Assert.assertTrue("submit/cancel allocated " + allocated + " bytes", allocated <= 0);
+    }
+
+    @Test
+    public void matchLoopDoesNotAllocate() {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            submitCrossingOrders();
+            orderProcessor.executeAllMatchedOrder();
+            releaseCrossingOrders();
+        }
+
+        long allocated = 0;
+        long overhead = measurementOverhead();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            submitCrossingOrders();
+            long before = allocatedBytes();
+            orderProcessor.executeAllMatchedOrder();
+            allocated += allocatedBytes() - before - overhead;
+            releaseCrossingOrders();
+        }
+        Assert.assertTrue("match loop allocated " + allocated + " bytes", allocated <= 0);
+    }
+
+    private void submitCrossingOrders() {
+        crossingBuyOrder = orderPool.acquireBuyOrder(RIC, 1, Price.toScaled(20.35), 100);
+        crossingSellOrder = orderPool.acquireSellOrder(RIC, 1, Price.toScaled(20.25), 100);
+        orderProcessor.submitOrder(crossingBuyOrder);
+        orderProcessor.submitOrder(crossingSellOrder);
+    }
+
+    private void releaseCrossingOrders() {
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, crossingBuyOrder.getOrderStatus());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, crossingSellOrder.getOrderStatus());
+        orderPool.release(crossingBuyOrder);
+        orderPool.release(crossingSellOrder);
+    }
+
+    private void submitAndCancel() {
+        BuyOrder buyOrder = orderPool.acquireBuyOrder(RIC, 1, BID, 100);
+        orderProcessor.submitOrder(buyOrder);
+        orderProcessor.cancelOrder(buyOrder);
+        orderPool.release(buyOrder);
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long measurementOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long before = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - before);
+        }
+        return overhead;
+    }
+}
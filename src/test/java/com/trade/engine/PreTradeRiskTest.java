@@ -0,0 +1,156 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.CounterParty;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.report.RejectReason;
+import com.trade.engine.risk.PreTradeRisk;
+import com.trade.engine.risk.RiskLimits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders are checked against per-counterparty limits before they reach the book, and the limits
+ * follow the book through its execution reports.
+ */
+public class PreTradeRiskTest {
+
+    static final String RIC = ".N225";
+
+    private RiskLimits limits;
+    private PreTradeRisk preTradeRisk;
+    private OrderProcessorImpl orderProcessor;
+    private List<RejectReason> rejectReasons;
+
+    @Before
+    public void setup() {
+        limits = new RiskLimits();
+        preTradeRisk = new PreTradeRisk(limits);
+        preTradeRisk.addInstrument(RIC);
+        rejectReasons = new ArrayList<>();
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        orderProcessor.setExecutionReportListener(report -> {
+            preTradeRisk.onExecutionReport(report);
+            if (report.getStatus() == BaseOrder.OrderStatus.REJECTED) {
+                rejectReasons.add(report.getRejectReason());
+            }
+        });
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void rejectsOversizedOrders() {
+        limits.setMaxOrderQuantity(500);
+        Assert.assertNull(submit(new BuyOrder(RIC, 5, 20.15, 100), "CP1"));
+        Assert.assertEquals(RejectReason.MAX_QUANTITY, submit(new BuyOrder(RIC, 6, 20.15, 100), "CP1"));
+        Assert.assertEquals(RejectReason.MAX_QUANTITY, rejectReasons.get(0));
+    }
+
+    @Test
+    public void collarFollowsTheLastTrade() {
+        limits.setPriceCollarBps(100);
+        // no trade yet, nothing to collar against
+        Assert.assertNull(submit(new SellOrder(RIC, 1, 20.00, 100), "CP1"));
+        Assert.assertNull(submit(new BuyOrder(RIC, 1, 20.00, 100), "CP2"));
+        orderProcessor.executeAllMatchedOrder();
+
+        Assert.assertNull(submit(new BuyOrder(RIC, 1, 19.80, 100), "CP2"));
+        Assert.assertEquals(RejectReason.PRICE_COLLAR, submit(new BuyOrder(RIC, 1, 19.75, 100), "CP2"));
+        Assert.assertEquals(RejectReason.PRICE_COLLAR, submit(new SellOrder(RIC, 1, 20.25, 100), "CP1"));
+    }
+
+    @Test
+    public void openNotionalIsReservedAndReleased() {
+        limits.setMaxOpenNotional(5_000);
+        BuyOrder first = new BuyOrder(RIC, 1, 20.00, 100);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.00, 100);
+        Assert.assertNull(submit(first, "CP1"));
+        Assert.assertNull(submit(second, "CP1"));
+        Assert.assertEquals(Price.toScaled(4_000), preTradeRisk.getOpenNotional("CP1"));
+        Assert.assertEquals(RejectReason.NOTIONAL_LIMIT, submit(new BuyOrder(RIC, 1, 20.00, 100), "CP1"));
+        // other counterparties have their own limit
+        Assert.assertNull(submit(new BuyOrder(RIC, 1, 20.00, 100), "CP2"));
+
+        orderProcessor.cancelOrder(first);
+        Assert.assertEquals(Price.toScaled(2_000), preTradeRisk.getOpenNotional("CP1"));
+        Assert.assertNull(submit(new SellOrder(RIC, 1, 20.00, 100), "CP3"));
+        orderProcessor.executeAllMatchedOrder();
+        Assert.assertEquals(0, preTradeRisk.getOpenNotional("CP1"));
+        Assert.assertEquals(100, preTradeRisk.getPosition(RIC, "CP1"));
+        Assert.assertEquals(-100, preTradeRisk.getPosition(RIC, "CP3"));
+    }
+
+    @Test
+    public void amendsReserveTheirIncreaseUpFront() {
+        limits.setMaxOpenNotional(6_000);
+        BuyOrder first = new BuyOrder(RIC, 1, 20.00, 100);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.00, 100);
+        Assert.assertNull(submit(first, "CP1"));
+        Assert.assertNull(submit(second, "CP1"));
+
+        // both amends check out alone, the first one's reservation leaves no room for the second
+        Assert.assertNull(preTradeRisk.checkAmend(first, Price.toScaled(20.00), 200));
+        Assert.assertEquals(Price.toScaled(6_000), preTradeRisk.getOpenNotional("CP1"));
+        Assert.assertEquals(RejectReason.NOTIONAL_LIMIT, preTradeRisk.checkAmend(second, Price.toScaled(20.00), 200));
+
+        Assert.assertTrue(orderProcessor.modifyOrder(first, Price.toScaled(20.00), 200));
+        Assert.assertEquals(Price.toScaled(6_000), preTradeRisk.getOpenNotional("CP1"));
+        Assert.assertEquals(Price.toScaled(4_000), first.getReservedNotional());
+        Assert.assertEquals(0, first.getAmendReservation());
+
+        // refused by the book, the increase is given back
+        orderProcessor.cancelOrder(second);
+        Assert.assertNull(preTradeRisk.checkAmend(first, Price.toScaled(20.00), 300));
+        Assert.assertEquals(Price.toScaled(6_000), preTradeRisk.getOpenNotional("CP1"));
+        preTradeRisk.releaseAmend(first);
+        Assert.assertEquals(Price.toScaled(4_000), preTradeRisk.getOpenNotional("CP1"));
+
+        // one still pending when the order ends goes with it
+        Assert.assertNull(preTradeRisk.checkAmend(first, Price.toScaled(20.00), 300));
+        orderProcessor.cancelOrder(first);
+        Assert.assertEquals(0, preTradeRisk.getOpenNotional("CP1"));
+    }
+
+    @Test
+    public void positionLimitCountsTheOrderAsFilled() {
+        limits.setMaxPosition(150);
+        Assert.assertNull(submit(new SellOrder(RIC, 1, 20.00, 100), "CP2"));
+        Assert.assertNull(submit(new BuyOrder(RIC, 1, 20.00, 100), "CP1"));
+        orderProcessor.executeAllMatchedOrder();
+        Assert.assertEquals(RejectReason.POSITION_LIMIT, submit(new BuyOrder(RIC, 1, 20.00, 100), "CP1"));
+        Assert.assertNull(submit(new SellOrder(RIC, 2, 20.00, 100), "CP1"));
+    }
+
+    @Test
+    public void throttlesOrderRate() {
+        limits.setMaxOrdersPerSecond(3);
+        int accepted = 0;
+        for (int i = 0; i < 5; i++) {
+            if (submit(new BuyOrder(RIC, 1, 20.00, 100), "CP1") == null) {
+                accepted++;
+            }
+        }
+        // a second boundary can let a few more through, never fewer
+        Assert.assertTrue(accepted >= 3 && accepted < 5);
+        Assert.assertTrue(rejectReasons.contains(RejectReason.THROTTLE));
+    }
+
+    private RejectReason submit(BaseOrder order, String counterPartyName) {
+        order.setCounterParty(new CounterParty(counterPartyName));
+        RejectReason reason = preTradeRisk.check(order);
+        if (reason != null) {
+            orderProcessor.rejectOrder(order, reason);
+        } else {
+            orderProcessor.submitOrder(order);
+        }
+        return reason;
+    }
+}
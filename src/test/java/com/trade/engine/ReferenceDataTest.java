@@ -0,0 +1,144 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.RicNotRegisteredException;
+import com.trade.engine.booking.TradeBookingEngineConfig;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.refdata.Instrument;
+import com.trade.engine.refdata.InstrumentRegistry;
+import com.trade.engine.refdata.ReferenceDataException;
+import com.trade.engine.refdata.TradingStatus;
+import com.trade.engine.report.RejectReason;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Instruments loaded from reference data set each RIC's tick size, lot size, price band and
+ * trading status, and registered RICs can be addressed by a dense instrument id.
+ */
+public class ReferenceDataTest {
+
+    static final String RIC_N225 = ".N225";
+    static final String RIC_SPX = ".SPX";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File referenceData;
+    private TradeBookingEngineImpl engine;
+    private final List<RejectReason> rejectReasons = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        referenceData = temporaryFolder.newFile("instruments.csv");
+        Files.write(referenceData.toPath(), Arrays.asList(
+                "# RIC,tickSize,lotSize,lowPrice,highPrice,status",
+                RIC_N225 + ",0.05,100,20.00,21.00",
+                "",
+                RIC_SPX + ",0.25,10,,,HALTED"), StandardCharsets.UTF_8);
+        TradeBookingEngineConfig config = new TradeBookingEngineConfig(1);
+        config.setConsoleReports(false);
+        config.setJmxMetrics(false);
+        config.setMatchingMode(MatchingMode.INLINE);
+        config.setReferenceDataFile(referenceData.getPath());
+        engine = new TradeBookingEngineImpl(config);
+        engine.addExecutionReportListener(report -> {
+            if (report.getStatus() == BaseOrder.OrderStatus.REJECTED) {
+                rejectReasons.add(report.getRejectReason());
+            }
+        });
+        engine.start();
+    }
+
+    @After
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void loadsDefinitionsFromCsv() {
+        InstrumentRegistry registry = new InstrumentRegistry();
+        Assert.assertEquals(2, registry.load(referenceData));
+        Instrument n225 = registry.getDefinition(RIC_N225);
+        Assert.assertEquals(Price.toScaled(0.05), n225.getTickSize());
+        Assert.assertEquals(100, n225.getLotSize());
+        Assert.assertTrue(n225.isWithinPriceBand(Price.toScaled(20.00)));
+        Assert.assertFalse(n225.isWithinPriceBand(Price.toScaled(21.05)));
+        Instrument spx = registry.getDefinition(RIC_SPX);
+        Assert.assertEquals(10, spx.getLotSize());
+        Assert.assertTrue(spx.isWithinPriceBand(Long.MAX_VALUE));
+        Assert.assertEquals(TradingStatus.HALTED, spx.getTradingStatus());
+    }
+
+    @Test(expected = ReferenceDataException.class)
+    public void rejectsMalformedReferenceData() throws Exception {
+        File bad = temporaryFolder.newFile("bad.csv");
+        Files.write(bad.toPath(), Arrays.asList(RIC_N225 + ",0.05,lots"), StandardCharsets.UTF_8);
+        new InstrumentRegistry().load(bad);
+    }
+
+    @Test
+    public void ordersAreCheckedAgainstTheirInstrument() {
+        engine.register(RIC_N225);
+        engine.register(RIC_SPX);
+        engine.submitOrder(RIC_N225, new BuyOrder(RIC_N225, 1, 20.15, 10));
+        engine.submitOrder(RIC_N225, new BuyOrder(RIC_N225, 1, 21.50, 100));
+        engine.submitOrder(RIC_SPX, new SellOrder(RIC_SPX, 1, 4000.25, 10));
+        awaitRejects(3);
+        Assert.assertEquals(Arrays.asList(RejectReason.INVALID_ORDER, RejectReason.PRICE_BAND,
+                RejectReason.NOT_TRADING), rejectReasons);
+
+        engine.getInstrument(RIC_SPX).setTradingStatus(TradingStatus.TRADING);
+        SellOrder sellOrder = new SellOrder(RIC_SPX, 1, 4000.25, 10);
+        engine.submitOrder(RIC_SPX, sellOrder);
+        Assert.assertEquals(sellOrder, engine.peekSellOrder(RIC_SPX));
+    }
+
+    @Test
+    public void registeredRicsAreAddressedById() {
+        engine.register(RIC_N225);
+        engine.register(RIC_SPX, 0.01);
+        int n225 = engine.getInstrumentId(RIC_N225);
+        int spx = engine.getInstrumentId(RIC_SPX);
+        Assert.assertTrue(n225 > 0 && spx > 0 && n225 != spx);
+        Assert.assertEquals(100, engine.getInstrument(RIC_SPX).getLotSize());
+
+        SellOrder sellOrder = new SellOrder(RIC_N225, 1, 20.30, 100);
+        engine.submitOrder(n225, sellOrder);
+        Assert.assertEquals(n225, sellOrder.getInstrumentId());
+        Assert.assertEquals(1, engine.getDepth(n225, 5).getAskLevelCount());
+        Assert.assertTrue(engine.isPendingOrder(sellOrder));
+        Assert.assertTrue(engine.modifyOrder(sellOrder, 20.25, 100));
+        Assert.assertTrue(engine.cancelOrder(sellOrder));
+        Assert.assertFalse(engine.isPendingOrder(sellOrder));
+        Assert.assertNull(engine.peekSellOrder(RIC_N225));
+    }
+
+    @Test(expected = RicNotRegisteredException.class)
+    public void unknownIdIsNotRegistered() {
+        engine.submitOrder(42, new BuyOrder(RIC_N225, 1, 20.15, 100));
+    }
+
+    private void awaitRejects(int count) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (rejectReasons.size() < count) {
+            Assert.assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+}
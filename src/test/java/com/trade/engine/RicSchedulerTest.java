@@ -0,0 +1,144 @@
+package com.trade.engine;
+
+import com.trade.engine.booking.MatchingMode;
+import com.trade.engine.booking.TradeBookingEngineImpl;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.scheduler.RicScheduler;
+import com.trade.engine.scheduler.RicTask;
+import com.trade.engine.scheduler.WorkerStats;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many RICs share a couple of workers, and a RIC queued behind a busy worker is stolen by an idle
+ * one and moves its home there.
+ */
+public class RicSchedulerTest {
+
+    private final RicScheduler scheduler = new RicScheduler(2);
+    private TradeBookingEngineImpl engine;
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void fiftyRicsOnTwoWorkersAllMatch() throws InterruptedException {
+        engine = new TradeBookingEngineImpl(2, MatchingMode.SIGNAL);
+        Set<String> filledRICs = ConcurrentHashMap.newKeySet();
+        CountDownLatch allFilled = new CountDownLatch(50);
+        engine.addExecutionReportListener(report -> {
+            if (report.getExecutedQuantity() > 0 && filledRICs.add(report.getRIC())) {
+                allFilled.countDown();
+            }
+        });
+        engine.start();
+        for (int i = 0; i < 50; i++) {
+            engine.register("RIC" + i + ".T", 0.05);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            String RIC = "RIC" + i + ".T";
+            engine.submitOrder(RIC, new SellOrder(RIC, 1, 20.30, 100));
+            engine.submitOrder(RIC, new BuyOrder(RIC, 1, 20.30, 100));
+        }
+
+        Assert.assertTrue(allFilled.await(5, TimeUnit.SECONDS));
+        List<WorkerStats> stats = engine.getWorkerStats();
+        Assert.assertEquals(2, stats.size());
+        Assert.assertTrue(stats.toString(), stats.get(0).getRuns() + stats.get(1).getRuns() >= 50);
+        Assert.assertTrue(stats.toString(), stats.get(0).getBusyNanos() + stats.get(1).getBusyNanos() > 0);
+    }
+
+    @Test
+    public void hotRicQueuedBehindABusyWorkerIsStolen() throws InterruptedException {
+        CountDownLatch busyStarted = new CountDownLatch(1);
+        CountDownLatch releaseBusy = new CountDownLatch(1);
+        CountDownLatch hotRan = new CountDownLatch(1);
+        Task busy = new Task("BUSY.T", () -> {
+            busyStarted.countDown();
+            try {
+                releaseBusy.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        scheduler.register(busy);
+        scheduler.start();
+        scheduler.signal(busy);
+        Assert.assertTrue(busyStarted.await(1, TimeUnit.SECONDS));
+        // the worker running busy, either its home or the idle one that stole it first
+        int busyWorker = busy.getHomeWorker();
+        int idleWorker = 1 - busyWorker;
+        Task hot = new Task(ricHomedOn(busyWorker), () -> {
+            spin(TimeUnit.MILLISECONDS.toNanos(5));
+            hotRan.countDown();
+        });
+        scheduler.register(hot);
+        WorkerStats before = scheduler.getWorkerStats().get(idleWorker);
+
+        scheduler.signal(hot);
+        try {
+            Assert.assertTrue(hotRan.await(1, TimeUnit.SECONDS));
+        } finally {
+            releaseBusy.countDown();
+        }
+
+        Assert.assertEquals(idleWorker, hot.getHomeWorker());
+        // a run is counted once the task returns, just after it counted hotRan down
+        WorkerStats after = scheduler.getWorkerStats().get(idleWorker);
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (after.getRuns() == before.getRuns() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+            after = scheduler.getWorkerStats().get(idleWorker);
+        }
+        Assert.assertEquals(after.toString(), before.getSteals() + 1, after.getSteals());
+        Assert.assertEquals(after.toString(), before.getRuns() + 1, after.getRuns());
+        Assert.assertTrue(after.toString(),
+                after.getBusyNanos() - before.getBusyNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        Assert.assertTrue(after.toString(), after.getUtilization() > before.getUtilization());
+        Assert.assertEquals(0, after.getQueuedTasks());
+    }
+
+    private String ricHomedOn(int worker) {
+        for (int i = 0; ; i++) {
+            String RIC = "HOT" + i + ".T";
+            if (scheduler.homeWorkerOf(RIC) == worker) {
+                return RIC;
+            }
+        }
+    }
+
+    private static void spin(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            // busy
+        }
+    }
+
+    private static class Task extends RicTask {
+        private final Runnable work;
+
+        Task(String RIC, Runnable work) {
+            super(RIC);
+            this.work = work;
+        }
+
+        @Override
+        protected void run() {
+            work.run();
+        }
+    }
+}
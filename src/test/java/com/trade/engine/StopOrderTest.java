@@ -0,0 +1,156 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.report.RejectReason;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stop and stop-limit orders wait outside the book until a trade prints at their stop price, then
+ * trade like the limit or market order they carry.
+ */
+public class StopOrderTest {
+
+    static final String RIC = ".N225";
+
+    private OrderProcessorImpl orderProcessor;
+    private List<String> fills;
+    private List<RejectReason> rejects;
+
+    @Before
+    public void setup() {
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        fills = new ArrayList<>();
+        rejects = new ArrayList<>();
+        orderProcessor.setExecutionReportListener(report -> {
+            if (report.getExecutedQuantity() > 0) {
+                fills.add(report.getOrderId() + ":" + report.getExecutedQuantity() + "@" + Price.toDouble(report.getFillPrice()));
+            }
+            if (report.getRejectReason() != null) {
+                rejects.add(report.getRejectReason());
+            }
+        });
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void buyStopLimitWaitsForATradeAtItsStopPrice() {
+        BuyOrder stopLimit = new BuyOrder(RIC, 1, 20.50, 100);
+        stopLimit.setStopPrice(20.40);
+        orderProcessor.submitOrder(stopLimit);
+        orderProcessor.submitOrder(new SellOrder(RIC, 2, 20.45, 100));
+
+        trade(20.35);
+        Assert.assertEquals(1, orderProcessor.getStopOrderCount());
+        Assert.assertTrue(orderProcessor.isPendingOrder(stopLimit));
+        Assert.assertEquals(BaseOrder.OrderStatus.NEW, stopLimit.getOrderStatus());
+
+        trade(20.40);
+        Assert.assertEquals(0, orderProcessor.getStopOrderCount());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, stopLimit.getOrderStatus());
+        Assert.assertTrue(fills.contains(stopLimit.getId() + ":100@20.45"));
+    }
+
+    @Test
+    public void sellStopsCascadeInOnePass() {
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.30, 100));
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, 20.20, 100));
+        SellOrder firstStop = new SellOrder(RIC, 1, 20.00, 100);
+        firstStop.setPriceType(BaseOrder.PriceType.MARKET);
+        firstStop.setStopPrice(20.40);
+        SellOrder secondStop = new SellOrder(RIC, 1, 20.00, 100);
+        secondStop.setPriceType(BaseOrder.PriceType.MARKET);
+        secondStop.setStopPrice(20.30);
+        SellOrder untouchedStop = new SellOrder(RIC, 1, 20.00, 100);
+        untouchedStop.setStopPrice(19.00);
+        orderProcessor.submitOrder(secondStop);
+        orderProcessor.submitOrder(untouchedStop);
+        orderProcessor.submitOrder(firstStop);
+
+        trade(20.40);
+        // the trade at 20.40 triggers the first stop, its fill at 20.30 triggers the second
+        Assert.assertTrue(fills.contains(firstStop.getId() + ":100@20.3"));
+        Assert.assertTrue(fills.contains(secondStop.getId() + ":100@20.2"));
+        Assert.assertEquals(1, orderProcessor.getStopOrderCount());
+        Assert.assertTrue(orderProcessor.isPendingOrder(untouchedStop));
+        Assert.assertNull(orderProcessor.peekBuyOrder());
+    }
+
+    @Test
+    public void stopAlreadyTriggeredOnArrivalIsBookedStraightAway() {
+        trade(20.40);
+        BuyOrder stopLimit = new BuyOrder(RIC, 1, 20.30, 100);
+        stopLimit.setStopPrice(20.35);
+        orderProcessor.submitOrder(stopLimit);
+
+        Assert.assertEquals(0, orderProcessor.getStopOrderCount());
+        Assert.assertEquals(stopLimit, orderProcessor.peekBuyOrder());
+    }
+
+    @Test
+    public void waitingStopCanBeCancelled() {
+        SellOrder stop = new SellOrder(RIC, 1, 20.00, 100);
+        stop.setStopPrice(20.00);
+        orderProcessor.submitOrder(stop);
+
+        Assert.assertTrue(orderProcessor.cancelOrder(stop));
+        Assert.assertEquals(BaseOrder.OrderStatus.CANCELLED, stop.getOrderStatus());
+        Assert.assertFalse(orderProcessor.isPendingOrder(stop));
+        trade(19.95);
+        Assert.assertNull(orderProcessor.peekSellOrder());
+    }
+
+    @Test
+    public void waitingStopCanBeAmended() {
+        BuyOrder first = new BuyOrder(RIC, 1, 20.50, 100);
+        first.setStopPrice(20.40);
+        BuyOrder second = new BuyOrder(RIC, 1, 20.50, 100);
+        second.setStopPrice(20.40);
+        orderProcessor.submitOrder(first);
+        orderProcessor.submitOrder(second);
+
+        // a new price queues the first stop behind the second at the same stop price
+        Assert.assertTrue(orderProcessor.modifyOrder(first, Price.toScaled(20.45), 200));
+        Assert.assertTrue(orderProcessor.modifyOrder(second, Price.toScaled(20.50), 100));
+        Assert.assertFalse(orderProcessor.modifyOrder(second, Price.toScaled(20.42), 100));
+        Assert.assertEquals(2, orderProcessor.getStopOrderCount());
+        Assert.assertTrue(orderProcessor.isPendingOrder(first));
+
+        orderProcessor.submitOrder(new SellOrder(RIC, 2, 20.45, 100));
+        trade(20.40);
+        Assert.assertEquals(0, orderProcessor.getStopOrderCount());
+        Assert.assertTrue(fills.contains(second.getId() + ":100@20.45"));
+        Assert.assertTrue(fills.contains(first.getId() + ":100@20.45"));
+        Assert.assertEquals(100, first.getQuantity());
+        Assert.assertEquals(Price.toScaled(20.45), first.getScaledPrice());
+    }
+
+    @Test
+    public void stopPriceOffTickIsRejected() {
+        BuyOrder stop = new BuyOrder(RIC, 1, 20.50, 100);
+        stop.setStopPrice(20.42);
+        orderProcessor.submitOrder(stop);
+
+        Assert.assertEquals(BaseOrder.OrderStatus.REJECTED, stop.getOrderStatus());
+        Assert.assertEquals(RejectReason.INVALID_ORDER, rejects.get(0));
+        Assert.assertEquals(0, orderProcessor.getStopOrderCount());
+    }
+
+    /**
+     * Prints a trade of one lot at price between two fresh orders.
+     */
+    private void trade(double price) {
+        orderProcessor.submitOrder(new BuyOrder(RIC, 1, price, 100));
+        orderProcessor.submitOrder(new SellOrder(RIC, 1, price, 100));
+        orderProcessor.executeAllMatchedOrder();
+    }
+}
@@ -0,0 +1,146 @@
+package com.trade.engine;
+
+import com.trade.engine.concurrent.WaitStrategyType;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import com.trade.engine.scheduler.RicHealth;
+import com.trade.engine.scheduler.RicScheduler;
+import com.trade.engine.scheduler.RicSupervisor;
+import com.trade.engine.scheduler.RicTask;
+import com.trade.engine.sequencer.OrderSequencer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A matching task or sequencer consumer that dies reports its own failure and is restarted
+ * straight away, then with a growing backoff while it keeps failing.
+ */
+public class SupervisorTest {
+
+    static final String RIC = ".N225";
+
+    private final RicScheduler scheduler = new RicScheduler(1);
+    private final RicSupervisor supervisor = new RicSupervisor(10, 1_000, TimeUnit.MILLISECONDS);
+    private final AtomicInteger runs = new AtomicInteger();
+    private volatile int failingRuns;
+    private volatile CountDownLatch healthyRun = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        supervisor.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void failedTaskIsRestartedStraightAway() throws InterruptedException {
+        failingRuns = 1;
+        startTask();
+
+        Assert.assertTrue(healthyRun.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, runs.get());
+        RicHealth health = supervisor.getHealth(RIC);
+        Assert.assertTrue(health.isHealthy());
+        Assert.assertEquals(1, health.getRestarts());
+        Assert.assertEquals("run 1", health.getLastFailure().getMessage());
+        Assert.assertTrue(health.getLastFailureMillis() > 0);
+    }
+
+    @Test
+    public void repeatedFailuresBackOff() throws InterruptedException {
+        failingRuns = Integer.MAX_VALUE;
+        long startTime = System.nanoTime();
+        startTask();
+        // failures at 0, 0, 10, 30 and 70 ms
+        while (supervisor.getHealth(RIC).getConsecutiveFailures() < 5) {
+            Thread.sleep(1);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        RicHealth health = supervisor.getHealth(RIC);
+        Assert.assertTrue("failed 5 times in " + elapsedMillis + " ms", elapsedMillis >= 70);
+        Assert.assertTrue(health.toString(), runs.get() <= 6);
+        Assert.assertEquals(4, health.getRestarts());
+
+        failingRuns = 0;
+        Assert.assertTrue(healthyRun.await(1, TimeUnit.SECONDS));
+        Assert.assertTrue(supervisor.getHealth(RIC).isHealthy());
+    }
+
+    @Test
+    public void restartedSequencerAppliesCommandsQueuedBehindTheFailure() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger(1);
+        OrderProcessorImpl orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(),
+                Price.toScaled(0.05)) {
+            @Override
+            public int executeAllMatchedOrder() {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("matching failed");
+                }
+                return super.executeAllMatchedOrder();
+            }
+        };
+        CountDownLatch fills = new CountDownLatch(4);
+        orderProcessor.setExecutionReportListener(report -> {
+            if (report.getExecutedQuantity() > 0) {
+                fills.countDown();
+            }
+        });
+        orderProcessor.setActive(true);
+        OrderSequencer sequencer = new OrderSequencer(RIC, orderProcessor, 64,
+                WaitStrategyType.PARK.newWaitStrategy());
+        supervisor.supervise(RIC, sequencer::restart);
+        sequencer.setFailureHandler(failure -> supervisor.onFailure(RIC, failure));
+        sequencer.start();
+
+        sequencer.submit(new SellOrder(RIC, 1, 20.30, 100));
+        sequencer.submit(new BuyOrder(RIC, 1, 20.30, 100));
+        sequencer.submit(new SellOrder(RIC, 1, 20.30, 100));
+        sequencer.submit(new BuyOrder(RIC, 1, 20.30, 100));
+
+        Assert.assertTrue(fills.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, supervisor.getHealth(RIC).getRestarts());
+        sequencer.stop();
+        Assert.assertTrue(sequencer.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertFalse(sequencer.restart());
+    }
+
+    private void startTask() {
+        scheduler.start();
+        supervisor.supervise(RIC, () -> new Task().start());
+        new Task().start();
+    }
+
+    private class Task extends RicTask {
+
+        Task() {
+            super(RIC);
+        }
+
+        void start() {
+            scheduler.register(this);
+            scheduler.signal(this);
+        }
+
+        @Override
+        protected void run() {
+            int run = runs.incrementAndGet();
+            if (run <= failingRuns) {
+                throw new IllegalStateException("run " + run);
+            }
+            healthyRun.countDown();
+        }
+
+        @Override
+        protected void onFailure(Throwable failure) {
+            supervisor.onFailure(getRIC(), failure);
+        }
+    }
+}
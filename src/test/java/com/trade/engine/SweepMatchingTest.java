@@ -0,0 +1,83 @@
+package com.trade.engine;
+
+import com.trade.engine.order.BaseOrder;
+import com.trade.engine.order.BuyOrder;
+import com.trade.engine.order.Price;
+import com.trade.engine.order.SellOrder;
+import com.trade.engine.orderexecution.LimitOrderMatchRuleImpl;
+import com.trade.engine.orderexecution.OrderProcessorImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A crossing order sweeps the contra side level by level at the resting prices, with one report
+ * per resting order and one aggregated report per level for the aggressor.
+ */
+public class SweepMatchingTest {
+
+    static final String RIC = ".N225";
+
+    private OrderProcessorImpl orderProcessor;
+    private List<String> reports;
+
+    @Before
+    public void setup() {
+        orderProcessor = new OrderProcessorImpl(RIC, new LimitOrderMatchRuleImpl(), Price.toScaled(0.05));
+        reports = new ArrayList<>();
+        orderProcessor.setExecutionReportListener(report -> reports.add(report.getOrderId() + ":"
+                + report.getExecutedQuantity() + "@" + Price.toDouble(report.getFillPrice())
+                + " leaves " + report.getLeavesQuantity()));
+        orderProcessor.setActive(true);
+    }
+
+    @Test
+    public void aggressorSweepsLevelsAtRestingPrices() {
+        SellOrder first = new SellOrder(RIC, 1, 20.30, 100);
+        SellOrder second = new SellOrder(RIC, 1, 20.30, 100);
+        SellOrder third = new SellOrder(RIC, 3, 20.40, 100);
+        orderProcessor.submitOrder(first);
+        orderProcessor.submitOrder(second);
+        orderProcessor.submitOrder(third);
+        BuyOrder buyOrder = new BuyOrder(RIC, 4, 20.45, 100);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(3, orderProcessor.executeAllMatchedOrder());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, buyOrder.getOrderStatus());
+        Assert.assertEquals(100, third.getQuantity());
+        Assert.assertEquals(5, reports.size());
+        Assert.assertEquals(first.getId() + ":100@20.3 leaves 0", reports.get(0));
+        Assert.assertEquals(second.getId() + ":100@20.3 leaves 0", reports.get(1));
+        Assert.assertEquals(buyOrder.getId() + ":200@20.3 leaves 200", reports.get(2));
+        Assert.assertEquals(third.getId() + ":200@20.4 leaves 100", reports.get(3));
+        Assert.assertEquals(buyOrder.getId() + ":200@20.4 leaves 0", reports.get(4));
+    }
+
+    @Test
+    public void ordersAtTheSamePriceTrade() {
+        SellOrder sellOrder = new SellOrder(RIC, 1, 20.30, 100);
+        BuyOrder buyOrder = new BuyOrder(RIC, 1, 20.30, 100);
+        orderProcessor.submitOrder(sellOrder);
+        orderProcessor.submitOrder(buyOrder);
+
+        Assert.assertEquals(1, orderProcessor.executeAllMatchedOrder());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, sellOrder.getOrderStatus());
+        Assert.assertEquals(BaseOrder.OrderStatus.EXECUTED, buyOrder.getOrderStatus());
+    }
+
+    @Test
+    public void restingSellerSetsThePriceForALaterSeller() {
+        BuyOrder buyOrder = new BuyOrder(RIC, 2, 20.40, 100);
+        orderProcessor.submitOrder(buyOrder);
+        SellOrder sellOrder = new SellOrder(RIC, 1, 20.30, 100);
+        orderProcessor.submitOrder(sellOrder);
+
+        orderProcessor.executeAllMatchedOrder();
+        Assert.assertEquals(buyOrder.getId() + ":100@20.4 leaves 100", reports.get(0));
+        Assert.assertEquals(sellOrder.getId() + ":100@20.4 leaves 0", reports.get(1));
+        Assert.assertEquals(buyOrder, orderProcessor.peekBuyOrder());
+    }
+}
@@ -7,6 +7,7 @@ import com.trade.engine.order.BaseOrder;
 import com.trade.engine.order.BuyOrder;
 import com.trade.engine.order.CounterParty;
 import com.trade.engine.order.SellOrder;
+import com.trade.engine.report.ExecutionReport;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -76,14 +77,14 @@ public class TradeEngineTest {
         tradeBookingEngine.submitOrder(RIC_N225,INVALID_LOT_SIZE_SELL_ORDER);
         Assert.assertEquals("Rejected", INVALID_LOT_SIZE_SELL_ORDER.getOrderStatus(), BaseOrder.OrderStatus.REJECTED);
         Mockito.verify(cp1,
-                Mockito.atLeast(0)).orderStatusCallBack(Mockito.any(),Mockito.anyInt(),Mockito.anyString());
+                Mockito.atLeast(0)).orderStatusCallBack(Mockito.any(ExecutionReport.class));
 
         SellOrder INVALID_LOT_SIZE_WITH_CP_SELL_ORDER_1 = new SellOrder(RIC_N225, 1, 20.30, 10);
         INVALID_LOT_SIZE_WITH_CP_SELL_ORDER_1.setCounterParty(cp1);
         tradeBookingEngine.submitOrder(RIC_N225,INVALID_LOT_SIZE_WITH_CP_SELL_ORDER_1);
         Assert.assertEquals("Rejected", INVALID_LOT_SIZE_WITH_CP_SELL_ORDER_1.getOrderStatus(), BaseOrder.OrderStatus.REJECTED);
         Mockito.verify(cp1,
-                Mockito.atLeast(1)).orderStatusCallBack(Mockito.any(),Mockito.anyInt(),Mockito.anyString());
+                Mockito.timeout(1000).atLeast(1)).orderStatusCallBack(Mockito.any(ExecutionReport.class));
 
     }
 